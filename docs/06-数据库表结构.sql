@@ -74,6 +74,7 @@ CREATE TABLE `user_profile` (
     UNIQUE KEY `uk_user_id` (`user_id`),
     INDEX `idx_last_update_time` (`last_update_time`),
     INDEX `idx_interest_tags` ((CAST(interest_tags AS CHAR(255)))),
+    INDEX `idx_active_periods` ((CAST(active_periods AS UNSIGNED ARRAY))),
     CONSTRAINT `fk_profile_user` FOREIGN KEY (`user_id`) REFERENCES `user` (`id`) ON DELETE CASCADE
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='用户画像表';
 
@@ -405,6 +406,22 @@ CREATE TABLE `item_similarity` (
     INDEX `idx_similarity` (`similarity`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='物品相似度表';
 
+-- 5.3 用户曝光表（只追加，由曝光写入器批量写入）
+DROP TABLE IF EXISTS `user_impression`;
+CREATE TABLE `user_impression` (
+    `id` BIGINT PRIMARY KEY AUTO_INCREMENT COMMENT '曝光ID',
+    `user_id` BIGINT NOT NULL COMMENT '用户ID',
+    `content_type` VARCHAR(20) NOT NULL COMMENT '内容类型：article,image,video',
+    `content_id` BIGINT NOT NULL COMMENT '内容ID',
+    `position` INT COMMENT '在推荐结果中的位置',
+    `score` DOUBLE COMMENT '推荐得分',
+    `recommend_type` VARCHAR(50) COMMENT '推荐类型：personal,popular',
+    `device` VARCHAR(20) COMMENT '设备类型：mobile,pc,tablet',
+    `create_time` DATETIME DEFAULT CURRENT_TIMESTAMP COMMENT '曝光时间',
+    INDEX `idx_user_time` (`user_id`, `create_time`),
+    INDEX `idx_content_time` (`content_type`, `content_id`, `create_time`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='用户曝光表';
+
 -- =============================================
 -- 六、插入测试行为数据
 -- =============================================
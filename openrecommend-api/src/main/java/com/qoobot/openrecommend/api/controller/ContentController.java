@@ -12,7 +12,11 @@ import com.qoobot.openrecommend.service.VideoService;
 import jakarta.annotation.Resource;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
 
 /**
  * 内容管理控制器
@@ -138,6 +142,17 @@ public class ContentController {
         return success ? Result.success() : Result.error("更新失败");
     }
 
+    /**
+     * 上传图片文件，计算并保存颜色直方图
+     */
+    @PutMapping(value = "/image/{id}/content", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public Result<Void> uploadImageContent(@PathVariable Long id, @RequestParam("file") MultipartFile file)
+            throws IOException {
+        log.info("上传图片文件: id={}, size={}", id, file.getSize());
+        boolean success = imageService.updateColorHistogram(id, file.getBytes());
+        return success ? Result.success() : Result.error("图片无法解码");
+    }
+
     /**
      * 删除图片
      */
@@ -1,5 +1,7 @@
 package com.qoobot.openrecommend.api.controller;
 
+import com.qoobot.openrecommend.api.dto.BatchRecommendRequest;
+import com.qoobot.openrecommend.api.dto.BatchRecommendResponse;
 import com.qoobot.openrecommend.api.dto.RecommendItem;
 import com.qoobot.openrecommend.api.dto.RecommendRequest;
 import com.qoobot.openrecommend.api.dto.RecommendResponse;
@@ -36,6 +38,18 @@ public class RecommendController {
         return Result.success(response);
     }
 
+    /**
+     * 批量获取个性化推荐
+     * 供邮件、推送等离线任务使用
+     */
+    @Operation(summary = "批量个性化推荐")
+    @PostMapping("/batch")
+    public Result<BatchRecommendResponse> getBatchRecommend(
+            @Valid @RequestBody BatchRecommendRequest request) {
+        BatchRecommendResponse response = recommendService.recommendBatch(request);
+        return Result.success(response);
+    }
+
     /**
      * 获取热门内容
      */
@@ -59,4 +73,29 @@ public class RecommendController {
         RecommendResponse response = recommendService.recommendRelated(contentId, limit);
         return Result.success(response);
     }
+
+    /**
+     * 获取指定内容类型的相关推荐
+     */
+    @Operation(summary = "相关内容推荐（指定内容类型）")
+    @GetMapping("/related/{contentType}/{contentId}")
+    public Result<RecommendResponse> getTypedRelatedRecommend(
+            @PathVariable String contentType,
+            @PathVariable Long contentId,
+            @RequestParam(defaultValue = "10") Integer limit) {
+        RecommendResponse response = recommendService.recommendRelated(contentType, contentId, limit);
+        return Result.success(response);
+    }
+
+    /**
+     * 获取视觉相似图片
+     */
+    @Operation(summary = "视觉相似图片推荐")
+    @GetMapping("/similar-image/{imageId}")
+    public Result<RecommendResponse> getVisuallySimilarImages(
+            @PathVariable Long imageId,
+            @RequestParam(defaultValue = "10") Integer limit) {
+        RecommendResponse response = recommendService.recommendVisuallySimilar(imageId, limit);
+        return Result.success(response);
+    }
 }
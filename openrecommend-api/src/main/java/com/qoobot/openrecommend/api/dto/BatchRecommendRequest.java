@@ -0,0 +1,40 @@
+package com.qoobot.openrecommend.api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 批量推荐请求DTO
+ *
+ * @author Qoobot Team
+ * @since 1.0.0
+ */
+@Data
+@Schema(description = "批量推荐请求")
+public class BatchRecommendRequest {
+
+    @NotEmpty(message = "用户ID列表不能为空")
+    @Size(max = 10000, message = "单次批量推荐最多10000个用户")
+    @Schema(description = "用户ID列表", required = true, example = "[1001, 1002]")
+    private List<Long> userIds;
+
+    @NotBlank(message = "内容类型不能为空")
+    @Schema(description = "内容类型：article/image/video/all", required = true, example = "article")
+    private String contentType;
+
+    @Min(value = 10, message = "推荐数量最小为10")
+    @Schema(description = "每个用户的推荐数量", example = "20")
+    private Integer limit = 20;
+
+    @Schema(description = "设备类型：mobile/pc/tablet", example = "mobile")
+    private String device;
+
+    @Schema(description = "推荐类型：personal/popular，为空时综合推荐", example = "personal")
+    private String recommendType;
+}
@@ -0,0 +1,33 @@
+package com.qoobot.openrecommend.api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 批量推荐响应DTO
+ *
+ * @author Qoobot Team
+ * @since 1.0.0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "批量推荐响应")
+public class BatchRecommendResponse {
+
+    @Schema(description = "各用户的推荐结果，按用户ID索引")
+    private Map<Long, RecommendResponse> results;
+
+    @Schema(description = "推荐失败的用户ID")
+    private List<Long> failedUserIds;
+
+    @Schema(description = "时间戳")
+    private Long timestamp;
+}
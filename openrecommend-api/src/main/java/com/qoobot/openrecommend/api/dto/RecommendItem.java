@@ -6,6 +6,9 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 /**
  * 推荐项DTO
  *
@@ -13,7 +16,7 @@ import lombok.NoArgsConstructor;
  * @since 1.0.0
  */
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 @Schema(description = "推荐项")
@@ -30,4 +33,34 @@ public class RecommendItem {
 
     @Schema(description = "推荐理由", example = "基于您的兴趣推荐")
     private String reason;
+
+    @Schema(description = "标题")
+    private String title;
+
+    @Schema(description = "封面图")
+    private String coverImage;
+
+    @Schema(description = "作者ID")
+    private Long authorId;
+
+    @Schema(description = "分类", example = "tech")
+    private String category;
+
+    @Schema(description = "标签")
+    private List<String> tags;
+
+    @Schema(description = "质量分", example = "0.8")
+    private Double qualityScore;
+
+    @Schema(description = "浏览数")
+    private Long viewCount;
+
+    @Schema(description = "点赞数")
+    private Long likeCount;
+
+    @Schema(description = "时长（秒），仅视频")
+    private Integer duration;
+
+    @Schema(description = "发布时间")
+    private LocalDateTime publishTime;
 }
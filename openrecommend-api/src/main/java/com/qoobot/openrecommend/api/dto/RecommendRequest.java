@@ -30,4 +30,13 @@ public class RecommendRequest {
 
     @Schema(description = "设备类型：mobile/pc/tablet", example = "mobile")
     private String device;
+
+    @Schema(description = "推荐类型：personal/popular，为空时综合推荐", example = "personal")
+    private String recommendType;
+
+    @Schema(description = "会话ID：传入时开启会话内分页，首页生成排序列表并返回游标；同一会话ID再次请求首页即刷新", example = "8f3c2a")
+    private String sessionId;
+
+    @Schema(description = "分页游标：取自上一页响应的nextCursor，传入时返回下一页")
+    private String cursor;
 }
@@ -1,5 +1,6 @@
 package com.qoobot.openrecommend.api.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -24,6 +25,36 @@ public class RecommendResponse {
     @Schema(description = "推荐项列表")
     private List<RecommendItem> items;
 
+    @Schema(description = "贡献了结果的召回通道", example = "[\"content\", \"hot\"]")
+    private List<String> channels;
+
+    @Schema(description = "是否为部分结果（存在超时或失败的召回通道）", example = "false")
+    private Boolean partial;
+
+    @Schema(description = "生成结果时的降级模式：full/no_user_cf/no_similarity/hot_only", example = "full")
+    private String degradeMode;
+
+    @Schema(description = "下一页游标（会话内分页），为空表示没有更多内容")
+    private String nextCursor;
+
     @Schema(description = "时间戳")
     private Long timestamp;
+
+    /**
+     * 计算完成时间（毫秒），缓存元数据，不返回给客户端
+     */
+    @JsonIgnore
+    private Long computedAt;
+
+    /**
+     * 计算耗时（毫秒），用于提前刷新缓存
+     */
+    @JsonIgnore
+    private Long computeCost;
+
+    /**
+     * 逻辑过期时间（毫秒），之后在宽限期内返回旧结果并在后台重算
+     */
+    @JsonIgnore
+    private Long expireAt;
 }
@@ -0,0 +1,102 @@
+package com.qoobot.openrecommend.common.concurrent;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 舱壁（信号量隔离）
+ * 限制对某个下游依赖（如MySQL、Redis）的并发调用数。使用虚拟线程后线程数不再构成限流，
+ * 由舱壁保护下游连接池：超过许可数的调用最多等待 maxWaitMillis，仍无许可则快速失败。
+ *
+ * @author Qoobot Team
+ * @since 1.0.0
+ */
+public final class Bulkhead {
+
+    private final String name;
+    private final int maxConcurrent;
+    private final long maxWaitMillis;
+    private final Semaphore permits;
+
+    public Bulkhead(String name, int maxConcurrent, long maxWaitMillis) {
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.maxWaitMillis = maxWaitMillis;
+        this.permits = new Semaphore(maxConcurrent, true);
+    }
+
+    /**
+     * 在舱壁许可内执行调用
+     *
+     * @param call 调用
+     * @return 调用结果
+     * @throws BulkheadFullException 等待许可超时
+     */
+    public <T> T call(Callable<T> call) {
+        acquire();
+        try {
+            return call.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new CompletionException(e);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * 在舱壁许可内执行无返回值的调用
+     *
+     * @param call 调用
+     * @throws BulkheadFullException 等待许可超时
+     */
+    public void run(Runnable call) {
+        acquire();
+        try {
+            call.run();
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void acquire() {
+        try {
+            if (!permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS)) {
+                throw new BulkheadFullException(name, maxConcurrent);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    /**
+     * 当前可用许可数
+     */
+    public int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+
+    /**
+     * 舱壁已满
+     */
+    public static class BulkheadFullException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        public BulkheadFullException(String name, int maxConcurrent) {
+            super("舱壁已满: " + name + ", maxConcurrent=" + maxConcurrent);
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package com.qoobot.openrecommend.common.concurrent;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 结构化并发作用域
+ * 子任务在作用域内派生（通常运行在虚拟线程上），作用域关闭时取消并中断所有未完成的子任务，
+ * 其后完成的结果被丢弃。关闭不等待子任务退出：不响应中断的阻塞调用（如JDBC查询）可能在作用域关闭后
+ * 继续运行，其运行时间需由调用本身的超时限制（如语句超时）。
+ * <ul>
+ *     <li>必需子任务失败时立即关闭作用域（fail-fast），中断全部兄弟子任务</li>
+ *     <li>可选子任务失败只记录在自身状态中，不影响其他子任务</li>
+ *     <li>{@link #joinUntil} 在全部完成、作用域关闭或到达截止时间时返回</li>
+ * </ul>
+ * 语义与 JDK 预览API StructuredTaskScope.ShutdownOnFailure 接近，便于之后迁移。
+ * 作用域本身只应由创建它的线程使用。
+ *
+ * @param <T> 子任务结果类型
+ * @author Qoobot Team
+ * @since 1.0.0
+ */
+public final class TaskScope<T> implements AutoCloseable {
+
+    private final ExecutorService executor;
+    private final List<Subtask<T>> subtasks = new CopyOnWriteArrayList<>();
+    private final Object monitor = new Object();
+    private int pending;
+    private volatile boolean shutdown;
+    private volatile Throwable failure;
+
+    /**
+     * @param executor 子任务执行器，建议使用每任务一个虚拟线程的执行器
+     */
+    public TaskScope(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * 派生可选子任务
+     *
+     * @param name 子任务名称
+     * @param task 任务
+     * @return 子任务句柄
+     */
+    public Subtask<T> fork(String name, Callable<? extends T> task) {
+        return fork(name, task, false);
+    }
+
+    /**
+     * 派生必需子任务，失败时关闭整个作用域
+     *
+     * @param name 子任务名称
+     * @param task 任务
+     * @return 子任务句柄
+     */
+    public Subtask<T> forkRequired(String name, Callable<? extends T> task) {
+        return fork(name, task, true);
+    }
+
+    private Subtask<T> fork(String name, Callable<? extends T> task, boolean required) {
+        if (shutdown) {
+            throw new IllegalStateException("作用域已关闭: " + name);
+        }
+        Subtask<T> subtask = new Subtask<>(name);
+        synchronized (monitor) {
+            pending++;
+        }
+        subtasks.add(subtask);
+        try {
+            subtask.future = executor.submit(() -> {
+                try {
+                    subtask.succeed(task.call());
+                } catch (Throwable e) {
+                    // 已被取消的子任务抛出的中断异常不视为失败
+                    onFailure(subtask, e, required);
+                } finally {
+                    complete();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // 执行器拒绝（如已关闭）：子任务直接失败，撤销计数，避免 join 永久等待
+            onFailure(subtask, e, required);
+            complete();
+        }
+        return subtask;
+    }
+
+    private void onFailure(Subtask<T> subtask, Throwable e, boolean required) {
+        if (subtask.fail(e) && required) {
+            synchronized (monitor) {
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+            shutdown();
+        }
+    }
+
+    private void complete() {
+        synchronized (monitor) {
+            pending--;
+            monitor.notifyAll();
+        }
+    }
+
+    /**
+     * 等待全部子任务完成或作用域关闭
+     *
+     * @throws InterruptedException 等待被中断（此时作用域已关闭）
+     */
+    public void join() throws InterruptedException {
+        joinUntil(Long.MAX_VALUE);
+    }
+
+    /**
+     * 等待子任务完成
+     *
+     * @param deadlineNanos 截止时间（{@link System#nanoTime()} 基准）
+     * @return 全部子任务是否已结束
+     * @throws InterruptedException 等待被中断（此时作用域已关闭）
+     */
+    public boolean joinUntil(long deadlineNanos) throws InterruptedException {
+        synchronized (monitor) {
+            while (pending > 0 && !shutdown) {
+                long remaining = deadlineNanos == Long.MAX_VALUE ? Long.MAX_VALUE : deadlineNanos - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(monitor, remaining);
+                } catch (InterruptedException e) {
+                    shutdown();
+                    throw e;
+                }
+            }
+            return pending == 0;
+        }
+    }
+
+    /**
+     * 必需子任务失败时抛出其异常
+     */
+    public void throwIfFailed() {
+        Throwable e = failure;
+        if (e == null) {
+            return;
+        }
+        if (e instanceof RuntimeException runtimeException) {
+            throw runtimeException;
+        }
+        if (e instanceof Error error) {
+            throw error;
+        }
+        throw new CompletionException(e);
+    }
+
+    /**
+     * 关闭作用域并中断所有未完成的子任务，不等待其退出
+     */
+    public void shutdown() {
+        shutdown = true;
+        for (Subtask<T> subtask : subtasks) {
+            subtask.cancel();
+        }
+        synchronized (monitor) {
+            monitor.notifyAll();
+        }
+    }
+
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    /**
+     * 关闭作用域，同 {@link #shutdown()}；截止时间到达后关闭不会因等待未响应中断的子任务而阻塞
+     */
+    @Override
+    public void close() {
+        shutdown();
+    }
+
+    /**
+     * 子任务句柄
+     */
+    public static final class Subtask<T> {
+
+        /**
+         * 子任务状态
+         */
+        public enum State {
+            RUNNING, SUCCESS, FAILED, CANCELLED
+        }
+
+        private final String name;
+        private volatile Future<?> future;
+        private volatile State state = State.RUNNING;
+        private volatile T result;
+        private volatile Throwable exception;
+
+        private Subtask(String name) {
+            this.name = name;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public State state() {
+            return state;
+        }
+
+        /**
+         * 获取结果，仅在 SUCCESS 状态下可用
+         */
+        public T get() {
+            if (state != State.SUCCESS) {
+                throw new IllegalStateException("子任务未成功完成: " + name + ", state=" + state);
+            }
+            return result;
+        }
+
+        public Throwable exception() {
+            return exception;
+        }
+
+        /**
+         * 取消并中断子任务（已结束的子任务不受影响）
+         */
+        public void cancel() {
+            synchronized (this) {
+                if (state != State.RUNNING) {
+                    return;
+                }
+                state = State.CANCELLED;
+            }
+            Future<?> f = future;
+            if (f != null) {
+                f.cancel(true);
+            }
+        }
+
+        private synchronized void succeed(T value) {
+            if (state == State.RUNNING) {
+                result = value;
+                state = State.SUCCESS;
+            }
+        }
+
+        private synchronized boolean fail(Throwable e) {
+            if (state != State.RUNNING) {
+                return false;
+            }
+            exception = e;
+            state = State.FAILED;
+            return true;
+        }
+    }
+}
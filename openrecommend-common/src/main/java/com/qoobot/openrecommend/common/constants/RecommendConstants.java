@@ -44,6 +44,8 @@ public class RecommendConstants {
     public static final int CACHE_TTL_RECOMMEND_RESULT = 1800;
     public static final int CACHE_TTL_HOT_CONTENT = 3600;
     public static final int CACHE_TTL_CONTENT_FEATURE = 86400;
+    public static final int CACHE_TTL_RELATED = 172800;
+    public static final int CACHE_TTL_DIGEST_FEED = 172800;
 
     /**
      * Redis Key前缀
@@ -52,6 +54,8 @@ public class RecommendConstants {
     public static final String REDIS_KEY_RECOMMEND = "recommend:";
     public static final String REDIS_KEY_HOT_CONTENT = "hot_content:";
     public static final String REDIS_KEY_CONTENT_FEATURE = "content_feature:";
+    public static final String REDIS_KEY_RELATED = "related:";
+    public static final String REDIS_KEY_DIGEST_FEED = "digest_feed:";
     public static final String REDIS_KEY_USER_BEHAVIOR_QUEUE = "user_behavior_queue";
 
     private RecommendConstants() {
@@ -3,6 +3,8 @@ package com.qoobot.openrecommend.common.enums;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 
+import java.util.List;
+
 /**
  * 内容类型枚举
  *
@@ -44,4 +46,26 @@ public enum ContentType {
         }
         throw new IllegalArgumentException("Unknown content type: " + code);
     }
+
+    /**
+     * 解析内容类型，忽略大小写与首尾空白
+     */
+    public static ContentType fromString(String value) {
+        if (value != null) {
+            String code = value.trim();
+            for (ContentType contentType : values()) {
+                if (contentType.getCode().equalsIgnoreCase(code)) {
+                    return contentType;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Unknown content type: " + value);
+    }
+
+    /**
+     * 展开为具体内容类型，ALL 展开为文章、图片、视频
+     */
+    public List<ContentType> expand() {
+        return this == ALL ? List.of(ARTICLE, IMAGE, VIDEO) : List.of(this);
+    }
 }
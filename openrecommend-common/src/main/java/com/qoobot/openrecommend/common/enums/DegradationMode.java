@@ -0,0 +1,47 @@
+package com.qoobot.openrecommend.common.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 降级模式枚举
+ * 按负载由低到高依次降级，序号即降级级别
+ *
+ * @author Qoobot Team
+ * @since 1.0.0
+ */
+@Getter
+@AllArgsConstructor
+public enum DegradationMode {
+
+    /**
+     * 完整推荐
+     */
+    FULL("full", "完整推荐"),
+
+    /**
+     * 跳过用户协同过滤召回
+     */
+    NO_USER_CF("no_user_cf", "跳过协同过滤召回"),
+
+    /**
+     * 跳过相似度召回（协同过滤与基于内容），只保留热门召回
+     */
+    NO_SIMILARITY("no_similarity", "跳过相似度召回"),
+
+    /**
+     * 只返回缓存的热门内容，不执行个性化流水线
+     */
+    HOT_ONLY("hot_only", "仅热门内容");
+
+    private final String code;
+    private final String desc;
+
+    /**
+     * 按级别获取降级模式，超出范围时取最近的模式
+     */
+    public static DegradationMode ofLevel(int level) {
+        DegradationMode[] modes = values();
+        return modes[Math.max(0, Math.min(level, modes.length - 1))];
+    }
+}
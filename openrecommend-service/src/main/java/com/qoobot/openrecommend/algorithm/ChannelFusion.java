@@ -0,0 +1,152 @@
+package com.qoobot.openrecommend.algorithm;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.LongPredicate;
+
+/**
+ * 召回通道融合（阈值算法，Fagin's Threshold Algorithm）
+ * 各通道分数按通道最大值归一化后按权重加权求和。各通道按分数降序逐层顺序访问，
+ * 首次出现的内容通过随机访问其他通道计算完整融合分；当前层各通道分数的加权和即为
+ * 未出现内容融合分的上界，前 size 名中最低分不低于该上界时停止，不再访问更深的候选。
+ *
+ * @author OpenRecommend
+ * @since 1.0.0
+ */
+public class ChannelFusion {
+
+    private ChannelFusion() {
+    }
+
+    /**
+     * 按分数降序排列的召回通道
+     */
+    public static final class Channel {
+
+        private final String name;
+        private final double weight;
+        private final Map<Long, Double> scores;
+        private final long[] order;
+        private final double scale;
+
+        private Channel(String name, double weight, Map<Long, Double> scores) {
+            this.name = name;
+            this.weight = weight;
+            this.scores = scores;
+            List<Map.Entry<Long, Double>> entries = new ArrayList<>(scores.entrySet());
+            entries.sort(Map.Entry.<Long, Double>comparingByValue().reversed());
+            this.order = new long[entries.size()];
+            double max = 0.0;
+            for (int i = 0; i < entries.size(); i++) {
+                order[i] = entries.get(i).getKey();
+                max = Math.max(max, entries.get(i).getValue());
+            }
+            this.scale = max > 0 ? 1.0 / max : 1.0;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int size() {
+            return order.length;
+        }
+
+        /**
+         * 内容在本通道的加权归一化分数，未召回时为0
+         */
+        double weighted(long id) {
+            Double score = scores.get(id);
+            return score != null ? weight * score * scale : 0.0;
+        }
+    }
+
+    /**
+     * 构造通道
+     *
+     * @param name 通道名称
+     * @param weight 融合权重
+     * @param scores 召回分数
+     * @return 通道
+     */
+    public static Channel channel(String name, double weight, Map<Long, Double> scores) {
+        return new Channel(name, weight, scores);
+    }
+
+    /**
+     * 融合结果
+     *
+     * @param ids 按融合分降序的内容ID
+     * @param depth 停止时的访问深度
+     * @param scanned 顺序访问过的不同内容数
+     */
+    public record Result(List<Long> ids, int depth, int scanned) {
+    }
+
+    /**
+     * 融合各通道，选出融合分最高的 size 个内容
+     *
+     * @param channels 召回通道
+     * @param accept 内容过滤条件（排除历史、已曝光等），不通过的内容不参与排名
+     * @param size 返回数量
+     * @return 融合结果
+     */
+    public static Result fuse(List<Channel> channels, LongPredicate accept, int size) {
+        if (size <= 0 || channels.isEmpty()) {
+            return new Result(Collections.emptyList(), 0, 0);
+        }
+        // 小顶堆，堆顶为当前前 size 名中融合分最低者；分数相同时ID大者先出堆
+        PriorityQueue<Scored> top = new PriorityQueue<>(size + 1, (a, b) -> a.score != b.score
+            ? Double.compare(a.score, b.score) : Long.compare(b.id, a.id));
+        Set<Long> visited = new HashSet<>();
+
+        int depth = 0;
+        while (true) {
+            boolean remaining = false;
+            double threshold = 0.0;
+            for (Channel channel : channels) {
+                if (depth >= channel.order.length) {
+                    continue;
+                }
+                remaining = true;
+                long id = channel.order[depth];
+                threshold += channel.weighted(id);
+                if (!visited.add(id) || !accept.test(id)) {
+                    continue;
+                }
+                double score = 0.0;
+                for (Channel other : channels) {
+                    score += other.weighted(id);
+                }
+                if (top.size() < size) {
+                    top.offer(new Scored(id, score));
+                } else if (score > top.peek().score) {
+                    top.poll();
+                    top.offer(new Scored(id, score));
+                }
+            }
+            if (!remaining) {
+                break;
+            }
+            depth++;
+            if (top.size() == size && top.peek().score >= threshold) {
+                break;
+            }
+        }
+
+        List<Long> ids = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            ids.add(top.poll().id);
+        }
+        Collections.reverse(ids);
+        return new Result(ids, depth, visited.size());
+    }
+
+    private record Scored(long id, double score) {
+    }
+}
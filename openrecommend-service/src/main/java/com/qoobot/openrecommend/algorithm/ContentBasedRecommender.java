@@ -240,10 +240,7 @@ public class ContentBasedRecommender {
         Map<String, Double> userPreference = extractImageTags(viewedImages);
         
         // 查询候选图片
-        List<Image> candidates = imageMapper.selectList(null).stream()
-            .filter(img -> !excludeIds.contains(img.getId()))
-            .limit(limit * 5)
-            .collect(Collectors.toList());
+        List<Image> candidates = imageMapper.selectNotInIds(new ArrayList<>(excludeIds), limit * 5);
         
         Map<Long, Double> result = new LinkedHashMap<>();
         for (Image image : candidates) {
@@ -271,10 +268,7 @@ public class ContentBasedRecommender {
         Map<String, Double> userPreference = extractVideoTags(viewedVideos);
         
         // 查询候选视频
-        List<Video> candidates = videoMapper.selectList(null).stream()
-            .filter(video -> !excludeIds.contains(video.getId()))
-            .limit(limit * 5)
-            .collect(Collectors.toList());
+        List<Video> candidates = videoMapper.selectNotInIds(new ArrayList<>(excludeIds), limit * 5);
         
         Map<Long, Double> result = new LinkedHashMap<>();
         for (Video video : candidates) {
@@ -0,0 +1,92 @@
+package com.qoobot.openrecommend.algorithm;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Base64;
+
+/**
+ * 特征向量编解码工具
+ * 向量以半精度浮点（float16，小端序）打包后Base64编码，作为JSON字符串存入特征列，
+ * 相比数值数组形式的JSON体积缩小约4~5倍，读取时无需JSON数组解析。
+ * 同时兼容旧的数值数组格式（如 [0.12, 0.34, ...]）。
+ *
+ * @author OpenRecommend
+ * @since 1.0.0
+ */
+public class FeatureVectorCodec {
+
+    /**
+     * 无法生成向量时写入的空向量标记，解码为零长度向量，不会进入索引，也不会被回填任务再次选中
+     */
+    public static final String EMPTY = "[]";
+
+    private FeatureVectorCodec() {
+    }
+
+    /**
+     * 编码为JSON字符串字面量（带双引号）
+     *
+     * @param vector 特征向量
+     * @return JSON字符串，如 "AAA8PABA..."
+     */
+    public static String encode(float[] vector) {
+        if (vector == null) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(vector.length * 2).order(ByteOrder.LITTLE_ENDIAN);
+        for (float v : vector) {
+            buffer.putShort(Float.floatToFloat16(v));
+        }
+        return '"' + Base64.getEncoder().encodeToString(buffer.array()) + '"';
+    }
+
+    /**
+     * 解码特征向量
+     *
+     * @param json 存储的JSON（Base64字符串或数值数组）
+     * @return 特征向量，无法解析时返回null
+     */
+    public static float[] decode(String json) {
+        if (json == null) {
+            return null;
+        }
+        String value = json.trim();
+        if (value.isEmpty() || "null".equals(value)) {
+            return null;
+        }
+
+        try {
+            if (value.charAt(0) == '[') {
+                return decodeNumberArray(value);
+            }
+            if (value.charAt(0) == '"') {
+                value = value.substring(1, value.length() - 1);
+            }
+            byte[] bytes = Base64.getDecoder().decode(value);
+            ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+            float[] vector = new float[bytes.length / 2];
+            for (int i = 0; i < vector.length; i++) {
+                vector[i] = Float.float16ToFloat(buffer.getShort());
+            }
+            return vector;
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 解析数值数组（旧格式）
+     */
+    private static float[] decodeNumberArray(String value) {
+        String body = value.substring(1, value.length() - 1).trim();
+        if (body.isEmpty()) {
+            return new float[0];
+        }
+        String[] parts = body.split(",");
+        float[] vector = new float[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            vector[i] = Float.parseFloat(parts[i].trim());
+        }
+        return vector;
+    }
+}
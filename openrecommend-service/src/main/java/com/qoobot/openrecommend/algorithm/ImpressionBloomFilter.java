@@ -0,0 +1,149 @@
+package com.qoobot.openrecommend.algorithm;
+
+import com.qoobot.openrecommend.common.enums.ContentType;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 曝光布隆过滤器
+ * 每个用户每个轮换周期一个位图（存于Redis），位数与哈希函数个数由期望曝光数与误判率计算：
+ * m = -n·ln(p) / (ln2)²，k = m/n·ln2，并受单个位图字节数上限约束。
+ * 哈希采用 Kirsch-Mitzenmacher 双重哈希，由一次64位混合得到全部 k 个位置。
+ * 位序与 Redis SETBIT 一致：偏移0为第0个字节的最高位。
+ *
+ * @author OpenRecommend
+ * @since 1.0.0
+ */
+@Component
+public class ImpressionBloomFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(ImpressionBloomFilter.class);
+
+    @Value("${recommend.impression.expected-items:2000}")
+    private int expectedItems;
+
+    @Value("${recommend.impression.fpp:0.01}")
+    private double fpp;
+
+    @Value("${recommend.impression.max-bytes:4096}")
+    private int maxBytes;
+
+    /**
+     * 位图位数
+     */
+    private int bits;
+
+    /**
+     * 哈希函数个数
+     */
+    private int hashes;
+
+    @PostConstruct
+    public void init() {
+        long optimal = (long) Math.ceil(-expectedItems * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+        bits = (int) Math.max(64, Math.min(optimal, (long) maxBytes * 8));
+        hashes = Math.max(1, (int) Math.round((double) bits / expectedItems * Math.log(2)));
+        double effectiveFpp = Math.pow(1 - Math.exp(-(double) hashes * expectedItems / bits), hashes);
+        log.info("曝光布隆过滤器: 期望曝光数={}, 位数={}({}字节), 哈希函数={}, 误判率≈{}",
+                expectedItems, bits, (bits + 7) / 8, hashes, String.format("%.4f", effectiveFpp));
+    }
+
+    /**
+     * 计算内容在位图中的位偏移
+     *
+     * @param contentType 内容类型
+     * @param contentId 内容ID
+     * @return k 个位偏移
+     */
+    public long[] offsets(ContentType contentType, long contentId) {
+        long hash = mix((long) contentType.ordinal() << 56 ^ contentId);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        long[] offsets = new long[hashes];
+        for (int i = 0; i < hashes; i++) {
+            int combined = h1 + (i + 1) * h2;
+            if (combined < 0) {
+                combined = ~combined;
+            }
+            offsets[i] = combined % bits;
+        }
+        return offsets;
+    }
+
+    /**
+     * 由各周期的位图构造只读快照，请求内的成员检查不再访问Redis
+     *
+     * @param bitmaps 各周期位图，缺失的周期为null
+     * @return 快照
+     */
+    public Snapshot snapshot(List<byte[]> bitmaps) {
+        return new Snapshot(bitmaps.stream().filter(b -> b != null && b.length > 0).toArray(byte[][]::new));
+    }
+
+    public int getBits() {
+        return bits;
+    }
+
+    public int getHashes() {
+        return hashes;
+    }
+
+    /**
+     * MurmurHash3 fmix64
+     */
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * 用户已曝光内容的只读快照
+     */
+    public final class Snapshot {
+
+        private final byte[][] bitmaps;
+
+        private Snapshot(byte[][] bitmaps) {
+            this.bitmaps = bitmaps;
+        }
+
+        /**
+         * 内容是否可能已曝光（任一周期的位图命中即视为已曝光）
+         */
+        public boolean mightContain(ContentType contentType, long contentId) {
+            if (bitmaps.length == 0) {
+                return false;
+            }
+            long[] offsets = offsets(contentType, contentId);
+            for (byte[] bitmap : bitmaps) {
+                if (contains(bitmap, offsets)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        public boolean isEmpty() {
+            return bitmaps.length == 0;
+        }
+
+        private boolean contains(byte[] bitmap, long[] offsets) {
+            for (long offset : offsets) {
+                int index = (int) (offset >>> 3);
+                if (index >= bitmap.length || (bitmap[index] & (0x80 >>> (offset & 7))) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.qoobot.openrecommend.algorithm;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 线性加权打分器（默认）
+ * 综合分 = 相关性 * w1 + 质量 * w2 + 热度 * w3 + 新鲜度 * w4，权重可通过配置调整。
+ * 未加载排序模型或模型加载失败时使用。
+ *
+ * @author OpenRecommend
+ * @since 1.0.0
+ */
+@Component
+public class LinearRanker implements Ranker {
+
+    @Value("${recommend.ranking.weights.relevance:0.4}")
+    private double relevanceWeight;
+
+    @Value("${recommend.ranking.weights.quality:0.3}")
+    private double qualityWeight;
+
+    @Value("${recommend.ranking.weights.popularity:0.2}")
+    private double popularityWeight;
+
+    @Value("${recommend.ranking.weights.freshness:0.1}")
+    private double freshnessWeight;
+
+    @Value("${recommend.ranking.decay-hours:24}")
+    private double decayHours;
+
+    @Override
+    public String name() {
+        return "linear";
+    }
+
+    @Override
+    public void score(RankingFeatures features, double[] scores) {
+        final int n = features.size();
+        final boolean personalized = features.personalized();
+        final double[] quality = features.quality();
+        final double[] logViews = features.logViews();
+        final double[] logLikes = features.logLikes();
+        final double[] ageHours = features.ageHours();
+        final double[] tagMatch = features.tagMatch();
+
+        for (int i = 0; i < n; i++) {
+            // 相关性：命中兴趣标签权重归一化到0-1，无用户画像时取中值
+            double relevance = personalized ? Math.min(tagMatch[i] / 10.0, 1.0) : 0.5;
+            // 热度：对数缩放，避免热门内容占据全部推荐
+            double popularity = (logViews[i] + logLikes[i] * 5.0) / 20.0;
+            // 新鲜度：指数衰减，无发布时间时取中值
+            double age = ageHours[i];
+            double freshness = Double.isNaN(age) ? 0.5 : Math.exp(-age / decayHours);
+
+            scores[i] = relevance * relevanceWeight
+                + quality[i] * qualityWeight
+                + popularity * popularityWeight
+                + freshness * freshnessWeight;
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.qoobot.openrecommend.algorithm;
+
+import com.qoobot.openrecommend.api.dto.RecommendItem;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 最大边际相关（MMR）多样性选择
+ * 每一步选出 λ·相关性 − (1−λ)·与已选结果的最大相似度 最高的候选。
+ * 候选间相似度综合标签Jaccard、同分类、同作者；每个候选与已选集合的最大相似度增量维护，
+ * 每步选择只需一次O(n)扫描。
+ * 可选滑动窗口约束：任意连续 window-size 个位置中同一分类不超过 max-per-window 个，
+ * 无满足约束的候选时放宽约束，保证结果数量。
+ *
+ * @author OpenRecommend
+ * @since 1.0.0
+ */
+@Component
+public class MmrDiversifier {
+
+    private static final int NONE = -1;
+
+    @Value("${recommend.diversity.tag-weight:0.5}")
+    private double tagWeight;
+
+    @Value("${recommend.diversity.category-weight:0.3}")
+    private double categoryWeight;
+
+    @Value("${recommend.diversity.author-weight:0.2}")
+    private double authorWeight;
+
+    @Value("${recommend.diversity.window-size:5}")
+    private int windowSize;
+
+    @Value("${recommend.diversity.max-per-window:2}")
+    private int maxPerWindow;
+
+    /**
+     * 选择多样化结果
+     *
+     * @param items 候选列表，相关性取自推荐得分
+     * @param k 选择数量
+     * @param lambda 相关性权重（0-1），越小越多样
+     * @return 按选择顺序排列的候选下标
+     */
+    public int[] select(List<RecommendItem> items, int k, double lambda) {
+        int n = items.size();
+        k = Math.max(0, Math.min(k, n));
+        int[] order = new int[k];
+        if (k == 0) {
+            return order;
+        }
+
+        double[] relevance = new double[n];
+        int[][] tags = new int[n][];
+        int[] categories = new int[n];
+        long[] authors = new long[n];
+        int[] counts = extract(items, relevance, tags, categories, authors);
+        int categoryCount = counts[1];
+        // 标签标记数组：记录最近一次选中候选的标签，求交集时按下标直接判断
+        int[] tagMarks = new int[counts[0]];
+
+        // 滑动窗口：记录最近 windowSize-1 个位置的分类及各分类计数
+        boolean windowed = windowSize > 1 && maxPerWindow > 0;
+        int[] recent = windowed ? new int[windowSize - 1] : new int[0];
+        int[] windowCounts = new int[categoryCount];
+        int recentSize = 0;
+        int recentHead = 0;
+
+        double[] maxSimilarity = new double[n];
+        boolean[] selected = new boolean[n];
+
+        for (int step = 0; step < k; step++) {
+            int best = NONE;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            int fallback = NONE;
+            double fallbackValue = Double.NEGATIVE_INFINITY;
+
+            for (int i = 0; i < n; i++) {
+                if (selected[i]) {
+                    continue;
+                }
+                double value = lambda * relevance[i] - (1 - lambda) * maxSimilarity[i];
+                if (windowed && categories[i] != NONE && windowCounts[categories[i]] >= maxPerWindow) {
+                    if (value > fallbackValue) {
+                        fallbackValue = value;
+                        fallback = i;
+                    }
+                } else if (value > bestValue) {
+                    bestValue = value;
+                    best = i;
+                }
+            }
+            if (best == NONE) {
+                best = fallback;
+            }
+
+            selected[best] = true;
+            order[step] = best;
+
+            if (windowed) {
+                if (recentSize == recent.length) {
+                    int expired = recent[recentHead];
+                    if (expired != NONE) {
+                        windowCounts[expired]--;
+                    }
+                    recent[recentHead] = categories[best];
+                    recentHead = (recentHead + 1) % recent.length;
+                } else {
+                    recent[recentSize++] = categories[best];
+                }
+                if (categories[best] != NONE) {
+                    windowCounts[categories[best]]++;
+                }
+            }
+
+            // 增量更新未选候选与已选集合的最大相似度
+            if (step + 1 < k) {
+                int stamp = step + 1;
+                for (int tag : tags[best]) {
+                    tagMarks[tag] = stamp;
+                }
+                for (int i = 0; i < n; i++) {
+                    if (!selected[i]) {
+                        double similarity = similarity(i, best, tags, tagMarks, stamp, categories, authors);
+                        if (similarity > maxSimilarity[i]) {
+                            maxSimilarity[i] = similarity;
+                        }
+                    }
+                }
+            }
+        }
+        return order;
+    }
+
+    /**
+     * 抽取相关性（归一化到0-1）、标签（驻留为去重整数数组）、分类与作者
+     *
+     * @return [标签数量, 分类数量]
+     */
+    private int[] extract(List<RecommendItem> items, double[] relevance, int[][] tags,
+                        int[] categories, long[] authors) {
+        Map<String, Integer> tagIds = new HashMap<>();
+        Map<String, Integer> categoryIds = new HashMap<>();
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+
+        for (int i = 0; i < items.size(); i++) {
+            RecommendItem item = items.get(i);
+
+            double score = item.getScore() != null ? item.getScore() : 0.0;
+            relevance[i] = score;
+            min = Math.min(min, score);
+            max = Math.max(max, score);
+
+            List<String> itemTags = item.getTags();
+            if (itemTags == null || itemTags.isEmpty()) {
+                tags[i] = new int[0];
+            } else {
+                int[] ids = new int[itemTags.size()];
+                for (int t = 0; t < ids.length; t++) {
+                    ids[t] = tagIds.computeIfAbsent(itemTags.get(t), key -> tagIds.size());
+                }
+                Arrays.sort(ids);
+                tags[i] = distinct(ids);
+            }
+
+            categories[i] = item.getCategory() != null
+                ? categoryIds.computeIfAbsent(item.getCategory(), key -> categoryIds.size())
+                : NONE;
+            authors[i] = item.getAuthorId() != null ? item.getAuthorId() : Long.MIN_VALUE;
+        }
+
+        double range = max - min;
+        for (int i = 0; i < relevance.length; i++) {
+            relevance[i] = range > 0 ? (relevance[i] - min) / range : 1.0;
+        }
+        return new int[]{tagIds.size(), categoryIds.size()};
+    }
+
+    /**
+     * 候选相似度
+     */
+    private double similarity(int a, int b, int[][] tags, int[] tagMarks, int stamp,
+                              int[] categories, long[] authors) {
+        double similarity = 0.0;
+        if (tagWeight > 0) {
+            similarity += tagWeight * jaccard(tags[a], tags[b].length, tagMarks, stamp);
+        }
+        if (categories[a] != NONE && categories[a] == categories[b]) {
+            similarity += categoryWeight;
+        }
+        if (authors[a] != Long.MIN_VALUE && authors[a] == authors[b]) {
+            similarity += authorWeight;
+        }
+        return similarity;
+    }
+
+    /**
+     * 有序数组去重
+     */
+    private static int[] distinct(int[] sorted) {
+        int size = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (size == 0 || sorted[i] != sorted[size - 1]) {
+                sorted[size++] = sorted[i];
+            }
+        }
+        return size == sorted.length ? sorted : Arrays.copyOf(sorted, size);
+    }
+
+    /**
+     * 标签Jaccard相似度，b 的标签已在标记数组中以 stamp 标记
+     */
+    private static double jaccard(int[] a, int bLength, int[] tagMarks, int stamp) {
+        if (a.length == 0 || bLength == 0) {
+            return 0.0;
+        }
+        int intersection = 0;
+        for (int tag : a) {
+            if (tagMarks[tag] == stamp) {
+                intersection++;
+            }
+        }
+        return (double) intersection / (a.length + bLength - intersection);
+    }
+}
@@ -0,0 +1,119 @@
+package com.qoobot.openrecommend.algorithm;
+
+import com.qoobot.openrecommend.common.enums.ContentType;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * 会话排序列表编解码工具
+ * 每个条目固定12字节（大端序）：8字节内容键 + 4字节float得分，列表即条目的顺序拼接，
+ * 可直接用 APPEND 追加、GETRANGE 按偏移读取一页。内容键高8位为内容类型序号，低56位为内容ID，
+ * 使混合推荐（all）的列表也能区分类型。
+ * 游标为 Base64URL 编码的 "会话ID:偏移"，对客户端不透明。
+ *
+ * @author OpenRecommend
+ * @since 1.0.0
+ */
+public class RankedListCodec {
+
+    /**
+     * 单个条目的字节数
+     */
+    public static final int ENTRY_BYTES = 12;
+
+    private static final int TYPE_SHIFT = 56;
+    private static final long ID_MASK = (1L << TYPE_SHIFT) - 1;
+
+    private RankedListCodec() {
+    }
+
+    /**
+     * 列表条目
+     */
+    public record Entry(ContentType contentType, long contentId, float score) {
+    }
+
+    /**
+     * 打包条目
+     *
+     * @param entries 按排序顺序的条目
+     * @return 打包后的字节
+     */
+    public static byte[] encode(List<Entry> entries) {
+        ByteBuffer buffer = ByteBuffer.allocate(entries.size() * ENTRY_BYTES);
+        for (Entry entry : entries) {
+            if ((entry.contentId() & ~ID_MASK) != 0) {
+                throw new IllegalArgumentException("内容ID超出56位: " + entry.contentId());
+            }
+            buffer.putLong(((long) entry.contentType().ordinal() << TYPE_SHIFT) | entry.contentId());
+            buffer.putFloat(entry.score());
+        }
+        return buffer.array();
+    }
+
+    /**
+     * 解包条目，末尾不完整的条目被忽略
+     *
+     * @param bytes 打包的字节，可为null
+     * @return 条目列表
+     */
+    public static List<Entry> decode(byte[] bytes) {
+        if (bytes == null) {
+            return new ArrayList<>();
+        }
+        ContentType[] types = ContentType.values();
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        List<Entry> entries = new ArrayList<>(bytes.length / ENTRY_BYTES);
+        while (buffer.remaining() >= ENTRY_BYTES) {
+            long key = buffer.getLong();
+            float score = buffer.getFloat();
+            int ordinal = (int) (key >>> TYPE_SHIFT);
+            if (ordinal < types.length) {
+                entries.add(new Entry(types[ordinal], key & ID_MASK, score));
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * 编码游标
+     *
+     * @param sessionId 会话ID
+     * @param offset 下一页的起始条目偏移
+     * @return 游标
+     */
+    public static String encodeCursor(String sessionId, int offset) {
+        String raw = sessionId + ":" + offset;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解码游标
+     *
+     * @param cursor 游标
+     * @return 会话ID与偏移
+     * @throws IllegalArgumentException 游标格式错误
+     */
+    public static Cursor decodeCursor(String cursor) {
+        String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        int separator = raw.lastIndexOf(':');
+        if (separator <= 0) {
+            throw new IllegalArgumentException("游标格式错误: " + cursor);
+        }
+        int offset = Integer.parseInt(raw.substring(separator + 1));
+        if (offset < 0) {
+            throw new IllegalArgumentException("游标格式错误: " + cursor);
+        }
+        return new Cursor(raw.substring(0, separator), offset);
+    }
+
+    /**
+     * 解码后的游标
+     */
+    public record Cursor(String sessionId, int offset) {
+    }
+}
@@ -0,0 +1,24 @@
+package com.qoobot.openrecommend.algorithm;
+
+/**
+ * 排序打分器
+ * 对一批候选的列存特征统一打分，实现需线程安全，打分过程中不应修改特征。
+ *
+ * @author OpenRecommend
+ * @since 1.0.0
+ */
+public interface Ranker {
+
+    /**
+     * 打分器名称（用于日志与监控）
+     */
+    String name();
+
+    /**
+     * 批量打分
+     *
+     * @param features 候选特征
+     * @param scores 输出分数，长度不小于候选数量
+     */
+    void score(RankingFeatures features, double[] scores);
+}
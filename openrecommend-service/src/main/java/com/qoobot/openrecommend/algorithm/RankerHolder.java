@@ -0,0 +1,91 @@
+package com.qoobot.openrecommend.algorithm;
+
+import jakarta.annotation.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 当前生效的排序打分器
+ * 配置了模型文件时加载树集成模型，否则使用线性打分器。
+ * 模型文件变更后重新加载并原子替换，正在进行的打分继续使用旧模型；加载失败时保留当前打分器。
+ *
+ * @author OpenRecommend
+ * @since 1.0.0
+ */
+@Component
+public class RankerHolder {
+
+    private static final Logger log = LoggerFactory.getLogger(RankerHolder.class);
+
+    @Resource
+    private LinearRanker linearRanker;
+
+    @Value("${recommend.ranking.model-path:}")
+    private String modelPath;
+
+    private final AtomicReference<Ranker> current = new AtomicReference<>();
+
+    /**
+     * 已加载模型文件的修改时间
+     */
+    private volatile long loadedModifiedTime = -1L;
+
+    /**
+     * 获取当前打分器
+     */
+    public Ranker current() {
+        Ranker ranker = current.get();
+        return ranker != null ? ranker : linearRanker;
+    }
+
+    /**
+     * 检查模型文件，有变更时重新加载
+     *
+     * @return 是否替换了打分器
+     */
+    public synchronized boolean reloadIfChanged() {
+        if (modelPath == null || modelPath.isBlank()) {
+            return false;
+        }
+
+        Path path = Path.of(modelPath);
+        try {
+            if (!Files.isRegularFile(path)) {
+                log.warn("排序模型文件不存在: {}", path);
+                return false;
+            }
+            long modifiedTime = Files.getLastModifiedTime(path).toMillis();
+            if (modifiedTime == loadedModifiedTime) {
+                return false;
+            }
+
+            long start = System.currentTimeMillis();
+            TreeEnsembleRanker ranker = TreeEnsembleRanker.load(path);
+            swap(ranker);
+            loadedModifiedTime = modifiedTime;
+            log.info("排序模型加载完成: name={}, trees={}, cost={}ms",
+                ranker.name(), ranker.treeCount(), System.currentTimeMillis() - start);
+            return true;
+        } catch (Exception e) {
+            log.error("加载排序模型失败，继续使用当前打分器: {}, path={}", current().name(), path, e);
+            return false;
+        }
+    }
+
+    /**
+     * 替换打分器
+     *
+     * @param ranker 新打分器，为null时恢复线性打分器
+     * @return 被替换的打分器
+     */
+    public Ranker swap(Ranker ranker) {
+        Ranker previous = current.getAndSet(ranker);
+        return previous != null ? previous : linearRanker;
+    }
+}
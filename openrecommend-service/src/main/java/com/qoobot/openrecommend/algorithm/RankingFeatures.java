@@ -0,0 +1,221 @@
+package com.qoobot.openrecommend.algorithm;
+
+import com.qoobot.openrecommend.api.dto.RecommendItem;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 排序特征列存
+ * 将一批候选的排序特征一次性抽取为按列存储的原始类型数组，
+ * 打分时在紧凑循环中逐列计算，避免逐条读取包装类型、重复取当前时间和反复查询标签权重。
+ * 所有候选共享同一个抽取时间戳，保证同一批次的新鲜度可比。
+ *
+ * @author OpenRecommend
+ * @since 1.0.0
+ */
+public final class RankingFeatures {
+
+    /**
+     * 特征下标，与 {@link #FEATURE_NAMES} 及 {@link #columns()} 的顺序一致
+     */
+    public static final int QUALITY = 0;
+    public static final int LOG_VIEWS = 1;
+    public static final int LOG_LIKES = 2;
+    public static final int AGE_HOURS = 3;
+    public static final int TAG_MATCH = 4;
+
+    /**
+     * 特征名称（模型文件中的 feature_names 按此名称映射）
+     */
+    public static final List<String> FEATURE_NAMES =
+        List.of("quality", "log_views", "log_likes", "age_hours", "tag_match");
+
+    private final int size;
+    private final double[] quality;
+    private final double[] logViews;
+    private final double[] logLikes;
+    private final double[] ageHours;
+    private final double[] tagMatch;
+    private final boolean personalized;
+
+    private RankingFeatures(int size, boolean personalized) {
+        this.size = size;
+        this.personalized = personalized;
+        this.quality = new double[size];
+        this.logViews = new double[size];
+        this.logLikes = new double[size];
+        this.ageHours = new double[size];
+        this.tagMatch = new double[size];
+    }
+
+    /**
+     * 抽取候选特征
+     *
+     * @param items 候选列表
+     * @param interestTags 用户兴趣标签权重，为null时表示无用户画像
+     * @param now 批次时间戳
+     * @return 特征列存
+     */
+    public static RankingFeatures extract(List<RecommendItem> items, Map<String, Double> interestTags,
+                                          LocalDateTime now) {
+        int n = items.size();
+        RankingFeatures features = new RankingFeatures(n, interestTags != null);
+        long nowSeconds = now.toEpochSecond(ZoneOffset.UTC);
+
+        for (int i = 0; i < n; i++) {
+            RecommendItem item = items.get(i);
+
+            Double qualityScore = item.getQualityScore();
+            features.quality[i] = qualityScore != null ? qualityScore : 0.0;
+
+            Long viewCount = item.getViewCount();
+            Long likeCount = item.getLikeCount();
+            features.logViews[i] = Math.log1p(viewCount != null ? viewCount : 0L);
+            features.logLikes[i] = Math.log1p(likeCount != null ? likeCount : 0L);
+
+            // 与 ChronoUnit.HOURS.between 一致：按整小时向零截断，无发布时间记为NaN
+            LocalDateTime publishTime = item.getPublishTime();
+            features.ageHours[i] = publishTime != null
+                ? (nowSeconds - publishTime.toEpochSecond(ZoneOffset.UTC)) / 3600
+                : Double.NaN;
+
+            double match = 0.0;
+            if (interestTags != null && item.getTags() != null) {
+                for (String tag : item.getTags()) {
+                    Double weight = interestTags.get(tag);
+                    if (weight != null) {
+                        match += weight;
+                    }
+                }
+            }
+            features.tagMatch[i] = match;
+        }
+        return features;
+    }
+
+    /**
+     * 按分数选出前N个候选下标（分数相同时下标小者在前）
+     *
+     * @param scores 候选分数
+     * @param n 返回数量
+     * @return 按分数降序排列的候选下标
+     */
+    public static int[] topN(double[] scores, int n) {
+        int k = Math.max(0, Math.min(n, scores.length));
+        int[] heap = new int[k];
+        if (k == 0) {
+            return heap;
+        }
+
+        // 小顶堆，堆顶为当前第K名
+        int size = 0;
+        for (int i = 0; i < scores.length; i++) {
+            if (size < k) {
+                heap[size] = i;
+                siftUp(heap, scores, size++);
+            } else if (before(i, heap[0], scores)) {
+                heap[0] = i;
+                siftDown(heap, scores, 0, size);
+            }
+        }
+
+        int[] order = new int[k];
+        for (int i = k - 1; i >= 0; i--) {
+            order[i] = heap[0];
+            heap[0] = heap[--size];
+            siftDown(heap, scores, 0, size);
+        }
+        return order;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 是否存在用户画像（决定相关性分数是否可用）
+     */
+    public boolean personalized() {
+        return personalized;
+    }
+
+    public double[] quality() {
+        return quality;
+    }
+
+    public double[] logViews() {
+        return logViews;
+    }
+
+    public double[] logLikes() {
+        return logLikes;
+    }
+
+    /**
+     * 发布距今小时数，无发布时间为NaN
+     */
+    public double[] ageHours() {
+        return ageHours;
+    }
+
+    /**
+     * 命中的兴趣标签权重之和
+     */
+    public double[] tagMatch() {
+        return tagMatch;
+    }
+
+    /**
+     * 全部特征列，下标见 {@link #QUALITY} 等常量
+     */
+    public double[][] columns() {
+        return new double[][]{quality, logViews, logLikes, ageHours, tagMatch};
+    }
+
+    /**
+     * a 是否排在 b 之前
+     */
+    private static boolean before(int a, int b, double[] scores) {
+        int cmp = Double.compare(scores[a], scores[b]);
+        return cmp > 0 || (cmp == 0 && a < b);
+    }
+
+    private static void siftUp(int[] heap, double[] scores, int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!before(heap[parent], heap[i], scores)) {
+                break;
+            }
+            swap(heap, i, parent);
+            i = parent;
+        }
+    }
+
+    private static void siftDown(int[] heap, double[] scores, int i, int size) {
+        while (true) {
+            int left = 2 * i + 1;
+            if (left >= size) {
+                break;
+            }
+            int last = left;
+            int right = left + 1;
+            if (right < size && before(heap[left], heap[right], scores)) {
+                last = right;
+            }
+            if (!before(heap[i], heap[last], scores)) {
+                break;
+            }
+            swap(heap, i, last);
+            i = last;
+        }
+    }
+
+    private static void swap(int[] heap, int a, int b) {
+        int tmp = heap[a];
+        heap[a] = heap[b];
+        heap[b] = tmp;
+    }
+}
@@ -0,0 +1,428 @@
+package com.qoobot.openrecommend.algorithm;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.qoobot.openrecommend.common.enums.ContentType;
+import com.qoobot.openrecommend.entity.Article;
+import com.qoobot.openrecommend.entity.Image;
+import com.qoobot.openrecommend.entity.UserBehavior;
+import com.qoobot.openrecommend.entity.Video;
+import com.qoobot.openrecommend.mapper.ArticleMapper;
+import com.qoobot.openrecommend.mapper.ImageMapper;
+import com.qoobot.openrecommend.mapper.UserBehaviorMapper;
+import com.qoobot.openrecommend.mapper.VideoMapper;
+import jakarta.annotation.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * 相关内容离线计算
+ * 为每个内容计算Top N相关内容，相关度融合三路信号：
+ * <ul>
+ *     <li>标签Jaccard相似度（倒排索引求交，过于宽泛的标签跳过）</li>
+ *     <li>物品协同过滤：近期共同交互用户数的余弦相似度（交互过多的用户跳过）</li>
+ *     <li>视觉向量余弦相似度（图片、视频，对前两路产生的候选重新打分）</li>
+ * </ul>
+ * 全部数据装入原始类型数组，按内容分块在独立线程池中并行计算，每块结果交给调用方写出。
+ *
+ * @author OpenRecommend
+ * @since 1.0.0
+ */
+@Component
+public class RelatedContentBuilder {
+
+    private static final Logger log = LoggerFactory.getLogger(RelatedContentBuilder.class);
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private static final int CHUNK_SIZE = 1024;
+
+    @Resource
+    private ArticleMapper articleMapper;
+
+    @Resource
+    private ImageMapper imageMapper;
+
+    @Resource
+    private VideoMapper videoMapper;
+
+    @Resource
+    private UserBehaviorMapper userBehaviorMapper;
+
+    @Resource
+    private VisualRecallIndex visualRecallIndex;
+
+    @Resource(name = "relatedBuildExecutor")
+    private Executor relatedBuildExecutor;
+
+    @Value("${recommend.related.page-size:5000}")
+    private int pageSize;
+
+    @Value("${recommend.related.tag-weight:0.4}")
+    private double tagWeight;
+
+    @Value("${recommend.related.cf-weight:0.4}")
+    private double cfWeight;
+
+    @Value("${recommend.related.visual-weight:0.2}")
+    private double visualWeight;
+
+    @Value("${recommend.related.cf-days:90}")
+    private int cfDays;
+
+    @Value("${recommend.related.max-tag-postings:5000}")
+    private int maxTagPostings;
+
+    @Value("${recommend.related.max-user-items:200}")
+    private int maxUserItems;
+
+    @Value("${recommend.related.parallelism:4}")
+    private int parallelism;
+
+    /**
+     * 计算某内容类型全部内容的相关列表
+     *
+     * @param contentType 内容类型
+     * @param topN 每个内容保留的相关内容数
+     * @param sink 分块结果（内容ID -> 按相关度降序的相关内容ID），可能被多个线程并发调用
+     * @return 计算的内容数量
+     */
+    public int build(ContentType contentType, int topN, Consumer<Map<Long, List<Long>>> sink) {
+        long start = System.currentTimeMillis();
+
+        // 1. 内容与标签，ID升序
+        List<Long> idList = new ArrayList<>();
+        List<List<String>> tagList = new ArrayList<>();
+        loadTags(contentType, idList, tagList);
+        int n = idList.size();
+        if (n == 0) {
+            return 0;
+        }
+        long[] ids = new long[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = idList.get(i);
+        }
+        int[][] tags = internTags(tagList);
+        int[][] tagPostings = invert(tags, maxTagPostings);
+
+        // 2. 近期交互：用户 -> 内容下标，内容 -> 用户下标
+        int[][] userItems = loadUserItems(contentType, ids);
+        int[][] itemUsers = invert(userItems, Integer.MAX_VALUE, n);
+
+        // 3. 视觉向量
+        float[][] vectors = new float[n][];
+        if (visualWeight > 0 && contentType != ContentType.ARTICLE) {
+            for (int i = 0; i < n; i++) {
+                vectors[i] = visualRecallIndex.vectorOf(contentType, ids[i]);
+            }
+        }
+        long loadCost = System.currentTimeMillis() - start;
+
+        // 4. 分块并行计算：分块按步长分给与线程池并发数相同的任务，每个任务独占一组累加数组；
+        // sink 可能阻塞在Redis写入上，因此不使用公共ForkJoin池
+        int chunks = (n + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        int tasks = Math.min(chunks, Math.max(1, parallelism));
+        List<CompletableFuture<Void>> futures = new ArrayList<>(tasks);
+        for (int t = 0; t < tasks; t++) {
+            int task = t;
+            futures.add(CompletableFuture.runAsync(() -> {
+                Accumulator acc = new Accumulator(n);
+                for (int chunk = task; chunk < chunks; chunk += tasks) {
+                    int from = chunk * CHUNK_SIZE;
+                    int to = Math.min(n, from + CHUNK_SIZE);
+                    Map<Long, List<Long>> result = new LinkedHashMap<>(to - from);
+                    for (int i = from; i < to; i++) {
+                        result.put(ids[i],
+                            related(i, topN, ids, tags, tagPostings, userItems, itemUsers, vectors, acc));
+                    }
+                    sink.accept(result);
+                }
+            }, relatedBuildExecutor));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+
+        log.info("相关内容计算完成: contentType={}, 内容数={}, 交互用户数={}, 加载={}ms, 总耗时={}ms",
+            contentType.getCode(), n, userItems.length, loadCost, System.currentTimeMillis() - start);
+        return n;
+    }
+
+    /**
+     * 计算单个内容的相关列表
+     */
+    private List<Long> related(int i, int topN, long[] ids, int[][] tags, int[][] tagPostings,
+                               int[][] userItems, int[][] itemUsers, float[][] vectors, Accumulator acc) {
+        acc.reset();
+
+        for (int tag : tags[i]) {
+            for (int j : tagPostings[tag]) {
+                acc.touch(j);
+                acc.tagOverlap[j]++;
+            }
+        }
+        for (int user : itemUsers[i]) {
+            for (int j : userItems[user]) {
+                acc.touch(j);
+                acc.coCount[j]++;
+            }
+        }
+
+        double[] scores = new double[acc.size];
+        int degree = itemUsers[i].length;
+        for (int c = 0; c < acc.size; c++) {
+            int j = acc.touched[c];
+            if (j == i) {
+                scores[c] = Double.NEGATIVE_INFINITY;
+                continue;
+            }
+            double score = 0.0;
+            if (acc.tagOverlap[j] > 0) {
+                int overlap = acc.tagOverlap[j];
+                score += tagWeight * overlap / (tags[i].length + tags[j].length - overlap);
+            }
+            if (acc.coCount[j] > 0) {
+                score += cfWeight * acc.coCount[j] / Math.sqrt((double) degree * itemUsers[j].length);
+            }
+            if (vectors[i] != null && vectors[j] != null) {
+                score += visualWeight * Math.max(0.0, dot(vectors[i], vectors[j]));
+            }
+            scores[c] = score;
+        }
+
+        // 多取一个，自身（得分为负无穷）被过滤后仍有 topN 个
+        int[] order = RankingFeatures.topN(scores, Math.min(topN + 1, acc.size));
+        List<Long> result = new ArrayList<>(Math.min(topN, order.length));
+        for (int c : order) {
+            if (scores[c] > 0 && result.size() < topN) {
+                result.add(ids[acc.touched[c]]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 按ID游标分页加载内容标签
+     */
+    private void loadTags(ContentType contentType, List<Long> ids, List<List<String>> tags) {
+        long lastId = 0L;
+        while (true) {
+            int size;
+            switch (contentType) {
+                case ARTICLE -> {
+                    List<Article> page = articleMapper.selectTagPage(lastId, pageSize);
+                    for (Article article : page) {
+                        ids.add(article.getId());
+                        tags.add(parseTags(article.getTags()));
+                    }
+                    size = page.size();
+                }
+                case IMAGE -> {
+                    List<Image> page = imageMapper.selectTagPage(lastId, pageSize);
+                    for (Image image : page) {
+                        ids.add(image.getId());
+                        tags.add(parseTags(image.getTags()));
+                    }
+                    size = page.size();
+                }
+                case VIDEO -> {
+                    List<Video> page = videoMapper.selectTagPage(lastId, pageSize);
+                    for (Video video : page) {
+                        ids.add(video.getId());
+                        tags.add(parseTags(video.getTags()));
+                    }
+                    size = page.size();
+                }
+                default -> throw new IllegalArgumentException("不支持的内容类型: " + contentType);
+            }
+            if (size == 0) {
+                return;
+            }
+            lastId = ids.get(ids.size() - 1);
+            if (size < pageSize) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 按ID游标分页加载近期交互，按用户分组为内容下标数组（去重，跳过交互过多的用户）
+     */
+    private int[][] loadUserItems(ContentType contentType, long[] ids) {
+        Map<Long, IntList> byUser = new HashMap<>();
+        long lastId = 0L;
+        while (true) {
+            List<UserBehavior> page = userBehaviorMapper.selectInteractionPage(
+                contentType.getCode(), cfDays, lastId, pageSize);
+            for (UserBehavior behavior : page) {
+                if (behavior.getContentId() == null || behavior.getUserId() == null) {
+                    continue;
+                }
+                int item = Arrays.binarySearch(ids, behavior.getContentId());
+                if (item >= 0) {
+                    byUser.computeIfAbsent(behavior.getUserId(), key -> new IntList()).add(item);
+                }
+            }
+            if (page.size() < pageSize) {
+                break;
+            }
+            lastId = page.get(page.size() - 1).getId();
+        }
+
+        List<int[]> users = new ArrayList<>(byUser.size());
+        for (IntList items : byUser.values()) {
+            int[] distinct = items.sortedDistinct();
+            if (distinct.length > 1 && distinct.length <= maxUserItems) {
+                users.add(distinct);
+            }
+        }
+        return users.toArray(new int[0][]);
+    }
+
+    /**
+     * 标签驻留为去重的整数数组
+     */
+    private static int[][] internTags(List<List<String>> tagList) {
+        Map<String, Integer> tagIds = new HashMap<>();
+        int[][] tags = new int[tagList.size()][];
+        for (int i = 0; i < tags.length; i++) {
+            IntList ids = new IntList();
+            for (String tag : tagList.get(i)) {
+                ids.add(tagIds.computeIfAbsent(tag, key -> tagIds.size()));
+            }
+            tags[i] = ids.sortedDistinct();
+        }
+        return tags;
+    }
+
+    /**
+     * 倒排：rows[r] 中的每个值 v 得到包含 r 的列表；超过 maxPostings 的列表置空
+     */
+    private static int[][] invert(int[][] rows, int maxPostings) {
+        int width = 0;
+        for (int[] row : rows) {
+            for (int value : row) {
+                width = Math.max(width, value + 1);
+            }
+        }
+        return invert(rows, maxPostings, width);
+    }
+
+    private static int[][] invert(int[][] rows, int maxPostings, int width) {
+        int[] counts = new int[width];
+        for (int[] row : rows) {
+            for (int value : row) {
+                counts[value]++;
+            }
+        }
+        int[][] postings = new int[width][];
+        for (int v = 0; v < width; v++) {
+            postings[v] = new int[counts[v] <= maxPostings ? counts[v] : 0];
+        }
+        int[] fill = new int[width];
+        for (int r = 0; r < rows.length; r++) {
+            for (int value : rows[r]) {
+                if (postings[value].length > 0) {
+                    postings[value][fill[value]++] = r;
+                }
+            }
+        }
+        return postings;
+    }
+
+    private static List<String> parseTags(String tagsJson) {
+        if (tagsJson == null || tagsJson.isBlank()) {
+            return List.of();
+        }
+        try {
+            return OBJECT_MAPPER.readValue(tagsJson, new TypeReference<List<String>>() {});
+        } catch (Exception e) {
+            return List.of();
+        }
+    }
+
+    private static double dot(float[] a, float[] b) {
+        if (a.length != b.length) {
+            return 0.0;
+        }
+        double sum = 0.0;
+        for (int d = 0; d < a.length; d++) {
+            sum += a[d] * b[d];
+        }
+        return sum;
+    }
+
+    /**
+     * 单线程累加数组：只重置本次触达的下标
+     */
+    private static final class Accumulator {
+
+        final int[] tagOverlap;
+        final int[] coCount;
+        final int[] touched;
+        final boolean[] marked;
+        int size;
+
+        Accumulator(int n) {
+            tagOverlap = new int[n];
+            coCount = new int[n];
+            touched = new int[n];
+            marked = new boolean[n];
+        }
+
+        void touch(int j) {
+            if (!marked[j]) {
+                marked[j] = true;
+                touched[size++] = j;
+            }
+        }
+
+        void reset() {
+            for (int c = 0; c < size; c++) {
+                int j = touched[c];
+                marked[j] = false;
+                tagOverlap[j] = 0;
+                coCount[j] = 0;
+            }
+            size = 0;
+        }
+    }
+
+    /**
+     * 可增长的int数组
+     */
+    private static final class IntList {
+
+        int[] values = new int[8];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int[] sortedDistinct() {
+            int[] sorted = Arrays.copyOf(values, size);
+            Arrays.sort(sorted);
+            int distinct = 0;
+            for (int i = 0; i < sorted.length; i++) {
+                if (distinct == 0 || sorted[i] != sorted[distinct - 1]) {
+                    sorted[distinct++] = sorted[i];
+                }
+            }
+            return distinct == sorted.length ? sorted : Arrays.copyOf(sorted, distinct);
+        }
+    }
+}
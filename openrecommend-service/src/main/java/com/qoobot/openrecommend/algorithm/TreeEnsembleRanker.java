@@ -0,0 +1,460 @@
+package com.qoobot.openrecommend.algorithm;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 树集成模型打分器（GBDT）
+ * 从本地模型文件加载，支持 LightGBM 文本模型（model.txt）与 XGBoost 文本dump。
+ * 所有树的节点被展开到连续的原始类型数组中：内部节点存特征下标、阈值、左右子节点，
+ * 子节点为负数时表示叶子（~child 为叶子下标）。打分时逐树从根走到叶子，不分配任何对象。
+ * 实例构建后不可变，可在多线程间共享，模型更新时整体替换。
+ *
+ * @author OpenRecommend
+ * @since 1.0.0
+ */
+public final class TreeEnsembleRanker implements Ranker {
+
+    private static final byte MISSING_NONE = 0;
+    private static final byte MISSING_ZERO = 1;
+    private static final byte MISSING_NAN = 2;
+
+    /**
+     * 与 LightGBM 判零阈值一致
+     */
+    private static final double ZERO_THRESHOLD = 1e-35;
+
+    private final String name;
+    private final int[] treeRoots;
+    private final int[] splitFeatures;
+    private final double[] thresholds;
+    private final byte[] missingTypes;
+    private final int[] leftChildren;
+    private final int[] rightChildren;
+    private final int[] defaultChildren;
+    private final double[] leafValues;
+
+    private TreeEnsembleRanker(String name, Nodes nodes) {
+        this.name = name;
+        this.treeRoots = Arrays.copyOf(nodes.treeRoots, nodes.treeCount);
+        this.splitFeatures = Arrays.copyOf(nodes.splitFeatures, nodes.nodeCount);
+        this.thresholds = Arrays.copyOf(nodes.thresholds, nodes.nodeCount);
+        this.missingTypes = Arrays.copyOf(nodes.missingTypes, nodes.nodeCount);
+        this.leftChildren = Arrays.copyOf(nodes.leftChildren, nodes.nodeCount);
+        this.rightChildren = Arrays.copyOf(nodes.rightChildren, nodes.nodeCount);
+        this.defaultChildren = Arrays.copyOf(nodes.defaultChildren, nodes.nodeCount);
+        this.leafValues = Arrays.copyOf(nodes.leafValues, nodes.leafCount);
+    }
+
+    /**
+     * 从文件加载模型（根据内容自动识别格式）
+     *
+     * @param path 模型文件路径
+     * @return 打分器
+     * @throws IOException 读取失败
+     * @throws IllegalArgumentException 模型格式错误或包含不支持的特征/分裂
+     */
+    public static TreeEnsembleRanker load(Path path) throws IOException {
+        List<String> lines;
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            lines = reader.lines().toList();
+        }
+        String name = "gbdt:" + path.getFileName();
+        for (String line : lines) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            return trimmed.startsWith("booster[")
+                ? parseXgboostDump(name, lines)
+                : parseLightGbm(name, lines);
+        }
+        throw new IllegalArgumentException("模型文件为空: " + path);
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    /**
+     * 树的数量
+     */
+    public int treeCount() {
+        return treeRoots.length;
+    }
+
+    @Override
+    public void score(RankingFeatures features, double[] scores) {
+        final double[][] columns = features.columns();
+        final int n = features.size();
+        Arrays.fill(scores, 0, n, 0.0);
+
+        // 逐树遍历全部候选：同一棵树的节点在整批打分期间常驻缓存
+        for (int root : treeRoots) {
+            if (root < 0) {
+                double leaf = leafValues[~root];
+                for (int i = 0; i < n; i++) {
+                    scores[i] += leaf;
+                }
+                continue;
+            }
+            for (int i = 0; i < n; i++) {
+                int node = root;
+                while (node >= 0) {
+                    double value = columns[splitFeatures[node]][i];
+                    byte missing = missingTypes[node];
+                    if (value != value) {
+                        if (missing == MISSING_NAN) {
+                            node = defaultChildren[node];
+                            continue;
+                        }
+                        value = 0.0;
+                    }
+                    if (missing == MISSING_ZERO && Math.abs(value) <= ZERO_THRESHOLD) {
+                        node = defaultChildren[node];
+                        continue;
+                    }
+                    node = value <= thresholds[node] ? leftChildren[node] : rightChildren[node];
+                }
+                scores[i] += leafValues[~node];
+            }
+        }
+    }
+
+    /**
+     * 解析 LightGBM 文本模型
+     * 树节点：split_feature / threshold / decision_type / left_child / right_child / leaf_value，
+     * 子节点为负数时 ~child 为叶子下标；leaf_value 已包含学习率。
+     */
+    private static TreeEnsembleRanker parseLightGbm(String name, List<String> lines) {
+        Map<String, String> header = new HashMap<>();
+        Map<String, String> tree = null;
+        Nodes nodes = new Nodes();
+        int[] featureMap = null;
+
+        for (String raw : lines) {
+            String line = raw.trim();
+            if (line.startsWith("Tree=") || line.equals("end of trees")) {
+                if (tree != null) {
+                    appendLightGbmTree(nodes, tree, featureMap);
+                }
+                if (line.equals("end of trees")) {
+                    tree = null;
+                    break;
+                }
+                if (featureMap == null) {
+                    featureMap = lightGbmFeatureMap(header);
+                }
+                tree = new HashMap<>();
+                continue;
+            }
+            int eq = line.indexOf('=');
+            if (eq <= 0) {
+                continue;
+            }
+            (tree != null ? tree : header).put(line.substring(0, eq), line.substring(eq + 1));
+        }
+        if (tree != null) {
+            appendLightGbmTree(nodes, tree, featureMap);
+        }
+        if (nodes.treeCount == 0) {
+            throw new IllegalArgumentException("模型不包含任何树");
+        }
+        return new TreeEnsembleRanker(name, nodes);
+    }
+
+    private static int[] lightGbmFeatureMap(Map<String, String> header) {
+        String numClass = header.get("num_class");
+        if (numClass != null && Integer.parseInt(numClass.trim()) != 1) {
+            throw new IllegalArgumentException("不支持多分类模型: num_class=" + numClass);
+        }
+        String names = header.get("feature_names");
+        if (names == null) {
+            throw new IllegalArgumentException("模型缺少 feature_names");
+        }
+        String[] parts = names.trim().split("\\s+");
+        int[] map = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            map[i] = resolveFeature(parts[i]);
+        }
+        return map;
+    }
+
+    private static void appendLightGbmTree(Nodes nodes, Map<String, String> tree, int[] featureMap) {
+        if ("1".equals(tree.get("is_linear"))) {
+            throw new IllegalArgumentException("不支持线性树模型");
+        }
+        double[] leaves = parseDoubles(tree.get("leaf_value"));
+        int numLeaves = Integer.parseInt(tree.getOrDefault("num_leaves", String.valueOf(leaves.length)).trim());
+        if (numLeaves <= 1) {
+            nodes.addTree(new int[0], new double[0], new byte[0], new boolean[0], new int[0], new int[0],
+                leaves.length > 0 ? new double[]{leaves[0]} : new double[]{0.0}, ~0);
+            return;
+        }
+
+        int[] features = parseInts(tree.get("split_feature"));
+        double[] thresholds = parseDoubles(tree.get("threshold"));
+        int[] decisionTypes = parseInts(tree.get("decision_type"));
+        int[] left = parseInts(tree.get("left_child"));
+        int[] right = parseInts(tree.get("right_child"));
+        int internal = numLeaves - 1;
+        if (features.length != internal || thresholds.length != internal || left.length != internal
+            || right.length != internal || leaves.length != numLeaves) {
+            throw new IllegalArgumentException("树节点数量不一致");
+        }
+
+        byte[] missing = new byte[internal];
+        boolean[] defaultLeft = new boolean[internal];
+        for (int j = 0; j < internal; j++) {
+            int decision = decisionTypes.length > j ? decisionTypes[j] : 0;
+            if ((decision & 1) != 0) {
+                throw new IllegalArgumentException("不支持类别特征分裂");
+            }
+            if (features[j] < 0 || features[j] >= featureMap.length) {
+                throw new IllegalArgumentException("特征下标越界: " + features[j]);
+            }
+            features[j] = featureMap[features[j]];
+            defaultLeft[j] = (decision & 2) != 0;
+            missing[j] = (byte) ((decision >> 2) & 3);
+        }
+        nodes.addTree(features, thresholds, missing, defaultLeft, left, right, leaves, 0);
+    }
+
+    /**
+     * 解析 XGBoost 文本dump（dump_model 输出，可带 feature map 名称）
+     * 内部节点：{@code 0:[f1<2.5] yes=1,no=2,missing=1}，叶子：{@code 3:leaf=0.12}。
+     * XGBoost 为 "x < 阈值" 走 yes，这里转换为 "x <= 阈值的前一个可表示值"。
+     */
+    private static TreeEnsembleRanker parseXgboostDump(String name, List<String> lines) {
+        Nodes nodes = new Nodes();
+        List<String> tree = new ArrayList<>();
+        for (String raw : lines) {
+            String line = raw.trim();
+            if (line.isEmpty()) {
+                continue;
+            }
+            if (line.startsWith("booster[")) {
+                if (!tree.isEmpty()) {
+                    appendXgboostTree(nodes, tree);
+                    tree.clear();
+                }
+                continue;
+            }
+            tree.add(line);
+        }
+        if (!tree.isEmpty()) {
+            appendXgboostTree(nodes, tree);
+        }
+        if (nodes.treeCount == 0) {
+            throw new IllegalArgumentException("模型不包含任何树");
+        }
+        return new TreeEnsembleRanker(name, nodes);
+    }
+
+    private static void appendXgboostTree(Nodes nodes, List<String> lines) {
+        // 先为内部节点与叶子分别编号
+        Map<Integer, Integer> internalIndex = new HashMap<>();
+        Map<Integer, Integer> leafIndex = new HashMap<>();
+        for (String line : lines) {
+            int id = Integer.parseInt(line.substring(0, line.indexOf(':')));
+            if (line.contains(":leaf=")) {
+                leafIndex.put(id, leafIndex.size());
+            } else {
+                internalIndex.put(id, internalIndex.size());
+            }
+        }
+
+        int internal = internalIndex.size();
+        int[] features = new int[internal];
+        double[] thresholds = new double[internal];
+        byte[] missing = new byte[internal];
+        boolean[] defaultLeft = new boolean[internal];
+        int[] left = new int[internal];
+        int[] right = new int[internal];
+        double[] leaves = new double[leafIndex.size()];
+
+        for (String line : lines) {
+            int colon = line.indexOf(':');
+            int id = Integer.parseInt(line.substring(0, colon));
+            if (line.contains(":leaf=")) {
+                String value = line.substring(line.indexOf("leaf=") + 5).split(",")[0].trim();
+                leaves[leafIndex.get(id)] = Double.parseDouble(value);
+                continue;
+            }
+
+            int j = internalIndex.get(id);
+            String condition = line.substring(line.indexOf('[') + 1, line.indexOf(']'));
+            int lt = condition.indexOf('<');
+            if (lt <= 0) {
+                throw new IllegalArgumentException("不支持的分裂条件: " + condition);
+            }
+            features[j] = resolveFeature(condition.substring(0, lt));
+            thresholds[j] = Math.nextDown(Double.parseDouble(condition.substring(lt + 1)));
+
+            // 带统计信息的dump（with_stats）还包含 gain、cover 等浮点字段，只解析分支字段
+            Map<String, Integer> branches = new HashMap<>();
+            for (String part : line.substring(line.indexOf(']') + 1).trim().split(",")) {
+                int eq = part.indexOf('=');
+                if (eq <= 0) {
+                    continue;
+                }
+                String key = part.substring(0, eq).trim();
+                if ("yes".equals(key) || "no".equals(key) || "missing".equals(key)) {
+                    branches.put(key, Integer.parseInt(part.substring(eq + 1).trim()));
+                }
+            }
+            if (!branches.containsKey("yes") || !branches.containsKey("no")) {
+                throw new IllegalArgumentException("缺少分支字段: " + line);
+            }
+            int yes = branches.get("yes");
+            int no = branches.get("no");
+            left[j] = xgboostChild(yes, internalIndex, leafIndex);
+            right[j] = xgboostChild(no, internalIndex, leafIndex);
+            missing[j] = MISSING_NAN;
+            defaultLeft[j] = branches.getOrDefault("missing", yes) == yes;
+        }
+
+        int root = internalIndex.containsKey(0) ? internalIndex.get(0) : ~leafIndex.get(0);
+        nodes.addTree(features, thresholds, missing, defaultLeft, left, right, leaves, root);
+    }
+
+    private static int xgboostChild(int id, Map<Integer, Integer> internalIndex, Map<Integer, Integer> leafIndex) {
+        Integer internal = internalIndex.get(id);
+        if (internal != null) {
+            return internal;
+        }
+        Integer leaf = leafIndex.get(id);
+        if (leaf == null) {
+            throw new IllegalArgumentException("子节点不存在: " + id);
+        }
+        return ~leaf;
+    }
+
+    /**
+     * 模型特征名映射到特征列：优先按名称匹配，其次按 f0 / Column_0 形式的位置下标匹配
+     */
+    private static int resolveFeature(String featureName) {
+        int index = RankingFeatures.FEATURE_NAMES.indexOf(featureName);
+        if (index >= 0) {
+            return index;
+        }
+        String digits = null;
+        if (featureName.matches("f\\d+")) {
+            digits = featureName.substring(1);
+        } else if (featureName.matches("Column_\\d+")) {
+            digits = featureName.substring(7);
+        }
+        if (digits != null) {
+            index = Integer.parseInt(digits);
+            if (index < RankingFeatures.FEATURE_NAMES.size()) {
+                return index;
+            }
+        }
+        throw new IllegalArgumentException("未知的模型特征: " + featureName);
+    }
+
+    private static int[] parseInts(String value) {
+        if (value == null || value.isBlank()) {
+            return new int[0];
+        }
+        String[] parts = value.trim().split("\\s+");
+        int[] result = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            result[i] = Integer.parseInt(parts[i]);
+        }
+        return result;
+    }
+
+    private static double[] parseDoubles(String value) {
+        if (value == null || value.isBlank()) {
+            return new double[0];
+        }
+        String[] parts = value.trim().split("\\s+");
+        double[] result = new double[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            result[i] = Double.parseDouble(parts[i]);
+        }
+        return result;
+    }
+
+    /**
+     * 展开后的节点数组（构建期可增长）
+     */
+    private static final class Nodes {
+
+        private int[] treeRoots = new int[16];
+        private int[] splitFeatures = new int[256];
+        private double[] thresholds = new double[256];
+        private byte[] missingTypes = new byte[256];
+        private int[] leftChildren = new int[256];
+        private int[] rightChildren = new int[256];
+        private int[] defaultChildren = new int[256];
+        private double[] leafValues = new double[256];
+        private int treeCount;
+        private int nodeCount;
+        private int leafCount;
+
+        /**
+         * 追加一棵树，入参使用树内局部编号（子节点为负数时 ~child 为局部叶子下标）
+         */
+        void addTree(int[] features, double[] treeThresholds, byte[] missing, boolean[] defaultLeft,
+                     int[] left, int[] right, double[] leaves, int root) {
+            int nodeBase = nodeCount;
+            int leafBase = leafCount;
+            ensureNodes(nodeCount + features.length);
+            ensureLeaves(leafCount + leaves.length);
+            if (treeCount == treeRoots.length) {
+                treeRoots = Arrays.copyOf(treeRoots, treeCount * 2);
+            }
+
+            for (int j = 0; j < features.length; j++) {
+                int node = nodeBase + j;
+                int l = remap(left[j], nodeBase, leafBase);
+                int r = remap(right[j], nodeBase, leafBase);
+                splitFeatures[node] = features[j];
+                thresholds[node] = treeThresholds[j];
+                missingTypes[node] = missing[j] <= MISSING_NAN ? missing[j] : MISSING_NONE;
+                leftChildren[node] = l;
+                rightChildren[node] = r;
+                defaultChildren[node] = defaultLeft[j] ? l : r;
+            }
+            System.arraycopy(leaves, 0, leafValues, leafBase, leaves.length);
+
+            treeRoots[treeCount++] = remap(root, nodeBase, leafBase);
+            nodeCount += features.length;
+            leafCount += leaves.length;
+        }
+
+        private static int remap(int child, int nodeBase, int leafBase) {
+            return child >= 0 ? nodeBase + child : ~(leafBase + ~child);
+        }
+
+        private void ensureNodes(int required) {
+            if (required <= splitFeatures.length) {
+                return;
+            }
+            int capacity = Math.max(required, splitFeatures.length * 2);
+            splitFeatures = Arrays.copyOf(splitFeatures, capacity);
+            thresholds = Arrays.copyOf(thresholds, capacity);
+            missingTypes = Arrays.copyOf(missingTypes, capacity);
+            leftChildren = Arrays.copyOf(leftChildren, capacity);
+            rightChildren = Arrays.copyOf(rightChildren, capacity);
+            defaultChildren = Arrays.copyOf(defaultChildren, capacity);
+        }
+
+        private void ensureLeaves(int required) {
+            if (required > leafValues.length) {
+                leafValues = Arrays.copyOf(leafValues, Math.max(required, leafValues.length * 2));
+            }
+        }
+    }
+}
@@ -0,0 +1,348 @@
+package com.qoobot.openrecommend.algorithm;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * 向量索引（精确最近邻）
+ * 所有向量按行连续存储在一个float数组中，查询时对全量做内积扫描并维护Top K小顶堆。
+ * 向量需预先做L2归一化，此时内积即为余弦相似度。
+ * 索引构建后不可变，可在多线程间安全共享，更新时整体替换即可。
+ *
+ * @author OpenRecommend
+ * @since 1.0.0
+ */
+public final class VectorIndex {
+
+    /**
+     * 超过该规模时分段并行扫描
+     */
+    private static final int PARALLEL_THRESHOLD = 200_000;
+
+    /**
+     * 并行扫描的分段大小
+     */
+    private static final int SEGMENT_SIZE = 65_536;
+
+    private final int dimension;
+    private final long[] ids;
+    private final float[] data;
+
+    private VectorIndex(int dimension, long[] ids, float[] data) {
+        this.dimension = dimension;
+        this.ids = ids;
+        this.data = data;
+    }
+
+    /**
+     * 创建空索引
+     *
+     * @param dimension 向量维度
+     * @return 空索引
+     */
+    public static VectorIndex empty(int dimension) {
+        return new VectorIndex(dimension, new long[0], new float[0]);
+    }
+
+    /**
+     * 创建索引构建器
+     *
+     * @param dimension 向量维度
+     * @param expectedSize 预估数量
+     * @return 构建器
+     */
+    public static Builder builder(int dimension, int expectedSize) {
+        return new Builder(dimension, expectedSize);
+    }
+
+    public int dimension() {
+        return dimension;
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * 获取指定ID的向量
+     *
+     * @param id 内容ID
+     * @return 向量副本，不存在时返回null
+     */
+    public float[] vector(long id) {
+        int row = Arrays.binarySearch(ids, id);
+        if (row < 0) {
+            return null;
+        }
+        int offset = row * dimension;
+        return Arrays.copyOfRange(data, offset, offset + dimension);
+    }
+
+    /**
+     * 查询与给定向量最相似的Top K
+     *
+     * @param query 查询向量（已归一化）
+     * @param k 返回数量
+     * @param excludeIds 排除的ID集合，可为null
+     * @return 结果（内容ID -> 相似度），按相似度降序
+     */
+    public Map<Long, Double> search(float[] query, int k, Set<Long> excludeIds) {
+        if (query == null || query.length != dimension || k <= 0 || ids.length == 0) {
+            return new LinkedHashMap<>();
+        }
+
+        // 多取出排除数量，避免被排除项挤占名额
+        int exclude = excludeIds != null ? excludeIds.size() : 0;
+        int capacity = Math.min(ids.length, k + exclude);
+
+        TopK topK;
+        if (ids.length < PARALLEL_THRESHOLD) {
+            topK = scan(query, 0, ids.length, capacity);
+        } else {
+            int segments = (ids.length + SEGMENT_SIZE - 1) / SEGMENT_SIZE;
+            topK = IntStream.range(0, segments)
+                .parallel()
+                .mapToObj(s -> scan(query, s * SEGMENT_SIZE,
+                    Math.min(ids.length, (s + 1) * SEGMENT_SIZE), capacity))
+                .reduce(TopK::merge)
+                .orElseGet(() -> new TopK(capacity));
+        }
+
+        int n = topK.sortDescending();
+        Map<Long, Double> result = new LinkedHashMap<>();
+        for (int i = 0; i < n; i++) {
+            long id = ids[topK.rows[i]];
+            if (excludeIds != null && excludeIds.contains(id)) {
+                continue;
+            }
+            result.put(id, (double) topK.scores[i]);
+            if (result.size() >= k) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 查询与指定内容最相似的Top K（自动排除自身）
+     *
+     * @param id 内容ID
+     * @param k 返回数量
+     * @return 结果（内容ID -> 相似度），内容不在索引中时返回空
+     */
+    public Map<Long, Double> searchById(long id, int k) {
+        float[] query = vector(id);
+        if (query == null) {
+            return new LinkedHashMap<>();
+        }
+        return search(query, k, Set.of(id));
+    }
+
+    /**
+     * 扫描[from, to)区间
+     */
+    private TopK scan(float[] query, int from, int to, int capacity) {
+        TopK topK = new TopK(capacity);
+        final int dim = dimension;
+        for (int row = from; row < to; row++) {
+            int offset = row * dim;
+            float dot = 0f;
+            for (int d = 0; d < dim; d++) {
+                dot += query[d] * data[offset + d];
+            }
+            topK.offer(row, dot);
+        }
+        return topK;
+    }
+
+    /**
+     * 向量L2归一化（原地）
+     *
+     * @param vector 向量
+     * @return 同一数组，便于链式调用
+     */
+    public static float[] normalize(float[] vector) {
+        double norm = 0.0;
+        for (float v : vector) {
+            norm += v * v;
+        }
+        if (norm == 0) {
+            return vector;
+        }
+        float inv = (float) (1.0 / Math.sqrt(norm));
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] *= inv;
+        }
+        return vector;
+    }
+
+    /**
+     * 基于原始数组的小顶堆，堆顶为当前第K名
+     */
+    private static final class TopK {
+
+        private final int capacity;
+        private final int[] rows;
+        private final float[] scores;
+        private int size;
+
+        TopK(int capacity) {
+            this.capacity = capacity;
+            this.rows = new int[capacity];
+            this.scores = new float[capacity];
+        }
+
+        void offer(int row, float score) {
+            if (capacity == 0) {
+                return;
+            }
+            if (size < capacity) {
+                rows[size] = row;
+                scores[size] = score;
+                siftUp(size++);
+            } else if (score > scores[0]) {
+                rows[0] = row;
+                scores[0] = score;
+                siftDown(0);
+            }
+        }
+
+        TopK merge(TopK other) {
+            for (int i = 0; i < other.size; i++) {
+                offer(other.rows[i], other.scores[i]);
+            }
+            return this;
+        }
+
+        /**
+         * 出堆并按分数降序写回rows/scores，之后不可再offer
+         *
+         * @return 元素数量
+         */
+        int sortDescending() {
+            int n = size;
+            int[] sortedRows = new int[n];
+            float[] sortedScores = new float[n];
+            for (int i = n - 1; i >= 0; i--) {
+                sortedRows[i] = rows[0];
+                sortedScores[i] = scores[0];
+                size--;
+                rows[0] = rows[size];
+                scores[0] = scores[size];
+                siftDown(0);
+            }
+            System.arraycopy(sortedRows, 0, rows, 0, n);
+            System.arraycopy(sortedScores, 0, scores, 0, n);
+            return n;
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (scores[i] >= scores[parent]) {
+                    break;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int left = 2 * i + 1;
+                if (left >= size) {
+                    break;
+                }
+                int smallest = left;
+                int right = left + 1;
+                if (right < size && scores[right] < scores[left]) {
+                    smallest = right;
+                }
+                if (scores[i] <= scores[smallest]) {
+                    break;
+                }
+                swap(i, smallest);
+                i = smallest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            int row = rows[a];
+            rows[a] = rows[b];
+            rows[b] = row;
+            float score = scores[a];
+            scores[a] = scores[b];
+            scores[b] = score;
+        }
+    }
+
+    /**
+     * 索引构建器
+     */
+    public static final class Builder {
+
+        private final int dimension;
+        private long[] ids;
+        private float[] data;
+        private int size;
+        private boolean sorted = true;
+
+        private Builder(int dimension, int expectedSize) {
+            this.dimension = dimension;
+            int capacity = Math.max(16, expectedSize);
+            this.ids = new long[capacity];
+            this.data = new float[capacity * dimension];
+        }
+
+        /**
+         * 添加向量（调用方需保证已归一化）
+         *
+         * @param id 内容ID
+         * @param vector 向量
+         * @return 构建器
+         */
+        public Builder add(long id, float[] vector) {
+            if (vector == null || vector.length != dimension) {
+                return this;
+            }
+            if (size == ids.length) {
+                int capacity = ids.length * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                data = Arrays.copyOf(data, capacity * dimension);
+            }
+            if (size > 0 && id <= ids[size - 1]) {
+                sorted = false;
+            }
+            ids[size] = id;
+            System.arraycopy(vector, 0, data, size * dimension, dimension);
+            size++;
+            return this;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public VectorIndex build() {
+            long[] finalIds = Arrays.copyOf(ids, size);
+            float[] finalData = Arrays.copyOf(data, size * dimension);
+            if (!sorted) {
+                // 按ID排序，保证vector(id)可二分查找
+                Integer[] order = new Integer[size];
+                for (int i = 0; i < size; i++) {
+                    order[i] = i;
+                }
+                Arrays.sort(order, (a, b) -> Long.compare(ids[a], ids[b]));
+                for (int i = 0; i < size; i++) {
+                    int from = order[i];
+                    finalIds[i] = ids[from];
+                    System.arraycopy(data, from * dimension, finalData, i * dimension, dimension);
+                }
+            }
+            return new VectorIndex(dimension, finalIds, finalData);
+        }
+    }
+}
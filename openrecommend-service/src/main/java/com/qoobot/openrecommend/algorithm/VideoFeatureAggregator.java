@@ -0,0 +1,329 @@
+package com.qoobot.openrecommend.algorithm;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.qoobot.openrecommend.entity.Video;
+import com.qoobot.openrecommend.event.KeyframesChangedEvent;
+import com.qoobot.openrecommend.mapper.VideoMapper;
+import jakarta.annotation.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.awt.image.BufferedImage;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 视频关键帧特征聚合器
+ * 读取视频的逐关键帧特征，池化为一个定长的视频向量：
+ * [均值池化 | 最大值池化 | 时序变化直方图(可选)]，各段分别归一化后整体L2归一化。
+ * <p>
+ * 关键帧特征（keyframeFeatures）为JSON数组，每个元素支持三种形式：
+ * <ul>
+ *     <li>数值数组：已提取的帧特征，长度需等于帧向量维度</li>
+ *     <li>对象 {"R":[...],"G":[...],"B":[...]}：帧颜色直方图</li>
+ *     <li>字符串：关键帧图片路径，相对 keyframe-root 解析后现场解码并提取直方图，
+ *     解析到该目录之外的路径被拒绝，文件字节数与像素数限制与图片回填相同</li>
+ * </ul>
+ *
+ * @author OpenRecommend
+ * @since 1.0.0
+ */
+@Component
+public class VideoFeatureAggregator {
+
+    private static final Logger log = LoggerFactory.getLogger(VideoFeatureAggregator.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Resource
+    private VideoMapper videoMapper;
+
+    @Resource
+    private VisualFeatureExtractor visualFeatureExtractor;
+
+    @Value("${recommend.visual.bins-per-channel:16}")
+    private int binsPerChannel;
+
+    @Value("${recommend.visual.temporal-bins:8}")
+    private int temporalBins;
+
+    @Value("${recommend.visual.index-page-size:5000}")
+    private int pageSize;
+
+    /**
+     * 关键帧图片根目录，未配置时不读取本地关键帧图片
+     */
+    @Value("${recommend.visual.keyframe-root:}")
+    private String keyframeRoot;
+
+    /**
+     * 单帧向量维度
+     */
+    public int frameDimension() {
+        return 3 * binsPerChannel;
+    }
+
+    /**
+     * 视频向量维度
+     */
+    public int videoDimension() {
+        return 2 * frameDimension() + Math.max(0, temporalBins);
+    }
+
+    /**
+     * 聚合视频关键帧特征
+     *
+     * @param keyframeFeatures 关键帧特征JSON
+     * @return 视频向量，无有效关键帧时返回null
+     */
+    public float[] aggregate(String keyframeFeatures) {
+        List<float[]> frames = parseFrames(keyframeFeatures);
+        if (frames.isEmpty()) {
+            return null;
+        }
+        return pool(frames);
+    }
+
+    /**
+     * 视频关键帧变更后重新聚合视频向量
+     * 在事务提交后于后台线程执行，关键帧解码不占用上传/更新请求的事务与数据库连接
+     */
+    @Async("taskExecutor")
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onKeyframesChanged(KeyframesChangedEvent event) {
+        try {
+            Video video = videoMapper.selectById(event.videoId());
+            if (video != null) {
+                refreshVector(video);
+            }
+        } catch (Exception e) {
+            log.error("聚合视频向量失败: videoId={}", event.videoId(), e);
+        }
+    }
+
+    /**
+     * 计算并持久化单个视频的向量
+     * 无有效关键帧时写入空向量标记，该视频不再被回填任务重复选中，关键帧更新后会重新聚合
+     *
+     * @param video 视频（需包含id、关键帧特征）
+     * @return 是否生成了有效向量
+     */
+    public boolean refreshVector(Video video) {
+        float[] vector = aggregate(video.getKeyframeFeatures());
+        videoMapper.updateVisualFeatures(video.getId(),
+            vector != null ? FeatureVectorCodec.encode(vector) : FeatureVectorCodec.EMPTY);
+        if (vector == null) {
+            log.debug("视频无有效关键帧，已标记跳过: videoId={}", video.getId());
+        }
+        return vector != null;
+    }
+
+    /**
+     * 为尚未生成视频向量的视频计算并持久化向量
+     *
+     * @return 本次成功生成向量的视频数量
+     */
+    public int refreshMissingVectors() {
+        long start = System.currentTimeMillis();
+        int updated = 0;
+        int failed = 0;
+        long lastId = 0L;
+
+        while (true) {
+            List<Video> page = videoMapper.selectKeyframePageWithoutVector(lastId, pageSize);
+            if (page == null || page.isEmpty()) {
+                break;
+            }
+            for (Video video : page) {
+                if (refreshVector(video)) {
+                    updated++;
+                } else {
+                    failed++;
+                }
+            }
+            lastId = page.get(page.size() - 1).getId();
+            if (page.size() < pageSize) {
+                break;
+            }
+        }
+
+        log.info("视频向量聚合完成: updated={}, failed={}, cost={}ms",
+            updated, failed, System.currentTimeMillis() - start);
+        return updated;
+    }
+
+    /**
+     * 池化：均值 + 最大值 + 时序变化直方图
+     */
+    private float[] pool(List<float[]> frames) {
+        int dim = frameDimension();
+        int temporal = Math.max(0, temporalBins);
+        float[] vector = new float[2 * dim + temporal];
+
+        // 均值与最大值池化
+        System.arraycopy(frames.get(0), 0, vector, dim, dim);
+        for (float[] frame : frames) {
+            for (int d = 0; d < dim; d++) {
+                vector[d] += frame[d];
+                if (frame[d] > vector[dim + d]) {
+                    vector[dim + d] = frame[d];
+                }
+            }
+        }
+        for (int d = 0; d < dim; d++) {
+            vector[d] /= frames.size();
+        }
+
+        // 时序直方图：相邻关键帧差异（1 - 余弦相似度）的分布，刻画镜头切换节奏
+        if (temporal > 0 && frames.size() > 1) {
+            int offset = 2 * dim;
+            for (int i = 1; i < frames.size(); i++) {
+                float[] prev = frames.get(i - 1);
+                float[] curr = frames.get(i);
+                float dot = 0f;
+                for (int d = 0; d < dim; d++) {
+                    dot += prev[d] * curr[d];
+                }
+                float change = Math.max(0f, Math.min(1f, 1f - dot));
+                int bin = Math.min(temporal - 1, (int) (change * temporal));
+                vector[offset + bin] += 1f;
+            }
+        }
+
+        normalizeSegment(vector, 0, dim);
+        normalizeSegment(vector, dim, 2 * dim);
+        normalizeSegment(vector, 2 * dim, vector.length);
+        return VectorIndex.normalize(vector);
+    }
+
+    /**
+     * 区间内L2归一化
+     */
+    private void normalizeSegment(float[] vector, int from, int to) {
+        double norm = 0.0;
+        for (int i = from; i < to; i++) {
+            norm += vector[i] * vector[i];
+        }
+        if (norm == 0) {
+            return;
+        }
+        float inv = (float) (1.0 / Math.sqrt(norm));
+        for (int i = from; i < to; i++) {
+            vector[i] *= inv;
+        }
+    }
+
+    /**
+     * 解析关键帧，统一转换为归一化的帧向量
+     */
+    private List<float[]> parseFrames(String keyframeFeatures) {
+        List<float[]> frames = new ArrayList<>();
+        if (keyframeFeatures == null || keyframeFeatures.isBlank()) {
+            return frames;
+        }
+
+        try {
+            JsonNode root = objectMapper.readTree(keyframeFeatures);
+            if (root == null || !root.isArray()) {
+                return frames;
+            }
+            for (JsonNode node : root) {
+                float[] frame = toFrameVector(node);
+                if (frame != null) {
+                    frames.add(frame);
+                }
+            }
+        } catch (Exception e) {
+            log.warn("解析关键帧特征失败: {}", e.getMessage());
+        }
+        return frames;
+    }
+
+    /**
+     * 单个关键帧转帧向量
+     */
+    private float[] toFrameVector(JsonNode node) {
+        int dim = frameDimension();
+
+        if (node.isArray()) {
+            // 已提取的帧特征
+            if (node.size() != dim) {
+                return null;
+            }
+            float[] frame = new float[dim];
+            for (int i = 0; i < dim; i++) {
+                frame[i] = (float) node.get(i).asDouble();
+            }
+            return VectorIndex.normalize(frame);
+        }
+
+        if (node.isObject()) {
+            // 帧颜色直方图
+            Map<String, int[]> histogram = new HashMap<>();
+            for (String channel : new String[]{"R", "G", "B"}) {
+                JsonNode values = node.get(channel);
+                if (values == null || !values.isArray()) {
+                    return null;
+                }
+                int[] bins = new int[values.size()];
+                for (int i = 0; i < bins.length; i++) {
+                    bins[i] = values.get(i).asInt();
+                }
+                histogram.put(channel, bins);
+            }
+            return visualFeatureExtractor.toFeatureVector(histogram, binsPerChannel);
+        }
+
+        if (node.isTextual()) {
+            // 本地关键帧图片
+            Path file = resolveKeyframe(node.asText());
+            if (file == null) {
+                return null;
+            }
+            try (InputStream in = Files.newInputStream(file)) {
+                BufferedImage image = visualFeatureExtractor.readImage(in);
+                return visualFeatureExtractor.toFeatureVector(
+                    visualFeatureExtractor.extractColorHistogram(image, 256), binsPerChannel);
+            } catch (Exception e) {
+                log.warn("读取关键帧图片失败: path={}", file, e);
+                return null;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * 将关键帧路径解析到关键帧根目录下（解析符号链接后比较），文件不存在或位于根目录之外时返回null
+     */
+    private Path resolveKeyframe(String location) {
+        if (keyframeRoot == null || keyframeRoot.isBlank() || location == null || location.isBlank()) {
+            return null;
+        }
+        try {
+            Path root = Paths.get(keyframeRoot).toRealPath();
+            Path file = root.resolve(location).normalize().toRealPath();
+            if (!file.startsWith(root)) {
+                log.warn("关键帧路径不在关键帧根目录内，已拒绝: path={}", location);
+                return null;
+            }
+            return Files.isRegularFile(file) ? file : null;
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (Exception e) {
+            log.warn("解析关键帧路径失败: path={}, error={}", location, e.getMessage());
+            return null;
+        }
+    }
+}
@@ -1,11 +1,22 @@
 package com.qoobot.openrecommend.algorithm;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.qoobot.openrecommend.entity.Image;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
 import java.awt.Color;
 import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -17,6 +28,33 @@ import java.util.stream.Collectors;
 @Component
 public class VisualFeatureExtractor {
 
+    /**
+     * 无法解码的图片写入的空直方图标记，使回填任务不再重复处理
+     */
+    public static final String EMPTY_HISTOGRAM = "{}";
+
+    private static final int READ_TIMEOUT_MS = 5000;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * 允许读取原图的主机（含其子域名），为空时不从网络读取
+     */
+    @Value("${recommend.visual.fetch.allowed-hosts:}")
+    private List<String> allowedHosts;
+
+    /**
+     * 单张图片文件的最大字节数
+     */
+    @Value("${recommend.visual.fetch.max-bytes:10485760}")
+    private int maxImageBytes;
+
+    /**
+     * 单张图片的最大像素数（宽 × 高），解码前根据图片头校验
+     */
+    @Value("${recommend.visual.fetch.max-pixels:40000000}")
+    private long maxImagePixels;
+
     /**
      * 提取颜色直方图
      *
@@ -59,6 +97,177 @@ public class VisualFeatureExtractor {
         return histogram;
     }
 
+    /**
+     * 从像素数据提取颜色直方图
+     *
+     * @param image 已解码的图片
+     * @param bins 直方图箱数
+     * @return 颜色直方图 [R直方图, G直方图, B直方图]
+     */
+    public Map<String, int[]> extractColorHistogram(BufferedImage image, int bins) {
+        if (image == null || bins <= 0) {
+            return Collections.emptyMap();
+        }
+
+        int[] rHistogram = new int[bins];
+        int[] gHistogram = new int[bins];
+        int[] bHistogram = new int[bins];
+
+        // 大图按步长采样，控制单张图片的处理像素数
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int step = Math.max(1, (int) Math.sqrt((double) width * height / 65536));
+
+        for (int y = 0; y < height; y += step) {
+            for (int x = 0; x < width; x += step) {
+                int rgb = image.getRGB(x, y);
+                rHistogram[((rgb >> 16) & 0xFF) * bins / 256]++;
+                gHistogram[((rgb >> 8) & 0xFF) * bins / 256]++;
+                bHistogram[(rgb & 0xFF) * bins / 256]++;
+            }
+        }
+
+        Map<String, int[]> histogram = new HashMap<>();
+        histogram.put("R", rHistogram);
+        histogram.put("G", gHistogram);
+        histogram.put("B", bHistogram);
+
+        return histogram;
+    }
+
+    /**
+     * 从图片文件内容提取颜色直方图
+     *
+     * @param content 图片文件字节（JPEG、PNG等ImageIO支持的格式）
+     * @param bins 直方图箱数
+     * @return 颜色直方图，无法解码时返回空Map
+     */
+    public Map<String, int[]> extractColorHistogram(byte[] content, int bins) {
+        if (content == null || content.length == 0) {
+            return Collections.emptyMap();
+        }
+        if (content.length > maxImageBytes) {
+            log.warn("图片文件过大: bytes={}, limit={}", content.length, maxImageBytes);
+            return Collections.emptyMap();
+        }
+        try {
+            return extractColorHistogram(decode(content), bins);
+        } catch (IOException e) {
+            log.warn("解码图片失败: {}", e.getMessage());
+            return Collections.emptyMap();
+        }
+    }
+
+    /**
+     * 判断图片地址是否允许读取：仅限 http(s)，且主机在允许列表中
+     *
+     * @param location 图片地址
+     * @return 是否允许读取
+     */
+    public boolean isFetchAllowed(String location) {
+        if (location == null || location.isBlank() || allowedHosts == null || allowedHosts.isEmpty()) {
+            return false;
+        }
+        try {
+            URI uri = URI.create(location.trim());
+            String scheme = uri.getScheme();
+            String host = uri.getHost();
+            if (host == null || !("http".equalsIgnoreCase(scheme) || "https".equalsIgnoreCase(scheme))) {
+                return false;
+            }
+            host = host.toLowerCase(Locale.ROOT);
+            for (String allowed : allowedHosts) {
+                String candidate = allowed.trim().toLowerCase(Locale.ROOT);
+                if (!candidate.isEmpty() && (host.equals(candidate) || host.endsWith("." + candidate))) {
+                    return true;
+                }
+            }
+            return false;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 读取图片地址指向的文件并提取颜色直方图
+     * 只读取允许列表中主机的 http(s) 地址，不跟随重定向；文件字节数与像素数超出上限时放弃
+     *
+     * @param location 图片地址（http/https URL）
+     * @param bins 直方图箱数
+     * @return 颜色直方图，地址不允许、读取或解码失败时返回空Map
+     */
+    public Map<String, int[]> readColorHistogram(String location, int bins) {
+        if (!isFetchAllowed(location)) {
+            log.warn("图片地址不在允许范围内，跳过读取: location={}", location);
+            return Collections.emptyMap();
+        }
+        try {
+            HttpURLConnection connection = (HttpURLConnection) URI.create(location.trim()).toURL().openConnection();
+            connection.setConnectTimeout(READ_TIMEOUT_MS);
+            connection.setReadTimeout(READ_TIMEOUT_MS);
+            // 重定向可能指向允许列表之外的主机
+            connection.setInstanceFollowRedirects(false);
+            try {
+                if (connection.getResponseCode() != HttpURLConnection.HTTP_OK) {
+                    log.warn("读取图片失败: location={}, status={}", location, connection.getResponseCode());
+                    return Collections.emptyMap();
+                }
+                if (connection.getContentLengthLong() > maxImageBytes) {
+                    log.warn("图片文件过大: location={}, bytes={}, limit={}",
+                        location, connection.getContentLengthLong(), maxImageBytes);
+                    return Collections.emptyMap();
+                }
+                try (InputStream in = connection.getInputStream()) {
+                    return extractColorHistogram(readImage(in), bins);
+                }
+            } finally {
+                connection.disconnect();
+            }
+        } catch (Exception e) {
+            log.warn("读取图片失败: location={}, error={}", location, e.getMessage());
+            return Collections.emptyMap();
+        }
+    }
+
+    /**
+     * 读取并解码图片，最多读取 max-bytes 字节，解码前校验像素数
+     *
+     * @param in 图片文件输入流
+     * @return 解码后的图片，格式不支持或超出上限时返回null
+     */
+    public BufferedImage readImage(InputStream in) throws IOException {
+        byte[] content = in.readNBytes(maxImageBytes + 1);
+        if (content.length > maxImageBytes) {
+            log.warn("图片文件过大，已放弃: limit={}", maxImageBytes);
+            return null;
+        }
+        return decode(content);
+    }
+
+    /**
+     * 解码图片，先从图片头读取宽高，像素数超出上限时不解码
+     */
+    private BufferedImage decode(byte[] content) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(content))) {
+            Iterator<ImageReader> readers = input != null ? ImageIO.getImageReaders(input) : null;
+            if (readers == null || !readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixels > maxImagePixels) {
+                    log.warn("图片像素数过大，已放弃: pixels={}, limit={}", pixels, maxImagePixels);
+                    return null;
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
     /**
      * 提取颜色直方图（默认256箱）
      */
@@ -215,6 +424,83 @@ public class VisualFeatureExtractor {
         return (double) intersection.size() / union.size();
     }
 
+    /**
+     * 将颜色直方图转换为定长归一化特征向量
+     * 每个通道先合并为binsPerChannel个粗粒度箱并做L1归一化，再开平方（Hellinger映射），
+     * 最后整体L2归一化，此时两个向量的内积即为Bhattacharyya系数，可直接用于向量索引检索
+     *
+     * @param histogram 颜色直方图
+     * @param binsPerChannel 每个通道的箱数
+     * @return 特征向量（长度为3 * binsPerChannel），直方图无效时返回null
+     */
+    public float[] toFeatureVector(Map<String, int[]> histogram, int binsPerChannel) {
+        if (histogram == null || histogram.isEmpty() || binsPerChannel <= 0) {
+            return null;
+        }
+
+        String[] channels = {"R", "G", "B"};
+        float[] vector = new float[channels.length * binsPerChannel];
+
+        for (int c = 0; c < channels.length; c++) {
+            int[] channel = histogram.get(channels[c]);
+            if (channel == null || channel.length == 0) {
+                return null;
+            }
+
+            // 合并为粗粒度箱
+            double total = 0.0;
+            int offset = c * binsPerChannel;
+            for (int i = 0; i < channel.length; i++) {
+                int bin = (int) ((long) i * binsPerChannel / channel.length);
+                vector[offset + bin] += channel[i];
+                total += channel[i];
+            }
+
+            // 通道内L1归一化后开平方
+            for (int i = 0; i < binsPerChannel; i++) {
+                vector[offset + i] = total > 0 ? (float) Math.sqrt(vector[offset + i] / total) : 0f;
+            }
+        }
+
+        return VectorIndex.normalize(vector);
+    }
+
+    /**
+     * 解析存储的颜色直方图（JSON格式：{"R":[...],"G":[...],"B":[...]}）
+     *
+     * @param json 直方图JSON
+     * @return 颜色直方图，解析失败返回空Map
+     */
+    public Map<String, int[]> parseColorHistogram(String json) {
+        if (json == null || json.isBlank()) {
+            return Collections.emptyMap();
+        }
+        try {
+            return objectMapper.readValue(json, new TypeReference<Map<String, int[]>>() {});
+        } catch (Exception e) {
+            log.warn("解析颜色直方图失败: {}", e.getMessage());
+            return Collections.emptyMap();
+        }
+    }
+
+    /**
+     * 序列化颜色直方图为存储格式（JSON：{"R":[...],"G":[...],"B":[...]}）
+     *
+     * @param histogram 颜色直方图
+     * @return 直方图JSON，直方图为空时返回 {@link #EMPTY_HISTOGRAM}
+     */
+    public String toHistogramJson(Map<String, int[]> histogram) {
+        if (histogram == null || histogram.isEmpty()) {
+            return EMPTY_HISTOGRAM;
+        }
+        try {
+            return objectMapper.writeValueAsString(histogram);
+        } catch (Exception e) {
+            log.warn("序列化颜色直方图失败: {}", e.getMessage());
+            return EMPTY_HISTOGRAM;
+        }
+    }
+
     /**
      * 计算图片亮度（基于RGB值）
      *
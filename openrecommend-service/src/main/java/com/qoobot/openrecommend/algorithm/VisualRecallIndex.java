@@ -0,0 +1,214 @@
+package com.qoobot.openrecommend.algorithm;
+
+import com.qoobot.openrecommend.common.enums.ContentType;
+import com.qoobot.openrecommend.entity.Image;
+import com.qoobot.openrecommend.entity.Video;
+import com.qoobot.openrecommend.mapper.ImageMapper;
+import com.qoobot.openrecommend.mapper.VideoMapper;
+import jakarta.annotation.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 视觉相似召回索引
+ * 将图片颜色直方图、视频关键帧聚合向量分别建立向量索引，提供"视觉相似图片/视频"召回。
+ * 索引整体构建后原子替换，查询期间无锁。
+ *
+ * @author OpenRecommend
+ * @since 1.0.0
+ */
+@Component
+public class VisualRecallIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(VisualRecallIndex.class);
+
+    @Resource
+    private ImageMapper imageMapper;
+
+    @Resource
+    private VideoMapper videoMapper;
+
+    @Resource
+    private VisualFeatureExtractor visualFeatureExtractor;
+
+    @Resource
+    private VideoFeatureAggregator videoFeatureAggregator;
+
+    @Value("${recommend.visual.bins-per-channel:16}")
+    private int binsPerChannel;
+
+    @Value("${recommend.visual.index-page-size:5000}")
+    private int indexPageSize;
+
+    private volatile VectorIndex imageIndex;
+
+    private volatile VectorIndex videoIndex;
+
+    /**
+     * 重建图片视觉索引（全量）
+     *
+     * @return 索引中的图片数量
+     */
+    public int rebuildImageIndex() {
+        long start = System.currentTimeMillis();
+        int dimension = 3 * binsPerChannel;
+
+        VectorIndex current = imageIndex;
+        VectorIndex.Builder builder = VectorIndex.builder(dimension,
+            current != null ? current.size() : indexPageSize);
+
+        long lastId = 0L;
+        while (true) {
+            List<Image> page = imageMapper.selectVisualFeaturePage(lastId, indexPageSize);
+            if (page == null || page.isEmpty()) {
+                break;
+            }
+            for (Image image : page) {
+                float[] vector = toVector(image);
+                if (vector != null) {
+                    builder.add(image.getId(), vector);
+                }
+            }
+            lastId = page.get(page.size() - 1).getId();
+            if (page.size() < indexPageSize) {
+                break;
+            }
+        }
+
+        imageIndex = builder.build();
+        log.info("图片视觉索引构建完成: size={}, dimension={}, cost={}ms",
+            builder.size(), dimension, System.currentTimeMillis() - start);
+        return builder.size();
+    }
+
+    /**
+     * 召回视觉相似图片
+     *
+     * @param image 源图片
+     * @param limit 推荐数量
+     * @return 推荐结果（内容ID -> 相似度）
+     */
+    public Map<Long, Double> recommendSimilarImages(Image image, int limit) {
+        VectorIndex index = imageIndex;
+        if (index == null || index.size() == 0 || image == null || image.getId() == null) {
+            return new LinkedHashMap<>();
+        }
+
+        // 优先使用索引中的向量，新发布尚未入索引的图片使用其已存储的直方图
+        float[] query = index.vector(image.getId());
+        if (query == null) {
+            query = toVector(image);
+        }
+        if (query == null) {
+            return new LinkedHashMap<>();
+        }
+
+        return index.search(query, limit, Set.of(image.getId()));
+    }
+
+    /**
+     * 重建视频视觉索引（全量）
+     * 直接读取已持久化的视频向量，不解码任何关键帧
+     *
+     * @return 索引中的视频数量
+     */
+    public int rebuildVideoIndex() {
+        long start = System.currentTimeMillis();
+        int dimension = videoFeatureAggregator.videoDimension();
+
+        VectorIndex current = videoIndex;
+        VectorIndex.Builder builder = VectorIndex.builder(dimension,
+            current != null ? current.size() : indexPageSize);
+
+        long lastId = 0L;
+        while (true) {
+            List<Video> page = videoMapper.selectVisualFeaturePage(lastId, indexPageSize);
+            if (page == null || page.isEmpty()) {
+                break;
+            }
+            for (Video video : page) {
+                builder.add(video.getId(), FeatureVectorCodec.decode(video.getVisualFeatures()));
+            }
+            lastId = page.get(page.size() - 1).getId();
+            if (page.size() < indexPageSize) {
+                break;
+            }
+        }
+
+        videoIndex = builder.build();
+        log.info("视频视觉索引构建完成: size={}, dimension={}, cost={}ms",
+            builder.size(), dimension, System.currentTimeMillis() - start);
+        return builder.size();
+    }
+
+    /**
+     * 召回视觉相似视频
+     *
+     * @param video 源视频
+     * @param limit 推荐数量
+     * @return 推荐结果（内容ID -> 相似度）
+     */
+    public Map<Long, Double> recommendSimilarVideos(Video video, int limit) {
+        VectorIndex index = videoIndex;
+        if (index == null || index.size() == 0 || video == null || video.getId() == null) {
+            return new LinkedHashMap<>();
+        }
+
+        float[] query = index.vector(video.getId());
+        if (query == null) {
+            query = FeatureVectorCodec.decode(video.getVisualFeatures());
+        }
+        if (query == null || query.length != index.dimension()) {
+            return new LinkedHashMap<>();
+        }
+
+        return index.search(query, limit, Set.of(video.getId()));
+    }
+
+    /**
+     * 获取索引中内容的视觉向量
+     *
+     * @param contentType 内容类型（图片或视频）
+     * @param contentId 内容ID
+     * @return 已归一化的向量副本，不在索引中或类型不支持时返回null
+     */
+    public float[] vectorOf(ContentType contentType, long contentId) {
+        VectorIndex index = switch (contentType) {
+            case IMAGE -> imageIndex;
+            case VIDEO -> videoIndex;
+            default -> null;
+        };
+        return index != null ? index.vector(contentId) : null;
+    }
+
+    /**
+     * 当前图片索引规模
+     */
+    public int imageIndexSize() {
+        VectorIndex index = imageIndex;
+        return index != null ? index.size() : 0;
+    }
+
+    /**
+     * 当前视频索引规模
+     */
+    public int videoIndexSize() {
+        VectorIndex index = videoIndex;
+        return index != null ? index.size() : 0;
+    }
+
+    /**
+     * 图片转特征向量：仅使用已存储的真实颜色直方图，未计算直方图的图片不入索引
+     */
+    private float[] toVector(Image image) {
+        Map<String, int[]> histogram = visualFeatureExtractor.parseColorHistogram(image.getColorHistogram());
+        return visualFeatureExtractor.toFeatureVector(histogram, binsPerChannel);
+    }
+}
@@ -0,0 +1,223 @@
+package com.qoobot.openrecommend.degrade;
+
+import com.qoobot.openrecommend.common.enums.DegradationMode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 降级控制器
+ * 周期性观察三个负载信号：异步任务线程池队列使用率、进行中的推荐请求数、最近一个周期数据库调用耗时的P95。
+ * 每个信号按三级阈值得到 0~3 级，取最大值作为目标级别：
+ * FULL → NO_USER_CF → NO_SIMILARITY → HOT_ONLY。
+ * 负载升高时立即降级到目标级别；负载回落后需连续 recover-intervals 个周期低于当前级别才恢复一级，避免抖动。
+ * 评估在独立的单线程调度器上执行，不与 @Scheduled 定时任务共享线程，长耗时任务运行期间降级仍能及时生效。
+ *
+ * @author OpenRecommend
+ * @since 1.0.0
+ */
+@Component
+public class DegradationController {
+
+    private static final Logger log = LoggerFactory.getLogger(DegradationController.class);
+
+    /**
+     * 延迟采样环形缓冲区大小（2的幂）
+     */
+    private static final int SAMPLE_SIZE = 1024;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    @Resource(name = "taskExecutor")
+    private Executor taskExecutor;
+
+    @Value("${recommend.degrade.enabled:true}")
+    private boolean enabled;
+
+    @Value("${recommend.degrade.evaluate-interval-ms:1000}")
+    private long evaluateIntervalMs;
+
+    @Value("${recommend.degrade.recover-intervals:10}")
+    private int recoverIntervals;
+
+    @Value("${recommend.degrade.queue-utilization:0.5,0.75,0.9}")
+    private double[] queueThresholds;
+
+    @Value("${recommend.degrade.in-flight:200,400,800}")
+    private double[] inFlightThresholds;
+
+    @Value("${recommend.degrade.db-p95-ms:150,300,600}")
+    private double[] dbLatencyThresholds;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final long[] latencySamples = new long[SAMPLE_SIZE];
+    private final AtomicLong sampleCount = new AtomicLong();
+    private long evaluatedCount;
+    private int healthyIntervals;
+    private volatile double lastDbP95Ms;
+    private volatile DegradationMode mode = DegradationMode.FULL;
+    private ScheduledExecutorService evaluator;
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("recommend.degrade.level", this, controller -> controller.mode.ordinal())
+            .description("当前降级级别：0-full，1-no_user_cf，2-no_similarity，3-hot_only")
+            .register(meterRegistry);
+        Gauge.builder("recommend.degrade.in_flight", inFlight, AtomicInteger::get)
+            .register(meterRegistry);
+        Gauge.builder("recommend.degrade.db_p95_ms", this, controller -> controller.lastDbP95Ms)
+            .register(meterRegistry);
+
+        evaluator = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "degrade-evaluator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        evaluator.scheduleWithFixedDelay(this::evaluateSafely, evaluateIntervalMs, evaluateIntervalMs,
+            TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        evaluator.shutdownNow();
+    }
+
+    /**
+     * 当前降级模式
+     */
+    public DegradationMode currentMode() {
+        return mode;
+    }
+
+    /**
+     * 推荐请求开始
+     */
+    public void enter() {
+        inFlight.incrementAndGet();
+    }
+
+    /**
+     * 推荐请求结束
+     */
+    public void exit() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * 记录一次数据库调用耗时（含舱壁等待）
+     */
+    public void recordDbLatency(long nanos) {
+        long index = sampleCount.getAndIncrement();
+        latencySamples[(int) (index & (SAMPLE_SIZE - 1))] = nanos;
+    }
+
+    /**
+     * 周期任务抛出异常会终止后续调度，异常只记录日志
+     */
+    private void evaluateSafely() {
+        try {
+            evaluate();
+        } catch (Exception e) {
+            log.error("降级评估失败", e);
+        }
+    }
+
+    /**
+     * 评估负载并调整降级模式
+     */
+    public synchronized void evaluate() {
+        double queueUtilization = queueUtilization();
+        int requests = inFlight.get();
+        lastDbP95Ms = dbP95Ms();
+        if (!enabled) {
+            return;
+        }
+
+        int target = Math.max(level(queueUtilization, queueThresholds),
+            Math.max(level(requests, inFlightThresholds), level(lastDbP95Ms, dbLatencyThresholds)));
+        DegradationMode current = mode;
+        DegradationMode next = current;
+        if (target > current.ordinal()) {
+            next = DegradationMode.ofLevel(target);
+            healthyIntervals = 0;
+        } else if (target < current.ordinal()) {
+            if (++healthyIntervals >= recoverIntervals) {
+                next = DegradationMode.ofLevel(current.ordinal() - 1);
+                healthyIntervals = 0;
+            }
+        } else {
+            healthyIntervals = 0;
+        }
+
+        if (next != current) {
+            mode = next;
+            Counter.builder("recommend.degrade.transitions")
+                .tag("from", current.getCode())
+                .tag("to", next.getCode())
+                .register(meterRegistry)
+                .increment();
+            log.warn("降级模式切换: {} -> {}, 队列使用率={}, 进行中请求={}, 数据库P95={}ms",
+                current.getCode(), next.getCode(), String.format("%.2f", queueUtilization), requests,
+                String.format("%.1f", lastDbP95Ms));
+        }
+    }
+
+    /**
+     * 信号超过的阈值个数
+     */
+    private int level(double value, double[] thresholds) {
+        int level = 0;
+        for (double threshold : thresholds) {
+            if (value >= threshold) {
+                level++;
+            }
+        }
+        return level;
+    }
+
+    private double queueUtilization() {
+        if (!(taskExecutor instanceof ThreadPoolTaskExecutor executor)) {
+            return 0.0;
+        }
+        ThreadPoolExecutor pool = executor.getThreadPoolExecutor();
+        int size = pool.getQueue().size();
+        int capacity = size + pool.getQueue().remainingCapacity();
+        return capacity > 0 ? (double) size / capacity : 0.0;
+    }
+
+    /**
+     * 上次评估以来数据库调用耗时的P95（毫秒），期间没有调用时为0
+     */
+    private double dbP95Ms() {
+        long total = sampleCount.get();
+        int count = (int) Math.min(total - evaluatedCount, SAMPLE_SIZE);
+        evaluatedCount = total;
+        if (count <= 0) {
+            return 0.0;
+        }
+        long[] recent = new long[count];
+        for (int i = 0; i < count; i++) {
+            recent[i] = latencySamples[(int) ((total - 1 - i) & (SAMPLE_SIZE - 1))];
+        }
+        Arrays.sort(recent);
+        return recent[(int) Math.ceil(count * 0.95) - 1] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,69 @@
+package com.qoobot.openrecommend.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 用户曝光实体
+ * 只追加写入的日志表，没有更新时间与逻辑删除字段，因此不继承 BaseDO
+ *
+ * @author Qoobot Team
+ * @since 1.0.0
+ */
+@Data
+@TableName("user_impression")
+public class UserImpression implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 曝光ID
+     */
+    @TableId(type = IdType.AUTO)
+    private Long id;
+
+    /**
+     * 用户ID
+     */
+    private Long userId;
+
+    /**
+     * 内容类型：article,image,video
+     */
+    private String contentType;
+
+    /**
+     * 内容ID
+     */
+    private Long contentId;
+
+    /**
+     * 在推荐结果中的位置（从0开始）
+     */
+    private Integer position;
+
+    /**
+     * 推荐得分
+     */
+    private Double score;
+
+    /**
+     * 推荐类型：personal,popular，为空时为综合推荐
+     */
+    private String recommendType;
+
+    /**
+     * 设备类型：mobile,pc,tablet
+     */
+    private String device;
+
+    /**
+     * 曝光时间
+     */
+    private LocalDateTime createTime;
+}
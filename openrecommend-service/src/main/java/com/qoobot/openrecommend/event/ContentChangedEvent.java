@@ -0,0 +1,23 @@
+package com.qoobot.openrecommend.event;
+
+import com.qoobot.openrecommend.common.enums.ContentType;
+
+/**
+ * 内容变更事件
+ * 内容更新或删除时发布，供本地缓存失效
+ *
+ * @param contentType 内容类型
+ * @param contentId 内容ID
+ * @param action 变更类型
+ * @author OpenRecommend
+ * @since 1.0.0
+ */
+public record ContentChangedEvent(ContentType contentType, Long contentId, Action action) {
+
+    /**
+     * 变更类型
+     */
+    public enum Action {
+        UPDATED, DELETED
+    }
+}
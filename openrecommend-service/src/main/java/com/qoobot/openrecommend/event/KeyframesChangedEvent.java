@@ -0,0 +1,12 @@
+package com.qoobot.openrecommend.event;
+
+/**
+ * 视频关键帧变更事件
+ * 视频上传或更新关键帧特征时发布，事务提交后异步聚合视频向量
+ *
+ * @param videoId 视频ID
+ * @author OpenRecommend
+ * @since 1.0.0
+ */
+public record KeyframesChangedEvent(Long videoId) {
+}
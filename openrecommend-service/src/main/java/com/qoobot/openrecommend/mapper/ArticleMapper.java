@@ -3,9 +3,11 @@ package com.qoobot.openrecommend.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.qoobot.openrecommend.entity.Article;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 
@@ -36,6 +38,7 @@ public interface ArticleMapper extends BaseMapper<Article> {
             "ORDER BY quality_score DESC, publish_time DESC " +
             "LIMIT #{limit}" +
             "</script>")
+    @Options(timeout = QueryTimeouts.ONLINE_SECONDS)
     List<Article> selectByTags(@Param("tags") Set<String> tags, @Param("limit") int limit);
 
     /**
@@ -50,6 +53,7 @@ public interface ArticleMapper extends BaseMapper<Article> {
             "AND publish_time >= DATE_SUB(NOW(), INTERVAL #{days} DAY) " +
             "ORDER BY (view_count * 0.3 + like_count * 0.3 + comment_count * 0.2 + share_count * 0.2) DESC " +
             "LIMIT #{limit}")
+    @Options(timeout = QueryTimeouts.ONLINE_SECONDS)
     List<Article> selectHotArticles(@Param("days") int days, @Param("limit") int limit);
 
     /**
@@ -71,6 +75,7 @@ public interface ArticleMapper extends BaseMapper<Article> {
             "ORDER BY quality_score DESC, publish_time DESC " +
             "LIMIT #{limit}" +
             "</script>")
+    @Options(timeout = QueryTimeouts.ONLINE_SECONDS)
     List<Article> selectNotInIds(@Param("excludeIds") List<Long> excludeIds, @Param("limit") int limit);
 
     /**
@@ -85,6 +90,7 @@ public interface ArticleMapper extends BaseMapper<Article> {
             "AND category_id = #{categoryId} " +
             "ORDER BY quality_score DESC, publish_time DESC " +
             "LIMIT #{limit}")
+    @Options(timeout = QueryTimeouts.ONLINE_SECONDS)
     List<Article> selectByCategory(@Param("categoryId") Long categoryId, @Param("limit") int limit);
 
     /**
@@ -100,4 +106,34 @@ public interface ArticleMapper extends BaseMapper<Article> {
             "ORDER BY publish_time DESC " +
             "LIMIT #{limit}")
     List<Article> selectByAuthor(@Param("authorId") Long authorId, @Param("limit") int limit);
+
+    /**
+     * 按ID游标分页查询已发布文章的标签
+     * 
+     * @param lastId 上一页最后一个ID
+     * @param limit 限制数量
+     * @return 文章列表（仅包含id、标签）
+     */
+    @Select("SELECT id, tags FROM article " +
+            "WHERE status = 1 AND is_deleted = 0 " +
+            "AND id > #{lastId} " +
+            "ORDER BY id ASC " +
+            "LIMIT #{limit}")
+    List<Article> selectTagPage(@Param("lastId") Long lastId, @Param("limit") int limit);
+
+    /**
+     * 批量查询文章卡片字段（不含正文等大字段）
+     * 
+     * @param ids 文章ID列表
+     * @return 文章列表（仅包含卡片字段）
+     */
+    @Select("<script>" +
+            "SELECT id, title, cover_image, category_id, tags, author_id, publish_time, view_count, like_count, quality_score FROM article " +
+            "WHERE is_deleted = 0 AND id IN " +
+            "<foreach collection='ids' item='id' open='(' separator=',' close=')'>" +
+            "#{id}" +
+            "</foreach>" +
+            "</script>")
+    @Options(timeout = QueryTimeouts.ONLINE_SECONDS)
+    List<Article> selectCardsByIds(@Param("ids") Collection<Long> ids);
 }
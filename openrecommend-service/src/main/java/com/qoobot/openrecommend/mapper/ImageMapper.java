@@ -3,9 +3,12 @@ package com.qoobot.openrecommend.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.qoobot.openrecommend.entity.Image;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 
@@ -30,6 +33,7 @@ public interface ImageMapper extends BaseMapper<Image> {
             "AND publish_time >= DATE_SUB(NOW(), INTERVAL #{days} DAY) " +
             "ORDER BY (view_count * 0.4 + like_count * 0.4 + download_count * 0.2) DESC " +
             "LIMIT #{limit}")
+    @Options(timeout = QueryTimeouts.ONLINE_SECONDS)
     List<Image> selectHotImages(@Param("days") int days, @Param("limit") int limit);
 
     /**
@@ -50,8 +54,31 @@ public interface ImageMapper extends BaseMapper<Image> {
             "ORDER BY quality_score DESC, publish_time DESC " +
             "LIMIT #{limit}" +
             "</script>")
+    @Options(timeout = QueryTimeouts.ONLINE_SECONDS)
     List<Image> selectByTags(@Param("tags") Set<String> tags, @Param("limit") int limit);
 
+    /**
+     * 查询未查看的图片
+     * 
+     * @param excludeIds 排除的ID列表
+     * @param limit 限制数量
+     * @return 图片列表
+     */
+    @Select("<script>" +
+            "SELECT * FROM image " +
+            "WHERE status = 1 AND is_deleted = 0 " +
+            "<if test='excludeIds != null and excludeIds.size() > 0'>" +
+            "AND id NOT IN " +
+            "<foreach collection='excludeIds' item='id' open='(' separator=',' close=')'>" +
+            "#{id}" +
+            "</foreach>" +
+            "</if>" +
+            "ORDER BY quality_score DESC, publish_time DESC " +
+            "LIMIT #{limit}" +
+            "</script>")
+    @Options(timeout = QueryTimeouts.ONLINE_SECONDS)
+    List<Image> selectNotInIds(@Param("excludeIds") List<Long> excludeIds, @Param("limit") int limit);
+
     /**
      * 根据分类查询图片
      * 
@@ -64,6 +91,7 @@ public interface ImageMapper extends BaseMapper<Image> {
             "AND category_id = #{categoryId} " +
             "ORDER BY quality_score DESC, publish_time DESC " +
             "LIMIT #{limit}")
+    @Options(timeout = QueryTimeouts.ONLINE_SECONDS)
     List<Image> selectByCategory(@Param("categoryId") Long categoryId, @Param("limit") int limit);
 
     /**
@@ -79,4 +107,74 @@ public interface ImageMapper extends BaseMapper<Image> {
             "ORDER BY publish_time DESC " +
             "LIMIT #{limit}")
     List<Image> selectByUploader(@Param("uploaderId") Long uploaderId, @Param("limit") int limit);
+
+    /**
+     * 按ID游标分页查询已存储颜色直方图的已发布图片
+     * 
+     * @param lastId 上一页最后一个ID
+     * @param limit 限制数量
+     * @return 图片列表（仅包含id、宽高、颜色直方图）
+     */
+    @Select("SELECT id, width, height, color_histogram FROM image " +
+            "WHERE status = 1 AND is_deleted = 0 " +
+            "AND color_histogram IS NOT NULL " +
+            "AND id > #{lastId} " +
+            "ORDER BY id ASC " +
+            "LIMIT #{limit}")
+    List<Image> selectVisualFeaturePage(@Param("lastId") Long lastId, @Param("limit") int limit);
+
+    /**
+     * 按ID游标分页查询尚未计算颜色直方图的图片
+     * 
+     * @param lastId 上一页最后一个ID
+     * @param limit 限制数量
+     * @return 图片列表（仅包含id、图片地址）
+     */
+    @Select("SELECT id, url FROM image " +
+            "WHERE is_deleted = 0 " +
+            "AND color_histogram IS NULL " +
+            "AND id > #{lastId} " +
+            "ORDER BY id ASC " +
+            "LIMIT #{limit}")
+    List<Image> selectPageWithoutHistogram(@Param("lastId") Long lastId, @Param("limit") int limit);
+
+    /**
+     * 更新颜色直方图
+     * 
+     * @param id 图片ID
+     * @param colorHistogram 颜色直方图JSON
+     * @return 影响行数
+     */
+    @Update("UPDATE image SET color_histogram = #{colorHistogram} WHERE id = #{id}")
+    int updateColorHistogram(@Param("id") Long id, @Param("colorHistogram") String colorHistogram);
+
+    /**
+     * 按ID游标分页查询已发布图片的标签
+     * 
+     * @param lastId 上一页最后一个ID
+     * @param limit 限制数量
+     * @return 图片列表（仅包含id、标签）
+     */
+    @Select("SELECT id, tags FROM image " +
+            "WHERE status = 1 AND is_deleted = 0 " +
+            "AND id > #{lastId} " +
+            "ORDER BY id ASC " +
+            "LIMIT #{limit}")
+    List<Image> selectTagPage(@Param("lastId") Long lastId, @Param("limit") int limit);
+
+    /**
+     * 批量查询图片卡片字段（不含正文等大字段）
+     * 
+     * @param ids 图片ID列表
+     * @return 图片列表（仅包含卡片字段）
+     */
+    @Select("<script>" +
+            "SELECT id, title, url, category_id, tags, uploader_id, publish_time, view_count, like_count, quality_score FROM image " +
+            "WHERE is_deleted = 0 AND id IN " +
+            "<foreach collection='ids' item='id' open='(' separator=',' close=')'>" +
+            "#{id}" +
+            "</foreach>" +
+            "</script>")
+    @Options(timeout = QueryTimeouts.ONLINE_SECONDS)
+    List<Image> selectCardsByIds(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,19 @@
+package com.qoobot.openrecommend.mapper;
+
+/**
+ * 查询语句超时（秒）
+ *
+ * @author OpenRecommend
+ * @since 1.0.0
+ */
+public final class QueryTimeouts {
+
+    /**
+     * 在线推荐链路的查询超时：召回、候选内容加载与相关内容兜底计算。
+     * 这些查询错过截止时间后只是不再等待，执行中的SQL不会被中断，由语句超时限制其继续占用连接与线程的时间
+     */
+    public static final int ONLINE_SECONDS = 2;
+
+    private QueryTimeouts() {
+    }
+}
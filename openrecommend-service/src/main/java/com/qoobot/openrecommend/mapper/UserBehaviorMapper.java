@@ -3,6 +3,7 @@ package com.qoobot.openrecommend.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.qoobot.openrecommend.entity.UserBehavior;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
 
@@ -30,6 +31,7 @@ public interface UserBehaviorMapper extends BaseMapper<UserBehavior> {
             "AND create_time >= DATE_SUB(NOW(), INTERVAL #{days} DAY) " +
             "ORDER BY create_time DESC " +
             "LIMIT #{limit}")
+    @Options(timeout = QueryTimeouts.ONLINE_SECONDS)
     List<UserBehavior> selectRecentBehaviors(@Param("userId") Long userId, 
                                               @Param("days") int days, 
                                               @Param("limit") int limit);
@@ -49,10 +51,27 @@ public interface UserBehaviorMapper extends BaseMapper<UserBehavior> {
             "</if>" +
             "ORDER BY create_time DESC " +
             "LIMIT #{limit}")
+    @Options(timeout = QueryTimeouts.ONLINE_SECONDS)
     List<Long> selectHistoryContentIds(@Param("userId") Long userId, 
                                         @Param("contentType") String contentType, 
                                         @Param("limit") int limit);
 
+    /**
+     * 查询用户各内容类型的历史内容（仅填充 contentType、contentId）
+     * 
+     * @param userId 用户ID
+     * @param limit 限制数量
+     * @return 历史内容列表
+     */
+    @Select("SELECT content_type, content_id FROM user_behavior " +
+            "WHERE user_id = #{userId} " +
+            "GROUP BY content_type, content_id " +
+            "ORDER BY MAX(create_time) DESC " +
+            "LIMIT #{limit}")
+    @Options(timeout = QueryTimeouts.ONLINE_SECONDS)
+    List<UserBehavior> selectHistoryContents(@Param("userId") Long userId, 
+                                             @Param("limit") int limit);
+
     /**
      * 查询用户在指定内容上的行为
      * 
@@ -96,4 +115,24 @@ public interface UserBehaviorMapper extends BaseMapper<UserBehavior> {
             "WHERE create_time >= DATE_SUB(NOW(), INTERVAL #{days} DAY) " +
             "ORDER BY MAX(create_time) DESC")
     List<Long> selectActiveUserIds(@Param("days") int days);
+
+    /**
+     * 按ID游标分页查询某内容类型的用户交互（仅填充 id、userId、contentId）
+     *
+     * @param contentType 内容类型
+     * @param days 最近天数
+     * @param lastId 上一页最后一个ID
+     * @param limit 限制数量
+     * @return 行为列表
+     */
+    @Select("SELECT id, user_id, content_id FROM user_behavior " +
+            "WHERE content_type = #{contentType} " +
+            "AND create_time >= DATE_SUB(NOW(), INTERVAL #{days} DAY) " +
+            "AND id > #{lastId} " +
+            "ORDER BY id ASC " +
+            "LIMIT #{limit}")
+    List<UserBehavior> selectInteractionPage(@Param("contentType") String contentType,
+                                             @Param("days") int days,
+                                             @Param("lastId") Long lastId,
+                                             @Param("limit") int limit);
 }
@@ -0,0 +1,35 @@
+package com.qoobot.openrecommend.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.qoobot.openrecommend.entity.UserImpression;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+/**
+ * 用户曝光数据访问层
+ * 
+ * @author OpenRecommend
+ * @since 1.0.0
+ */
+@Mapper
+public interface UserImpressionMapper extends BaseMapper<UserImpression> {
+
+    /**
+     * 多行插入曝光记录
+     * 
+     * @param impressions 曝光记录
+     * @return 插入行数
+     */
+    @Insert("<script>" +
+            "INSERT INTO user_impression " +
+            "(user_id, content_type, content_id, position, score, recommend_type, device, create_time) VALUES " +
+            "<foreach collection='list' item='i' separator=','>" +
+            "(#{i.userId}, #{i.contentType}, #{i.contentId}, #{i.position}, #{i.score}, " +
+            "#{i.recommendType}, #{i.device}, #{i.createTime})" +
+            "</foreach>" +
+            "</script>")
+    int insertBatch(@Param("list") List<UserImpression> impressions);
+}
@@ -3,9 +3,12 @@ package com.qoobot.openrecommend.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.qoobot.openrecommend.entity.UserProfile;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
 
+import java.util.List;
+
 /**
  * 用户画像数据访问层
  * 
@@ -22,6 +25,7 @@ public interface UserProfileMapper extends BaseMapper<UserProfile> {
      * @return 用户画像
      */
     @Select("SELECT * FROM user_profile WHERE user_id = #{userId}")
+    @Options(timeout = QueryTimeouts.ONLINE_SECONDS)
     UserProfile selectByUserId(@Param("userId") Long userId);
 
     /**
@@ -61,6 +65,47 @@ public interface UserProfileMapper extends BaseMapper<UserProfile> {
             "LIMIT #{limit}")
     List<UserProfile> selectIncompleteProfiles(@Param("limit") int limit);
 
+    /**
+     * 按ID游标分页查询某个小时活跃的用户ID（使用 active_periods 多值索引）
+     *
+     * @param hour 小时（0-23）
+     * @param lastId 上一页最后一条画像ID
+     * @param limit 每页数量
+     * @return 画像列表（仅 id、user_id）
+     */
+    @Select("SELECT id, user_id FROM user_profile " +
+            "WHERE #{hour} MEMBER OF (active_periods) " +
+            "AND id > #{lastId} " +
+            "ORDER BY id ASC " +
+            "LIMIT #{limit}")
+    List<UserProfile> selectActiveUserPage(@Param("hour") int hour,
+                                           @Param("lastId") long lastId,
+                                           @Param("limit") int limit);
+
+    /**
+     * 查询有画像的最大用户ID
+     *
+     * @return 最大用户ID，没有画像时为null
+     */
+    @Select("SELECT MAX(user_id) FROM user_profile")
+    Long selectMaxUserId();
+
+    /**
+     * 按用户ID游标分页查询某个用户ID区间内有画像的用户
+     *
+     * @param lastUserId 上一页最后一个用户ID（不含）
+     * @param toUserId 区间上界（不含）
+     * @param limit 每页数量
+     * @return 用户ID列表
+     */
+    @Select("SELECT user_id FROM user_profile " +
+            "WHERE user_id > #{lastUserId} AND user_id < #{toUserId} " +
+            "ORDER BY user_id ASC " +
+            "LIMIT #{limit}")
+    List<Long> selectUserIdsInRange(@Param("lastUserId") long lastUserId,
+                                    @Param("toUserId") long toUserId,
+                                    @Param("limit") int limit);
+
     /**
      * 查询总用户数
      *
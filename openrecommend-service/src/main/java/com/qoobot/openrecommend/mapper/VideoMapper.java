@@ -3,9 +3,12 @@ package com.qoobot.openrecommend.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.qoobot.openrecommend.entity.Video;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 
@@ -30,6 +33,7 @@ public interface VideoMapper extends BaseMapper<Video> {
             "AND publish_time >= DATE_SUB(NOW(), INTERVAL #{days} DAY) " +
             "ORDER BY (view_count * 0.3 + like_count * 0.3 + comment_count * 0.2 + share_count * 0.2) DESC " +
             "LIMIT #{limit}")
+    @Options(timeout = QueryTimeouts.ONLINE_SECONDS)
     List<Video> selectHotVideos(@Param("days") int days, @Param("limit") int limit);
 
     /**
@@ -50,8 +54,31 @@ public interface VideoMapper extends BaseMapper<Video> {
             "ORDER BY quality_score DESC, publish_time DESC " +
             "LIMIT #{limit}" +
             "</script>")
+    @Options(timeout = QueryTimeouts.ONLINE_SECONDS)
     List<Video> selectByTags(@Param("tags") Set<String> tags, @Param("limit") int limit);
 
+    /**
+     * 查询未查看的视频
+     * 
+     * @param excludeIds 排除的ID列表
+     * @param limit 限制数量
+     * @return 视频列表
+     */
+    @Select("<script>" +
+            "SELECT * FROM video " +
+            "WHERE status = 1 AND is_deleted = 0 " +
+            "<if test='excludeIds != null and excludeIds.size() > 0'>" +
+            "AND id NOT IN " +
+            "<foreach collection='excludeIds' item='id' open='(' separator=',' close=')'>" +
+            "#{id}" +
+            "</foreach>" +
+            "</if>" +
+            "ORDER BY quality_score DESC, publish_time DESC " +
+            "LIMIT #{limit}" +
+            "</script>")
+    @Options(timeout = QueryTimeouts.ONLINE_SECONDS)
+    List<Video> selectNotInIds(@Param("excludeIds") List<Long> excludeIds, @Param("limit") int limit);
+
     /**
      * 根据分类查询视频
      * 
@@ -64,6 +91,7 @@ public interface VideoMapper extends BaseMapper<Video> {
             "AND category_id = #{categoryId} " +
             "ORDER BY quality_score DESC, publish_time DESC " +
             "LIMIT #{limit}")
+    @Options(timeout = QueryTimeouts.ONLINE_SECONDS)
     List<Video> selectByCategory(@Param("categoryId") Long categoryId, @Param("limit") int limit);
 
     /**
@@ -79,4 +107,75 @@ public interface VideoMapper extends BaseMapper<Video> {
             "ORDER BY publish_time DESC " +
             "LIMIT #{limit}")
     List<Video> selectByUploader(@Param("uploaderId") Long uploaderId, @Param("limit") int limit);
+
+    /**
+     * 按ID游标分页查询已生成视频向量的视频
+     * 
+     * @param lastId 上一页最后一个ID
+     * @param limit 限制数量
+     * @return 视频列表（仅包含id、视觉特征向量）
+     */
+    @Select("SELECT id, visual_features FROM video " +
+            "WHERE status = 1 AND is_deleted = 0 " +
+            "AND visual_features IS NOT NULL " +
+            "AND id > #{lastId} " +
+            "ORDER BY id ASC " +
+            "LIMIT #{limit}")
+    List<Video> selectVisualFeaturePage(@Param("lastId") Long lastId, @Param("limit") int limit);
+
+    /**
+     * 按ID游标分页查询有关键帧特征但尚未生成视频向量的视频
+     * 
+     * @param lastId 上一页最后一个ID
+     * @param limit 限制数量
+     * @return 视频列表（仅包含id、关键帧特征）
+     */
+    @Select("SELECT id, keyframe_features FROM video " +
+            "WHERE is_deleted = 0 " +
+            "AND keyframe_features IS NOT NULL " +
+            "AND visual_features IS NULL " +
+            "AND id > #{lastId} " +
+            "ORDER BY id ASC " +
+            "LIMIT #{limit}")
+    List<Video> selectKeyframePageWithoutVector(@Param("lastId") Long lastId, @Param("limit") int limit);
+
+    /**
+     * 更新视频向量
+     * 
+     * @param id 视频ID
+     * @param visualFeatures 编码后的视频向量
+     * @return 影响行数
+     */
+    @Update("UPDATE video SET visual_features = #{visualFeatures} WHERE id = #{id}")
+    int updateVisualFeatures(@Param("id") Long id, @Param("visualFeatures") String visualFeatures);
+
+    /**
+     * 按ID游标分页查询已发布视频的标签
+     * 
+     * @param lastId 上一页最后一个ID
+     * @param limit 限制数量
+     * @return 视频列表（仅包含id、标签）
+     */
+    @Select("SELECT id, tags FROM video " +
+            "WHERE status = 1 AND is_deleted = 0 " +
+            "AND id > #{lastId} " +
+            "ORDER BY id ASC " +
+            "LIMIT #{limit}")
+    List<Video> selectTagPage(@Param("lastId") Long lastId, @Param("limit") int limit);
+
+    /**
+     * 批量查询视频卡片字段（不含正文等大字段）
+     * 
+     * @param ids 视频ID列表
+     * @return 视频列表（仅包含卡片字段）
+     */
+    @Select("<script>" +
+            "SELECT id, title, cover_url, duration, category_id, tags, uploader_id, publish_time, view_count, like_count, quality_score FROM video " +
+            "WHERE is_deleted = 0 AND id IN " +
+            "<foreach collection='ids' item='id' open='(' separator=',' close=')'>" +
+            "#{id}" +
+            "</foreach>" +
+            "</script>")
+    @Options(timeout = QueryTimeouts.ONLINE_SECONDS)
+    List<Video> selectCardsByIds(@Param("ids") Collection<Long> ids);
 }
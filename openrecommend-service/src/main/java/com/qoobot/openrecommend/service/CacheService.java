@@ -3,6 +3,8 @@ package com.qoobot.openrecommend.service;
 import com.qoobot.openrecommend.api.dto.RecommendResponse;
 import com.qoobot.openrecommend.entity.UserProfile;
 
+import java.util.Collection;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -37,6 +39,22 @@ public interface CacheService {
      */
     void deleteUserProfile(Long userId);
 
+    /**
+     * 批量获取用户画像缓存（MGET，按批次大小分片）
+     * 
+     * @param userIds 用户ID列表
+     * @return 命中的用户画像，未命中的用户不在结果中
+     */
+    Map<Long, UserProfile> getUserProfiles(Collection<Long> userIds);
+
+    /**
+     * 批量设置用户画像缓存（流水线 SET EX，按批次大小分片）
+     * 
+     * @param profiles 用户ID到用户画像
+     * @param ttl 过期时间（秒）
+     */
+    void setUserProfiles(Map<Long, UserProfile> profiles, long ttl);
+
     /**
      * 获取推荐结果缓存
      * 
@@ -61,12 +79,44 @@ public interface CacheService {
                       RecommendResponse response, long ttl, TimeUnit timeUnit);
 
     /**
-     * 删除推荐结果缓存
+     * 构建推荐结果缓存Key（同时用作请求合并与分布式锁的Key），Key中包含用户的推荐结果版本号
+     * 
+     * @param userId 用户ID
+     * @param contentType 内容类型
+     * @param recommendType 推荐类型
+     * @return 缓存Key
+     */
+    String buildRecommendKey(Long userId, String contentType, String recommendType);
+
+    /**
+     * 删除推荐结果缓存（递增用户的推荐结果版本号，旧条目由TTL过期）
      * 
      * @param userId 用户ID
      */
     void deleteRecommend(Long userId);
 
+    /**
+     * 批量获取推荐结果缓存（MGET，按批次大小分片）
+     * 
+     * @param userIds 用户ID列表
+     * @param contentType 内容类型
+     * @param recommendType 推荐类型
+     * @return 命中的推荐结果，未命中的用户不在结果中
+     */
+    Map<Long, RecommendResponse> getRecommends(Collection<Long> userIds, String contentType, String recommendType);
+
+    /**
+     * 批量设置推荐结果缓存（流水线 SET EX，按批次大小分片）
+     * 
+     * @param responses 用户ID到推荐结果
+     * @param contentType 内容类型
+     * @param recommendType 推荐类型
+     * @param ttl 过期时间
+     * @param timeUnit 时间单位
+     */
+    void setRecommends(Map<Long, RecommendResponse> responses, String contentType, String recommendType,
+                       long ttl, TimeUnit timeUnit);
+
     /**
      * 获取热门内容缓存
      * 
@@ -105,8 +155,175 @@ public interface CacheService {
      */
     void setContentFeature(String contentType, Long contentId, String feature, long ttl);
 
+    /**
+     * 批量获取内容特征缓存（MGET，按批次大小分片）
+     * 
+     * @param contentType 内容类型
+     * @param contentIds 内容ID列表
+     * @return 命中的特征JSON，未命中的内容不在结果中
+     */
+    Map<Long, String> getContentFeatures(String contentType, Collection<Long> contentIds);
+
+    /**
+     * 批量设置内容特征缓存（流水线 SET EX，按批次大小分片）
+     * 
+     * @param contentType 内容类型
+     * @param features 内容ID到特征JSON
+     * @param ttl 过期时间（秒）
+     */
+    void setContentFeatures(String contentType, Map<Long, String> features, long ttl);
+
+    /**
+     * 获取相关内容列表缓存
+     * 
+     * @param contentType 内容类型
+     * @param contentId 内容ID
+     * @return 按相关度降序的内容ID（逗号分隔，空字符串表示没有相关内容），未缓存时返回null
+     */
+    String getRelated(String contentType, Long contentId);
+
+    /**
+     * 设置相关内容列表缓存
+     * 
+     * @param contentType 内容类型
+     * @param contentId 内容ID
+     * @param contentIds 按相关度降序的内容ID（逗号分隔）
+     * @param ttl 过期时间（秒）
+     */
+    void setRelated(String contentType, Long contentId, String contentIds, long ttl);
+
+    /**
+     * 批量设置相关内容列表缓存（管道写入）
+     * 
+     * @param contentType 内容类型
+     * @param related 内容ID -> 按相关度降序的内容ID（逗号分隔）
+     * @param ttl 过期时间（秒）
+     */
+    void setRelatedBatch(String contentType, Map<Long, String> related, long ttl);
+
+    /**
+     * 获取离线生成的每日推荐
+     * 
+     * @param date 生成日期（yyyyMMdd）
+     * @param userId 用户ID
+     * @return 按推荐顺序的 "内容类型:内容ID"（逗号分隔），未生成时返回null
+     */
+    String getDigestFeed(String date, Long userId);
+
+    /**
+     * 批量设置离线生成的每日推荐（管道写入）
+     * 
+     * @param date 生成日期（yyyyMMdd）
+     * @param feeds 用户ID -> 按推荐顺序的 "内容类型:内容ID"（逗号分隔）
+     * @param ttl 过期时间（秒）
+     */
+    void setDigestFeedBatch(String date, Map<Long, String> feeds, long ttl);
+
+    /**
+     * 获取离线任务各分区的进度
+     * 
+     * @param job 任务标识
+     * @return 分区 -> 进度
+     */
+    Map<String, String> getJobProgress(String job);
+
+    /**
+     * 保存离线任务某个分区的进度
+     * 
+     * @param job 任务标识
+     * @param partition 分区
+     * @param progress 进度
+     * @param ttl 过期时间（秒）
+     */
+    void saveJobProgress(String job, String partition, String progress, long ttl);
+
+    /**
+     * 构建会话排序列表缓存Key
+     * 
+     * @param userId 用户ID
+     * @param contentType 内容类型
+     * @param sessionId 会话ID
+     * @return 缓存Key
+     */
+    String buildSessionListKey(Long userId, String contentType, String sessionId);
+
+    /**
+     * 追加会话排序列表条目（APPEND）并刷新过期时间
+     * 
+     * @param key 缓存Key
+     * @param entries 打包的条目
+     * @param ttl 过期时间（秒）
+     * @return 追加后的列表字节数，失败时返回-1
+     */
+    long appendSessionList(String key, byte[] entries, long ttl);
+
+    /**
+     * 按字节范围读取会话排序列表（GETRANGE）
+     * 
+     * @param key 缓存Key
+     * @param start 起始字节（含）
+     * @param end 结束字节（含）
+     * @return 读取到的字节，列表不存在或越界时为空数组，失败时返回null
+     */
+    byte[] getSessionListRange(String key, long start, long end);
+
+    /**
+     * 获取会话排序列表的字节数（STRLEN）
+     * 
+     * @param key 缓存Key
+     * @return 列表字节数，列表不存在时为0，失败时返回-1
+     */
+    long getSessionListLength(String key);
+
+    /**
+     * 读取完整的会话排序列表
+     * 
+     * @param key 缓存Key
+     * @return 打包的条目，不存在时返回null
+     */
+    byte[] getSessionList(String key);
+
+    /**
+     * 删除会话排序列表
+     * 
+     * @param key 缓存Key
+     */
+    void deleteSessionList(String key);
+
+    /**
+     * 尝试获取分布式锁（SET NX PX）
+     * 
+     * @param key 锁Key
+     * @param ttlMillis 锁过期时间（毫秒）
+     * @return 锁令牌，获取失败时返回null
+     */
+    String tryLock(String key, long ttlMillis);
+
+    /**
+     * 释放分布式锁，仅当令牌匹配时删除
+     * 
+     * @param key 锁Key
+     * @param token 锁令牌
+     */
+    void unlock(String key, String token);
+
+    /**
+     * 续期分布式锁，仅当令牌匹配时重置过期时间
+     * 
+     * @param key 锁Key
+     * @param token 锁令牌
+     * @param ttlMillis 新的过期时间（毫秒）
+     * @return 是否仍持有锁；锁已过期或被其他节点持有时返回false
+     */
+    boolean renewLock(String key, String token, long ttlMillis);
+
     /**
      * 清除所有缓存
      */
     void clearAll();
+
+    /**
+     * 清理已失效但尚未过期的缓存（如旧版本号的推荐结果）
+     */
+    void clearExpiredCache();
 }
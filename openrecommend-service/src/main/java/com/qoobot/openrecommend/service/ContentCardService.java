@@ -0,0 +1,35 @@
+package com.qoobot.openrecommend.service;
+
+import com.qoobot.openrecommend.api.dto.RecommendItem;
+import com.qoobot.openrecommend.common.enums.ContentType;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * 内容卡片服务接口
+ * 提供构建推荐项所需的内容卡片字段（标题、封面、发布时间、计数、时长等），
+ * 本地缓存命中时无需查询数据库
+ * 
+ * @author OpenRecommend
+ * @since 1.0.0
+ */
+public interface ContentCardService {
+
+    /**
+     * 批量获取内容卡片，缓存未命中的ID一次批量加载
+     * 
+     * @param contentType 内容类型
+     * @param contentIds 内容ID
+     * @return 内容ID -> 卡片（不含得分），不存在或已删除的内容不在结果中；返回的卡片为共享实例，修改前需复制
+     */
+    Map<Long, RecommendItem> getCards(ContentType contentType, Collection<Long> contentIds);
+
+    /**
+     * 使内容卡片缓存失效
+     * 
+     * @param contentType 内容类型
+     * @param contentId 内容ID
+     */
+    void invalidate(ContentType contentType, Long contentId);
+}
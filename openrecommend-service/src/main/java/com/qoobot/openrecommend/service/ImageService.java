@@ -84,6 +84,23 @@ public interface ImageService {
      */
     IPage<Image> search(String keyword, int pageNum, int pageSize);
 
+    /**
+     * 根据图片文件内容计算并保存颜色直方图
+     * 
+     * @param imageId 图片ID
+     * @param content 图片文件字节
+     * @return 是否成功（图片无法解码时返回false）
+     */
+    boolean updateColorHistogram(Long imageId, byte[] content);
+
+    /**
+     * 为尚未计算颜色直方图的图片读取原图并回填直方图
+     * 只读取允许列表中主机的 http(s) 地址，其余图片跳过
+     * 
+     * @return 本次成功回填的图片数量
+     */
+    int backfillColorHistograms();
+
     /**
      * 批量获取图片
      * 
@@ -0,0 +1,43 @@
+package com.qoobot.openrecommend.service;
+
+import com.qoobot.openrecommend.algorithm.ImpressionBloomFilter;
+import com.qoobot.openrecommend.api.dto.RecommendItem;
+
+import java.util.List;
+
+/**
+ * 曝光服务接口
+ * 记录推荐结果中已展示给用户的内容，供召回阶段过滤已曝光内容，并异步批量写入曝光日志表
+ * 
+ * @author OpenRecommend
+ * @since 1.0.0
+ */
+public interface ImpressionService {
+
+    /**
+     * 记录曝光，写入当前周期的布隆过滤器
+     * 
+     * @param userId 用户ID
+     * @param items 已展示的推荐项
+     */
+    void recordImpressions(Long userId, List<RecommendItem> items);
+
+    /**
+     * 提交曝光日志，放入有界队列后立即返回，由后台线程批量写入；队列已满时丢弃
+     * 
+     * @param userId 用户ID
+     * @param recommendType 推荐类型
+     * @param device 设备类型
+     * @param items 已展示的推荐项，顺序即展示位置
+     * @return 是否全部入队
+     */
+    boolean logImpressions(Long userId, String recommendType, String device, List<RecommendItem> items);
+
+    /**
+     * 加载用户最近若干周期的曝光过滤器快照
+     * 
+     * @param userId 用户ID
+     * @return 快照，加载失败时为空快照
+     */
+    ImpressionBloomFilter.Snapshot loadSeenFilter(Long userId);
+}
@@ -1,6 +1,6 @@
 package com.qoobot.openrecommend.service;
 
-import com.qoobot.openrecommend.dto.RecommendItem;
+import com.qoobot.openrecommend.api.dto.RecommendItem;
 
 import java.util.List;
 
@@ -19,6 +19,17 @@ public interface RankingService {
      */
     List<RecommendItem> rank(List<RecommendItem> items, Long userId);
 
+    /**
+     * 批量排序打分
+     * 候选特征一次性抽取为列存数组后统一打分，只为前N名回写分数，不移动列表中的对象
+     *
+     * @param items 待排序的推荐项列表
+     * @param userId 用户ID（用于个性化打分）
+     * @param topN 返回数量
+     * @return 按分数降序排列的前N个候选在 items 中的下标
+     */
+    int[] rankBatch(List<RecommendItem> items, Long userId, int topN);
+
     /**
      * 重排序推荐结果
      * 结合多种因素进行综合排序
@@ -40,6 +51,17 @@ public interface RankingService {
      */
     List<RecommendItem> diversify(List<RecommendItem> items, int diversityLevel);
 
+    /**
+     * 多样性处理（MMR）
+     * 按最大边际相关选出前 size 个推荐项，其余按分数降序追加在后
+     *
+     * @param items 推荐项列表
+     * @param diversityLevel 多样性级别（1-10，越大越多样）
+     * @param size 需要多样化的头部数量
+     * @return 多样性处理后的推荐项列表
+     */
+    List<RecommendItem> diversify(List<RecommendItem> items, int diversityLevel, int size);
+
     /**
      * 混合排序
      * 结合相关性和多样性
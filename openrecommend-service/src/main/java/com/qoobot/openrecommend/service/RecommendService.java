@@ -1,5 +1,7 @@
 package com.qoobot.openrecommend.service;
 
+import com.qoobot.openrecommend.api.dto.BatchRecommendRequest;
+import com.qoobot.openrecommend.api.dto.BatchRecommendResponse;
 import com.qoobot.openrecommend.api.dto.RecommendRequest;
 import com.qoobot.openrecommend.api.dto.RecommendResponse;
 
@@ -19,6 +21,25 @@ public interface RecommendService {
      */
     RecommendResponse recommend(RecommendRequest request);
 
+    /**
+     * 批量综合推荐
+     * 热门列表、内容卡片等共享输入只加载一次，各用户的召回与排序并行执行
+     *
+     * @param request 批量推荐请求
+     * @return 批量推荐响应
+     */
+    BatchRecommendResponse recommendBatch(BatchRecommendRequest request);
+
+    /**
+     * 预热推荐缓存
+     * 在后台计算用户的默认推荐（综合推荐类型、默认推荐数量）并写入推荐缓存，已有缓存时跳过
+     *
+     * @param userId      用户ID
+     * @param contentType 内容类型
+     * @return 是否执行了计算
+     */
+    boolean prewarmRecommend(Long userId, String contentType);
+
     /**
      * 基于内容的推荐
      *
@@ -56,4 +77,24 @@ public interface RecommendService {
      * @return 推荐响应
      */
     RecommendResponse recommendRelated(Long contentId, int limit);
+
+    /**
+     * 指定内容类型的相关推荐
+     * 优先读取离线预计算的相关列表，缺失时在线计算并短期缓存
+     *
+     * @param contentType 内容类型（article/image/video）
+     * @param contentId   内容ID
+     * @param limit       推荐数量
+     * @return 推荐响应
+     */
+    RecommendResponse recommendRelated(String contentType, Long contentId, int limit);
+
+    /**
+     * 视觉相似图片推荐
+     *
+     * @param imageId 图片ID
+     * @param limit   推荐数量
+     * @return 推荐响应
+     */
+    RecommendResponse recommendVisuallySimilar(Long imageId, int limit);
 }
@@ -4,8 +4,10 @@ import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.qoobot.openrecommend.common.enums.BehaviorType;
+import com.qoobot.openrecommend.common.enums.ContentType;
 import com.qoobot.openrecommend.entity.Article;
 import com.qoobot.openrecommend.entity.UserBehavior;
+import com.qoobot.openrecommend.event.ContentChangedEvent;
 import com.qoobot.openrecommend.mapper.ArticleMapper;
 import com.qoobot.openrecommend.service.ArticleService;
 import com.qoobot.openrecommend.service.UserBehaviorService;
@@ -13,6 +15,7 @@ import com.qoobot.openrecommend.service.UserProfileService;
 import jakarta.annotation.Resource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -36,6 +39,9 @@ public class ArticleServiceImpl implements ArticleService {
     @Resource
     private ArticleMapper articleMapper;
 
+    @Resource
+    private ApplicationEventPublisher eventPublisher;
+
     @Resource
     private UserProfileService userProfileService;
 
@@ -82,6 +88,10 @@ public class ArticleServiceImpl implements ArticleService {
         }
 
         int result = articleMapper.updateById(article);
+        if (result > 0) {
+            eventPublisher.publishEvent(new ContentChangedEvent(
+                ContentType.ARTICLE, article.getId(), ContentChangedEvent.Action.UPDATED));
+        }
         return result > 0;
     }
 
@@ -99,6 +109,10 @@ public class ArticleServiceImpl implements ArticleService {
         // 逻辑删除
         article.setIsDeleted(1);
         int result = articleMapper.updateById(article);
+        if (result > 0) {
+            eventPublisher.publishEvent(new ContentChangedEvent(
+                ContentType.ARTICLE, articleId, ContentChangedEvent.Action.DELETED));
+        }
 
         return result > 0;
     }
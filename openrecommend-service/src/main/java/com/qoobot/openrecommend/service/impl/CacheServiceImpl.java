@@ -1,18 +1,51 @@
 package com.qoobot.openrecommend.service.impl;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.qoobot.openrecommend.api.dto.RecommendResponse;
 import com.qoobot.openrecommend.entity.UserProfile;
 import com.qoobot.openrecommend.service.CacheService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
 import jakarta.annotation.Resource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
 
 /**
  * 缓存服务实现
+ * 用户画像、推荐结果、热门内容、内容特征与相关内容采用两级缓存：本节点 Caffeine（L1，按前缀独立设置容量与过期时间）
+ * 与 Redis（L2）。写入与删除在更新 Redis 后通过 pub/sub 广播失效消息，其他节点收到后清除各自的 L1；
+ * 消息丢失（如订阅连接断开）时 L1 的过期时间限制了读到旧值的时长。
+ * 推荐结果Key中嵌入用户的版本号，失效即 INCR 版本号，旧版本的条目由TTL过期或后台 SCAN 清理，不再使用 KEYS。
  * 
  * @author OpenRecommend
  * @since 1.0.0
@@ -25,23 +58,118 @@ public class CacheServiceImpl implements CacheService {
     // 缓存Key前缀
     private static final String USER_PROFILE_PREFIX = "user_profile:";
     private static final String RECOMMEND_PREFIX = "recommend:";
+    private static final String RECOMMEND_VERSION_PREFIX = "recommend_version:";
     private static final String HOT_CONTENT_PREFIX = "hot_content:";
     private static final String CONTENT_FEATURE_PREFIX = "content_feature:";
+    private static final String RELATED_PREFIX = "related:";
+    private static final String SESSION_LIST_PREFIX = "session_list:";
+    private static final String DIGEST_FEED_PREFIX = "digest_feed:";
+    private static final String JOB_PROGRESS_PREFIX = "job_progress:";
+    private static final String LOCK_PREFIX = "lock:";
+
+    /**
+     * L1 失效消息频道，消息体为 "节点ID|Key"，Key 以 * 结尾时表示前缀；批量写入时一条消息携带多个Key，以换行分隔
+     */
+    private static final String INVALIDATION_CHANNEL = "cache:invalidate";
+
+    /**
+     * 令牌匹配时才删除锁，避免误删其他节点在锁过期后获得的锁
+     */
+    private static final DefaultRedisScript<Long> UNLOCK_SCRIPT = new DefaultRedisScript<>(
+        "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+        Long.class);
+
+    /**
+     * 令牌匹配时才重置过期时间，锁已被其他节点获得时不续期
+     */
+    private static final DefaultRedisScript<Long> RENEW_SCRIPT = new DefaultRedisScript<>(
+        "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('pexpire', KEYS[1], ARGV[2]) else return 0 end",
+        Long.class);
 
     // 默认TTL（秒）
     private static final long USER_PROFILE_TTL = 3600;        // 1小时
     private static final long RECOMMEND_RESULT_TTL = 1800;     // 30分钟
     private static final long HOT_CONTENT_TTL = 3600;        // 1小时
     private static final long CONTENT_FEATURE_TTL = 86400;   // 24小时
+    // 版本号每次递增时续期，须远大于推荐结果TTL，保证版本号过期时旧版本条目均已过期
+    private static final long RECOMMEND_VERSION_TTL = 86400;  // 24小时
 
     @Resource
     private RedisTemplate<String, Object> redisTemplate;
 
+    @Resource
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    @Value("${recommend.cache.local.enabled:true}")
+    private boolean localEnabled;
+
+    @Value("${recommend.cache.local.user-profile:maximumSize=10000,expireAfterWrite=60s}")
+    private String userProfileSpec;
+
+    @Value("${recommend.cache.local.recommend:maximumSize=20000,expireAfterWrite=30s}")
+    private String recommendSpec;
+
+    @Value("${recommend.cache.local.hot-content:maximumSize=100,expireAfterWrite=60s}")
+    private String hotContentSpec;
+
+    @Value("${recommend.cache.local.content-feature:maximumSize=50000,expireAfterWrite=300s}")
+    private String contentFeatureSpec;
+
+    @Value("${recommend.cache.local.related:maximumSize=20000,expireAfterWrite=300s}")
+    private String relatedSpec;
+
+    @Value("${recommend.cache.local.recommend-version:maximumSize=100000,expireAfterWrite=60s}")
+    private String recommendVersionSpec;
+
+    @Value("${recommend.cache.scan-count:500}")
+    private int scanCount;
+
+    /**
+     * 批量读写时单条 MGET 或单次流水线的最大Key数
+     */
+    @Value("${recommend.cache.batch-size:500}")
+    private int batchSize;
+
+    /**
+     * 本节点ID，忽略自己发出的失效消息
+     */
+    private final String nodeId = UUID.randomUUID().toString();
+
+    /**
+     * 各缓存前缀对应的两级缓存
+     */
+    private final Map<String, Tier> tiers = new HashMap<>();
+
+    /**
+     * 用户推荐结果版本号的本地缓存，L1 禁用时为null
+     */
+    private Cache<Long, Long> recommendVersions;
+
+    @PostConstruct
+    public void init() {
+        if (!localEnabled) {
+            log.info("本地缓存（L1）已禁用，所有缓存读写直接访问Redis");
+            return;
+        }
+        registerTier(USER_PROFILE_PREFIX, "user_profile", userProfileSpec);
+        registerTier(RECOMMEND_PREFIX, "recommend", recommendSpec);
+        registerTier(HOT_CONTENT_PREFIX, "hot_content", hotContentSpec);
+        registerTier(CONTENT_FEATURE_PREFIX, "content_feature", contentFeatureSpec);
+        registerTier(RELATED_PREFIX, "related", relatedSpec);
+        recommendVersions = Caffeine.from(recommendVersionSpec).<Long, Long>build();
+        redisMessageListenerContainer.addMessageListener((message, pattern) ->
+            onInvalidation(new String(message.getBody(), StandardCharsets.UTF_8)), new ChannelTopic(INVALIDATION_CHANNEL));
+        log.info("两级缓存初始化: nodeId={}, 缓存={}", nodeId, tiers.keySet());
+    }
+
     @Override
     public UserProfile getUserProfile(Long userId) {
         try {
             String key = USER_PROFILE_PREFIX + userId;
-            UserProfile profile = (UserProfile) redisTemplate.opsForValue().get(key);
+            UserProfile profile = (UserProfile) getTiered(USER_PROFILE_PREFIX, key);
             log.debug("获取用户画像缓存: userId={}, hit={}", userId, profile != null);
             return profile;
         } catch (Exception e) {
@@ -55,6 +183,7 @@ public class CacheServiceImpl implements CacheService {
         try {
             String key = USER_PROFILE_PREFIX + userId;
             redisTemplate.opsForValue().set(key, profile, ttl, TimeUnit.SECONDS);
+            putLocal(USER_PROFILE_PREFIX, key, profile);
             log.debug("设置用户画像缓存: userId={}, ttl={}s", userId, ttl);
         } catch (Exception e) {
             log.error("设置用户画像缓存失败: userId={}", userId, e);
@@ -66,17 +195,47 @@ public class CacheServiceImpl implements CacheService {
         try {
             String key = USER_PROFILE_PREFIX + userId;
             redisTemplate.delete(key);
+            evictLocal(USER_PROFILE_PREFIX, key);
             log.debug("删除用户画像缓存: userId={}", userId);
         } catch (Exception e) {
             log.error("删除用户画像缓存失败: userId={}", userId, e);
         }
     }
 
+    @Override
+    public Map<Long, UserProfile> getUserProfiles(Collection<Long> userIds) {
+        Map<String, Long> keys = new LinkedHashMap<>();
+        for (Long userId : userIds) {
+            keys.put(USER_PROFILE_PREFIX + userId, userId);
+        }
+        Map<Long, UserProfile> profiles = new HashMap<>();
+        try {
+            multiGetTiered(USER_PROFILE_PREFIX, keys.keySet())
+                .forEach((key, value) -> profiles.put(keys.get(key), (UserProfile) value));
+            log.debug("批量获取用户画像缓存: size={}, hit={}", keys.size(), profiles.size());
+        } catch (Exception e) {
+            log.error("批量获取用户画像缓存失败: size={}", keys.size(), e);
+        }
+        return profiles;
+    }
+
+    @Override
+    public void setUserProfiles(Map<Long, UserProfile> profiles, long ttl) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        profiles.forEach((userId, profile) -> values.put(USER_PROFILE_PREFIX + userId, profile));
+        try {
+            multiSetTiered(USER_PROFILE_PREFIX, values, ttl, TimeUnit.SECONDS);
+            log.debug("批量设置用户画像缓存: size={}, ttl={}s", values.size(), ttl);
+        } catch (Exception e) {
+            log.error("批量设置用户画像缓存失败: size={}", values.size(), e);
+        }
+    }
+
     @Override
     public RecommendResponse getRecommend(Long userId, String contentType, String recommendType) {
         try {
             String key = buildRecommendKey(userId, contentType, recommendType);
-            RecommendResponse response = (RecommendResponse) redisTemplate.opsForValue().get(key);
+            RecommendResponse response = (RecommendResponse) getTiered(RECOMMEND_PREFIX, key);
             log.debug("获取推荐结果缓存: key={}, hit={}", key, response != null);
             return response;
         } catch (Exception e) {
@@ -92,6 +251,7 @@ public class CacheServiceImpl implements CacheService {
         try {
             String key = buildRecommendKey(userId, contentType, recommendType);
             redisTemplate.opsForValue().set(key, response, ttl, timeUnit);
+            putLocal(RECOMMEND_PREFIX, key, response);
             log.debug("设置推荐结果缓存: key={}, ttl={}{}", key, ttl, timeUnit);
         } catch (Exception e) {
             log.error("设置推荐结果缓存失败: userId={}, contentType={}, recommendType={}", 
@@ -99,13 +259,58 @@ public class CacheServiceImpl implements CacheService {
         }
     }
 
+    @Override
+    public Map<Long, RecommendResponse> getRecommends(Collection<Long> userIds, String contentType,
+                                                     String recommendType) {
+        Map<Long, RecommendResponse> responses = new HashMap<>();
+        try {
+            Map<String, Long> keys = new LinkedHashMap<>();
+            recommendVersions(userIds).forEach((userId, version) ->
+                keys.put(buildRecommendKey(userId, version, contentType, recommendType), userId));
+            multiGetTiered(RECOMMEND_PREFIX, keys.keySet())
+                .forEach((key, value) -> responses.put(keys.get(key), (RecommendResponse) value));
+            log.debug("批量获取推荐结果缓存: size={}, hit={}", keys.size(), responses.size());
+        } catch (Exception e) {
+            log.error("批量获取推荐结果缓存失败: size={}, contentType={}, recommendType={}",
+                userIds.size(), contentType, recommendType, e);
+        }
+        return responses;
+    }
+
+    @Override
+    public void setRecommends(Map<Long, RecommendResponse> responses, String contentType, String recommendType,
+                              long ttl, TimeUnit timeUnit) {
+        try {
+            Map<String, Object> values = new LinkedHashMap<>();
+            recommendVersions(responses.keySet()).forEach((userId, version) -> values.put(
+                buildRecommendKey(userId, version, contentType, recommendType), responses.get(userId)));
+            multiSetTiered(RECOMMEND_PREFIX, values, ttl, timeUnit);
+            log.debug("批量设置推荐结果缓存: size={}, ttl={}{}", values.size(), ttl, timeUnit);
+        } catch (Exception e) {
+            log.error("批量设置推荐结果缓存失败: size={}, contentType={}, recommendType={}",
+                responses.size(), contentType, recommendType, e);
+        }
+    }
+
+    /**
+     * 递增用户的推荐结果版本号，该用户已有的推荐缓存随之不可达，由TTL过期；
+     * L1 中的旧条目Key同样嵌入旧版本号，清除各节点的版本号缓存即可，不必按前缀扫描 L1
+     */
     @Override
     public void deleteRecommend(Long userId) {
         try {
-            // 删除用户的所有推荐缓存
-            String pattern = RECOMMEND_PREFIX + userId + ":*";
-            redisTemplate.delete(redisTemplate.keys(pattern));
-            log.debug("删除用户推荐缓存: userId={}", userId);
+            String versionKey = RECOMMEND_VERSION_PREFIX + userId;
+            byte[] rawKey = versionKey.getBytes(StandardCharsets.UTF_8);
+            Long version = redisTemplate.execute((RedisCallback<Long>) connection -> {
+                Long incremented = connection.stringCommands().incr(rawKey);
+                connection.keyCommands().expire(rawKey, RECOMMEND_VERSION_TTL);
+                return incremented;
+            });
+            if (recommendVersions != null) {
+                recommendVersions.invalidate(userId);
+                publishInvalidation(versionKey);
+            }
+            log.debug("删除用户推荐缓存: userId={}, version={}", userId, version);
         } catch (Exception e) {
             log.error("删除用户推荐缓存失败: userId={}", userId, e);
         }
@@ -115,7 +320,7 @@ public class CacheServiceImpl implements CacheService {
     public String getHotContent(String contentType, String period) {
         try {
             String key = buildHotContentKey(contentType, period);
-            String contentIds = (String) redisTemplate.opsForValue().get(key);
+            String contentIds = (String) getTiered(HOT_CONTENT_PREFIX, key);
             log.debug("获取热门内容缓存: key={}, hit={}", key, contentIds != null);
             return contentIds;
         } catch (Exception e) {
@@ -129,6 +334,7 @@ public class CacheServiceImpl implements CacheService {
         try {
             String key = buildHotContentKey(contentType, period);
             redisTemplate.opsForValue().set(key, contentIds, ttl, TimeUnit.SECONDS);
+            putLocal(HOT_CONTENT_PREFIX, key, contentIds);
             log.debug("设置热门内容缓存: key={}, ttl={}s", key, ttl);
         } catch (Exception e) {
             log.error("设置热门内容缓存失败: contentType={}, period={}", contentType, period, e);
@@ -139,7 +345,7 @@ public class CacheServiceImpl implements CacheService {
     public String getContentFeature(String contentType, Long contentId) {
         try {
             String key = buildContentFeatureKey(contentType, contentId);
-            String feature = (String) redisTemplate.opsForValue().get(key);
+            String feature = (String) getTiered(CONTENT_FEATURE_PREFIX, key);
             log.debug("获取内容特征缓存: key={}, hit={}", key, feature != null);
             return feature;
         } catch (Exception e) {
@@ -153,30 +359,580 @@ public class CacheServiceImpl implements CacheService {
         try {
             String key = buildContentFeatureKey(contentType, contentId);
             redisTemplate.opsForValue().set(key, feature, ttl, TimeUnit.SECONDS);
+            putLocal(CONTENT_FEATURE_PREFIX, key, feature);
             log.debug("设置内容特征缓存: key={}, ttl={}s", key, ttl);
         } catch (Exception e) {
             log.error("设置内容特征缓存失败: contentType={}, contentId={}", contentType, contentId, e);
         }
     }
 
+    @Override
+    public Map<Long, String> getContentFeatures(String contentType, Collection<Long> contentIds) {
+        Map<String, Long> keys = new LinkedHashMap<>();
+        for (Long contentId : contentIds) {
+            keys.put(buildContentFeatureKey(contentType, contentId), contentId);
+        }
+        Map<Long, String> features = new HashMap<>();
+        try {
+            multiGetTiered(CONTENT_FEATURE_PREFIX, keys.keySet())
+                .forEach((key, value) -> features.put(keys.get(key), (String) value));
+            log.debug("批量获取内容特征缓存: contentType={}, size={}, hit={}", contentType, keys.size(), features.size());
+        } catch (Exception e) {
+            log.error("批量获取内容特征缓存失败: contentType={}, size={}", contentType, keys.size(), e);
+        }
+        return features;
+    }
+
+    @Override
+    public void setContentFeatures(String contentType, Map<Long, String> features, long ttl) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        features.forEach((contentId, feature) -> values.put(buildContentFeatureKey(contentType, contentId), feature));
+        try {
+            multiSetTiered(CONTENT_FEATURE_PREFIX, values, ttl, TimeUnit.SECONDS);
+            log.debug("批量设置内容特征缓存: contentType={}, size={}, ttl={}s", contentType, values.size(), ttl);
+        } catch (Exception e) {
+            log.error("批量设置内容特征缓存失败: contentType={}, size={}", contentType, values.size(), e);
+        }
+    }
+
+    @Override
+    public String getRelated(String contentType, Long contentId) {
+        try {
+            String key = buildRelatedKey(contentType, contentId);
+            String contentIds = (String) getTiered(RELATED_PREFIX, key);
+            log.debug("获取相关内容缓存: key={}, hit={}", key, contentIds != null);
+            return contentIds;
+        } catch (Exception e) {
+            log.error("获取相关内容缓存失败: contentType={}, contentId={}", contentType, contentId, e);
+            return null;
+        }
+    }
+
+    @Override
+    public void setRelated(String contentType, Long contentId, String contentIds, long ttl) {
+        try {
+            String key = buildRelatedKey(contentType, contentId);
+            redisTemplate.opsForValue().set(key, contentIds, ttl, TimeUnit.SECONDS);
+            putLocal(RELATED_PREFIX, key, contentIds);
+            log.debug("设置相关内容缓存: key={}, ttl={}s", key, ttl);
+        } catch (Exception e) {
+            log.error("设置相关内容缓存失败: contentType={}, contentId={}", contentType, contentId, e);
+        }
+    }
+
+    @Override
+    public void setRelatedBatch(String contentType, Map<Long, String> related, long ttl) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        related.forEach((contentId, contentIds) -> values.put(buildRelatedKey(contentType, contentId), contentIds));
+        try {
+            // 与其他批量写入相同：每个分片在流水线内广播一条携带该片全部key的失效消息
+            multiSetTiered(RELATED_PREFIX, values, ttl, TimeUnit.SECONDS);
+            log.debug("批量设置相关内容缓存: contentType={}, size={}, ttl={}s", contentType, values.size(), ttl);
+        } catch (Exception e) {
+            log.error("批量设置相关内容缓存失败: contentType={}, size={}", contentType, values.size(), e);
+        }
+    }
+
+    @Override
+    public String getDigestFeed(String date, Long userId) {
+        try {
+            String key = buildDigestFeedKey(date, userId);
+            String contentIds = (String) redisTemplate.opsForValue().get(key);
+            log.debug("获取每日推荐缓存: key={}, hit={}", key, contentIds != null);
+            return contentIds;
+        } catch (Exception e) {
+            log.error("获取每日推荐缓存失败: date={}, userId={}", date, userId, e);
+            return null;
+        }
+    }
+
+    @Override
+    public void setDigestFeedBatch(String date, Map<Long, String> feeds, long ttl) {
+        if (feeds.isEmpty()) {
+            return;
+        }
+        try {
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public Object execute(RedisOperations operations) {
+                    feeds.forEach((userId, contentIds) -> operations.opsForValue().set(
+                        buildDigestFeedKey(date, userId), contentIds, ttl, TimeUnit.SECONDS));
+                    return null;
+                }
+            });
+            log.debug("批量设置每日推荐缓存: date={}, size={}, ttl={}s", date, feeds.size(), ttl);
+        } catch (Exception e) {
+            log.error("批量设置每日推荐缓存失败: date={}, size={}", date, feeds.size(), e);
+        }
+    }
+
+    @Override
+    public Map<String, String> getJobProgress(String job) {
+        Map<String, String> progress = new HashMap<>();
+        try {
+            redisTemplate.opsForHash().entries(JOB_PROGRESS_PREFIX + job)
+                .forEach((partition, value) -> progress.put(String.valueOf(partition), String.valueOf(value)));
+        } catch (Exception e) {
+            log.error("获取任务进度失败: job={}", job, e);
+        }
+        return progress;
+    }
+
+    @Override
+    public void saveJobProgress(String job, String partition, String progress, long ttl) {
+        try {
+            String key = JOB_PROGRESS_PREFIX + job;
+            redisTemplate.opsForHash().put(key, partition, progress);
+            redisTemplate.expire(key, ttl, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            log.error("保存任务进度失败: job={}, partition={}", job, partition, e);
+        }
+    }
+
+    @Override
+    public String buildSessionListKey(Long userId, String contentType, String sessionId) {
+        return String.format("%s%d:%s:%s", SESSION_LIST_PREFIX, userId, contentType, sessionId);
+    }
+
+    /**
+     * 会话排序列表是打包的二进制条目，绕过值序列化器直接读写
+     */
+    @Override
+    public long appendSessionList(String key, byte[] entries, long ttl) {
+        try {
+            byte[] rawKey = key.getBytes(StandardCharsets.UTF_8);
+            Long length = redisTemplate.execute((RedisCallback<Long>) connection -> {
+                Long appended = connection.stringCommands().append(rawKey, entries);
+                connection.keyCommands().expire(rawKey, ttl);
+                return appended;
+            });
+            log.debug("追加会话排序列表: key={}, bytes={}, total={}", key, entries.length, length);
+            return length != null ? length : -1;
+        } catch (Exception e) {
+            log.error("追加会话排序列表失败: key={}", key, e);
+            return -1;
+        }
+    }
+
+    @Override
+    public byte[] getSessionListRange(String key, long start, long end) {
+        try {
+            byte[] rawKey = key.getBytes(StandardCharsets.UTF_8);
+            byte[] range = redisTemplate.execute((RedisCallback<byte[]>) connection ->
+                connection.stringCommands().getRange(rawKey, start, end));
+            return range != null ? range : new byte[0];
+        } catch (Exception e) {
+            log.error("读取会话排序列表失败: key={}, start={}, end={}", key, start, end, e);
+            return null;
+        }
+    }
+
+    @Override
+    public long getSessionListLength(String key) {
+        try {
+            byte[] rawKey = key.getBytes(StandardCharsets.UTF_8);
+            Long length = redisTemplate.execute((RedisCallback<Long>) connection ->
+                connection.stringCommands().strLen(rawKey));
+            return length != null ? length : 0;
+        } catch (Exception e) {
+            log.error("读取会话排序列表长度失败: key={}", key, e);
+            return -1;
+        }
+    }
+
+    @Override
+    public byte[] getSessionList(String key) {
+        try {
+            byte[] rawKey = key.getBytes(StandardCharsets.UTF_8);
+            return redisTemplate.execute((RedisCallback<byte[]>) connection ->
+                connection.stringCommands().get(rawKey));
+        } catch (Exception e) {
+            log.error("读取会话排序列表失败: key={}", key, e);
+            return null;
+        }
+    }
+
+    @Override
+    public void deleteSessionList(String key) {
+        try {
+            redisTemplate.delete(key);
+            log.debug("删除会话排序列表: key={}", key);
+        } catch (Exception e) {
+            log.error("删除会话排序列表失败: key={}", key, e);
+        }
+    }
+
+    @Override
+    public String tryLock(String key, long ttlMillis) {
+        try {
+            String token = UUID.randomUUID().toString();
+            Boolean acquired = redisTemplate.opsForValue()
+                .setIfAbsent(LOCK_PREFIX + key, token, Duration.ofMillis(ttlMillis));
+            log.debug("获取分布式锁: key={}, acquired={}", key, acquired);
+            return Boolean.TRUE.equals(acquired) ? token : null;
+        } catch (Exception e) {
+            log.error("获取分布式锁失败: key={}", key, e);
+            return null;
+        }
+    }
+
+    @Override
+    public void unlock(String key, String token) {
+        try {
+            redisTemplate.execute(UNLOCK_SCRIPT, List.of(LOCK_PREFIX + key), token);
+            log.debug("释放分布式锁: key={}", key);
+        } catch (Exception e) {
+            log.error("释放分布式锁失败: key={}", key, e);
+        }
+    }
+
+    @Override
+    public boolean renewLock(String key, String token, long ttlMillis) {
+        try {
+            Long renewed = redisTemplate.execute(RENEW_SCRIPT, List.of(LOCK_PREFIX + key), token, ttlMillis);
+            log.debug("续期分布式锁: key={}, renewed={}", key, renewed);
+            return renewed != null && renewed == 1L;
+        } catch (Exception e) {
+            log.error("续期分布式锁失败: key={}", key, e);
+            return false;
+        }
+    }
+
+    /**
+     * 以增量 SCAN 分批 UNLINK，不阻塞 Redis
+     */
     @Override
     public void clearAll() {
         try {
-            // 清除所有相关缓存
-            redisTemplate.delete(redisTemplate.keys(USER_PROFILE_PREFIX + "*"));
-            redisTemplate.delete(redisTemplate.keys(RECOMMEND_PREFIX + "*"));
-            redisTemplate.delete(redisTemplate.keys(HOT_CONTENT_PREFIX + "*"));
-            log.warn("已清除所有缓存");
+            long deleted = scanAndUnlink(USER_PROFILE_PREFIX + "*", key -> true)
+                + scanAndUnlink(RECOMMEND_PREFIX + "*", key -> true)
+                + scanAndUnlink(HOT_CONTENT_PREFIX + "*", key -> true);
+            evictLocal(USER_PROFILE_PREFIX, USER_PROFILE_PREFIX + "*");
+            evictLocal(RECOMMEND_PREFIX, RECOMMEND_PREFIX + "*");
+            evictLocal(HOT_CONTENT_PREFIX, HOT_CONTENT_PREFIX + "*");
+            log.warn("已清除所有缓存: 删除Key数={}", deleted);
         } catch (Exception e) {
             log.error("清除缓存失败", e);
         }
     }
 
     /**
-     * 构建推荐缓存Key
+     * 清理版本号已过时（或旧格式）的推荐缓存，提前释放内存；不清理也会由TTL过期
+     */
+    @Override
+    public void clearExpiredCache() {
+        try {
+            long deleted = scanAndUnlink(RECOMMEND_PREFIX + "*", this::isStaleRecommendKey);
+            log.info("清理过时推荐缓存完成: 删除Key数={}", deleted);
+        } catch (Exception e) {
+            log.error("清理过时推荐缓存失败", e);
+        }
+    }
+
+    /**
+     * 推荐Key格式为 recommend:{userId}:{version}:{contentType}:{recommendType}，版本号小于当前版本或为不带版本号的旧格式即为过时；
+     * 第二段不是用户ID的Key（如 recommend:hot:*）不属于推荐结果，不做处理
+     */
+    private boolean isStaleRecommendKey(String key) {
+        String[] parts = key.split(":", 5);
+        long userId;
+        try {
+            userId = Long.parseLong(parts[1]);
+        } catch (RuntimeException e) {
+            return false;
+        }
+        if (parts.length != 5) {
+            return true;
+        }
+        try {
+            return Long.parseLong(parts[2]) < recommendVersion(userId);
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    /**
+     * 增量 SCAN 匹配的Key，满足条件的按 scan-count 分批 UNLINK
+     *
+     * @return 删除的Key数
+     */
+    private long scanAndUnlink(String pattern, Predicate<String> stale) {
+        long deleted = 0;
+        List<String> batch = new ArrayList<>(scanCount);
+        ScanOptions options = ScanOptions.scanOptions().match(pattern).count(scanCount).build();
+        try (Cursor<String> cursor = redisTemplate.scan(options)) {
+            while (cursor.hasNext()) {
+                String key = cursor.next();
+                if (stale.test(key)) {
+                    batch.add(key);
+                }
+                if (batch.size() >= scanCount) {
+                    deleted += unlink(batch);
+                }
+            }
+        }
+        return deleted + unlink(batch);
+    }
+
+    private long unlink(List<String> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        Long unlinked = redisTemplate.unlink(batch);
+        batch.clear();
+        return unlinked != null ? unlinked : 0;
+    }
+
+    /**
+     * 用户推荐结果的当前版本号，从未失效过的用户为0
+     */
+    private long recommendVersion(Long userId) {
+        if (recommendVersions != null) {
+            return recommendVersions.get(userId, this::loadRecommendVersion);
+        }
+        return loadRecommendVersion(userId);
+    }
+
+    /**
+     * 批量获取用户推荐结果的当前版本号，本地未缓存的用户以 MGET 读取
+     */
+    private Map<Long, Long> recommendVersions(Collection<Long> userIds) {
+        if (recommendVersions != null) {
+            return recommendVersions.getAll(userIds, this::loadRecommendVersions);
+        }
+        return loadRecommendVersions(Set.copyOf(userIds));
+    }
+
+    private Map<Long, Long> loadRecommendVersions(Set<? extends Long> userIds) {
+        Map<Long, Long> versions = new LinkedHashMap<>();
+        List<Long> pending = new ArrayList<>(userIds);
+        for (int from = 0; from < pending.size(); from += batchSize) {
+            List<Long> chunk = pending.subList(from, Math.min(from + batchSize, pending.size()));
+            byte[][] rawKeys = new byte[chunk.size()][];
+            for (int i = 0; i < chunk.size(); i++) {
+                rawKeys[i] = (RECOMMEND_VERSION_PREFIX + chunk.get(i)).getBytes(StandardCharsets.UTF_8);
+            }
+            List<byte[]> values = redisTemplate.execute((RedisCallback<List<byte[]>>) connection ->
+                connection.stringCommands().mGet(rawKeys));
+            for (int i = 0; i < chunk.size(); i++) {
+                byte[] value = values != null ? values.get(i) : null;
+                versions.put(chunk.get(i), value != null ? Long.parseLong(new String(value, StandardCharsets.UTF_8)) : 0L);
+            }
+        }
+        return versions;
+    }
+
+    private long loadRecommendVersion(Long userId) {
+        byte[] rawKey = (RECOMMEND_VERSION_PREFIX + userId).getBytes(StandardCharsets.UTF_8);
+        byte[] value = redisTemplate.execute((RedisCallback<byte[]>) connection ->
+            connection.stringCommands().get(rawKey));
+        return value != null ? Long.parseLong(new String(value, StandardCharsets.UTF_8)) : 0L;
+    }
+
+    // ========== 两级缓存 ==========
+
+    /**
+     * 先读 L1，未命中时读 Redis 并回填 L1；两级的命中与未命中分别计数
+     */
+    private Object getTiered(String prefix, String key) {
+        Tier tier = tiers.get(prefix);
+        if (tier == null) {
+            return redisTemplate.opsForValue().get(key);
+        }
+        Object value = tier.local().getIfPresent(key);
+        if (value != null) {
+            tier.l1Hit().increment();
+            return value;
+        }
+        tier.l1Miss().increment();
+        value = redisTemplate.opsForValue().get(key);
+        if (value != null) {
+            tier.l2Hit().increment();
+            tier.local().put(key, value);
+        } else {
+            tier.l2Miss().increment();
+        }
+        return value;
+    }
+
+    /**
+     * 批量读取：先读 L1，其余按 batch-size 分片 MGET 并回填 L1
+     *
+     * @return 命中的Key到值
+     */
+    private Map<String, Object> multiGetTiered(String prefix, Collection<String> keys) {
+        Tier tier = tiers.get(prefix);
+        Map<String, Object> values = new HashMap<>();
+        List<String> missing = new ArrayList<>(keys);
+        if (tier != null) {
+            values.putAll(tier.local().getAllPresent(keys));
+            tier.l1Hit().increment(values.size());
+            tier.l1Miss().increment(keys.size() - values.size());
+            missing.removeIf(values::containsKey);
+        }
+        for (int from = 0; from < missing.size(); from += batchSize) {
+            List<String> chunk = missing.subList(from, Math.min(from + batchSize, missing.size()));
+            List<Object> loaded = redisTemplate.opsForValue().multiGet(chunk);
+            if (loaded == null) {
+                continue;
+            }
+            int hits = 0;
+            for (int i = 0; i < chunk.size(); i++) {
+                Object value = loaded.get(i);
+                if (value != null) {
+                    values.put(chunk.get(i), value);
+                    hits++;
+                    if (tier != null) {
+                        tier.local().put(chunk.get(i), value);
+                    }
+                }
+            }
+            if (tier != null) {
+                tier.l2Hit().increment(hits);
+                tier.l2Miss().increment(chunk.size() - hits);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * 批量写入：按 batch-size 分片，每片一个流水线执行 SET EX，启用 L1 时同一流水线内为整片广播一条失效消息
+     */
+    @SuppressWarnings("unchecked")
+    private void multiSetTiered(String prefix, Map<String, Object> values, long ttl, TimeUnit timeUnit) {
+        if (values.isEmpty()) {
+            return;
+        }
+        Tier tier = tiers.get(prefix);
+        RedisSerializer<Object> serializer = (RedisSerializer<Object>) redisTemplate.getValueSerializer();
+        Expiration expiration = Expiration.from(ttl, timeUnit);
+        byte[] channel = INVALIDATION_CHANNEL.getBytes(StandardCharsets.UTF_8);
+        List<Map.Entry<String, Object>> entries = new ArrayList<>(values.entrySet());
+        for (int from = 0; from < entries.size(); from += batchSize) {
+            List<Map.Entry<String, Object>> chunk = entries.subList(from, Math.min(from + batchSize, entries.size()));
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringBuilder message = tier != null ? new StringBuilder(nodeId).append('|') : null;
+                for (Map.Entry<String, Object> entry : chunk) {
+                    connection.stringCommands().set(entry.getKey().getBytes(StandardCharsets.UTF_8),
+                        serializer.serialize(entry.getValue()), expiration, RedisStringCommands.SetOption.upsert());
+                    if (message != null) {
+                        message.append(entry.getKey()).append('\n');
+                    }
+                }
+                if (message != null) {
+                    message.setLength(message.length() - 1);
+                    connection.publish(channel, message.toString().getBytes(StandardCharsets.UTF_8));
+                }
+                return null;
+            });
+        }
+        if (tier != null) {
+            tier.local().putAll(values);
+        }
+    }
+
+    /**
+     * Redis 写入成功后更新本节点 L1，并通知其他节点清除旧值
+     */
+    private void putLocal(String prefix, String key, Object value) {
+        Tier tier = tiers.get(prefix);
+        if (tier != null) {
+            tier.local().put(key, value);
+            publishInvalidation(key);
+        }
+    }
+
+    /**
+     * 清除本节点 L1 并通知其他节点，key 以 * 结尾时按前缀清除
+     */
+    private void evictLocal(String prefix, String key) {
+        Tier tier = tiers.get(prefix);
+        if (tier != null) {
+            invalidateLocal(tier, key);
+            publishInvalidation(key);
+        }
+    }
+
+    private void publishInvalidation(String key) {
+        try {
+            byte[] channel = INVALIDATION_CHANNEL.getBytes(StandardCharsets.UTF_8);
+            byte[] message = (nodeId + "|" + key).getBytes(StandardCharsets.UTF_8);
+            redisTemplate.execute((RedisCallback<Long>) connection -> connection.publish(channel, message));
+        } catch (Exception e) {
+            log.warn("广播缓存失效消息失败: key={}", key, e);
+        }
+    }
+
+    /**
+     * 处理其他节点的失效消息
+     */
+    private void onInvalidation(String message) {
+        int separator = message.indexOf('|');
+        if (separator < 0 || message.substring(0, separator).equals(nodeId)) {
+            return;
+        }
+        for (String key : message.substring(separator + 1).split("\n")) {
+            invalidateKey(key);
+        }
+    }
+
+    private void invalidateKey(String key) {
+        if (key.startsWith(RECOMMEND_VERSION_PREFIX)) {
+            recommendVersions.invalidate(Long.parseLong(key.substring(RECOMMEND_VERSION_PREFIX.length())));
+            return;
+        }
+        for (Map.Entry<String, Tier> entry : tiers.entrySet()) {
+            if (key.startsWith(entry.getKey())) {
+                invalidateLocal(entry.getValue(), key);
+                log.debug("收到缓存失效消息: key={}", key);
+                return;
+            }
+        }
+    }
+
+    private void invalidateLocal(Tier tier, String key) {
+        if (key.endsWith("*")) {
+            String keyPrefix = key.substring(0, key.length() - 1);
+            tier.local().asMap().keySet().removeIf(k -> k.startsWith(keyPrefix));
+        } else {
+            tier.local().invalidate(key);
+        }
+    }
+
+    private void registerTier(String prefix, String name, String spec) {
+        Cache<String, Object> local = Caffeine.from(spec).recordStats().<String, Object>build();
+        CaffeineCacheMetrics.monitor(meterRegistry, local, "cache_l1", "cache", name);
+        tiers.put(prefix, new Tier(local,
+            lookupCounter(name, "l1", "hit"), lookupCounter(name, "l1", "miss"),
+            lookupCounter(name, "l2", "hit"), lookupCounter(name, "l2", "miss")));
+    }
+
+    private Counter lookupCounter(String cache, String level, String result) {
+        return Counter.builder("recommend.cache.lookup")
+            .description("两级缓存查找次数")
+            .tag("cache", cache)
+            .tag("level", level)
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+
+    /**
+     * 某一缓存前缀的 L1 与各级命中计数
+     */
+    private record Tier(Cache<String, Object> local, Counter l1Hit, Counter l1Miss, Counter l2Hit, Counter l2Miss) {
+    }
+
+    /**
+     * 构建推荐缓存Key，嵌入用户当前的推荐结果版本号
      */
-    private String buildRecommendKey(Long userId, String contentType, String recommendType) {
-        return String.format("%s%d:%s:%s", RECOMMEND_PREFIX, userId, contentType, recommendType);
+    @Override
+    public String buildRecommendKey(Long userId, String contentType, String recommendType) {
+        return buildRecommendKey(userId, recommendVersion(userId), contentType, recommendType);
+    }
+
+    private String buildRecommendKey(Long userId, long version, String contentType, String recommendType) {
+        return String.format("%s%d:%d:%s:%s", RECOMMEND_PREFIX, userId, version, contentType, recommendType);
     }
 
     /**
@@ -187,33 +943,33 @@ public class CacheServiceImpl implements CacheService {
     }
 
     /**
-     * 构建内容特征缓存Key
+     * 构建相关内容缓存Key
      */
-    private String buildContentFeatureKey(String contentType, Long contentId) {
-        return String.format("%s%s:%d", CONTENT_FEATURE_PREFIX, contentType, contentId);
+    private String buildRelatedKey(String contentType, Long contentId) {
+        return String.format("%s%s:%d", RELATED_PREFIX, contentType, contentId);
     }
 
-    // ========== 便捷方法 ==========
-
     /**
-     * 获取用户画像（使用默认TTL）
+     * 构建每日推荐缓存Key
      */
-    public UserProfile getUserProfile(Long userId) {
-        return getUserProfile(userId);
+    private String buildDigestFeedKey(String date, Long userId) {
+        return String.format("%s%s:%d", DIGEST_FEED_PREFIX, date, userId);
     }
 
     /**
-     * 设置用户画像（使用默认TTL）
+     * 构建内容特征缓存Key
      */
-    public void setUserProfile(Long userId, UserProfile profile) {
-        setUserProfile(userId, profile, USER_PROFILE_TTL);
+    private String buildContentFeatureKey(String contentType, Long contentId) {
+        return String.format("%s%s:%d", CONTENT_FEATURE_PREFIX, contentType, contentId);
     }
 
+    // ========== 便捷方法 ==========
+
     /**
-     * 获取推荐结果（使用默认TTL）
+     * 设置用户画像（使用默认TTL）
      */
-    public RecommendResponse getRecommend(Long userId, String contentType, String recommendType) {
-        return getRecommend(userId, contentType, recommendType);
+    public void setUserProfile(Long userId, UserProfile profile) {
+        setUserProfile(userId, profile, USER_PROFILE_TTL);
     }
 
     /**
@@ -224,13 +980,6 @@ public class CacheServiceImpl implements CacheService {
         setRecommend(userId, contentType, recommendType, response, RECOMMEND_RESULT_TTL, TimeUnit.SECONDS);
     }
 
-    /**
-     * 获取热门内容（使用默认TTL）
-     */
-    public String getHotContent(String contentType, String period) {
-        return getHotContent(contentType, period);
-    }
-
     /**
      * 设置热门内容（使用默认TTL）
      */
@@ -238,13 +987,6 @@ public class CacheServiceImpl implements CacheService {
         setHotContent(contentType, period, contentIds, HOT_CONTENT_TTL);
     }
 
-    /**
-     * 获取内容特征（使用默认TTL）
-     */
-    public String getContentFeature(String contentType, Long contentId) {
-        return getContentFeature(contentType, contentId);
-    }
-
     /**
      * 设置内容特征（使用默认TTL）
      */
@@ -0,0 +1,315 @@
+package com.qoobot.openrecommend.service.impl;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.qoobot.openrecommend.api.dto.RecommendItem;
+import com.qoobot.openrecommend.common.concurrent.Bulkhead;
+import com.qoobot.openrecommend.common.enums.ContentType;
+import com.qoobot.openrecommend.degrade.DegradationController;
+import com.qoobot.openrecommend.entity.Article;
+import com.qoobot.openrecommend.entity.Image;
+import com.qoobot.openrecommend.entity.Video;
+import com.qoobot.openrecommend.event.ContentChangedEvent;
+import com.qoobot.openrecommend.mapper.ArticleMapper;
+import com.qoobot.openrecommend.mapper.ImageMapper;
+import com.qoobot.openrecommend.mapper.VideoMapper;
+import com.qoobot.openrecommend.service.ContentCardService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+
+/**
+ * 内容卡片服务实现
+ * 每个内容类型一个 Caffeine 缓存，只保存卡片字段；未命中的ID按 load-size 分批以列裁剪的查询加载，
+ * 每批查询在MySQL舱壁内执行并记录耗时供降级控制器评估负载，命中缓存的读取不占用舱壁。
+ * 内容更新、删除事件在事务提交后使对应卡片失效，并通过 pub/sub 广播给其他节点清除各自的缓存；
+ * 消息丢失时由写入后过期时间限制读到旧卡片的时长，计数类字段同样由写入后过期时间控制新鲜度。
+ * 
+ * @author OpenRecommend
+ * @since 1.0.0
+ */
+@Service
+public class ContentCardServiceImpl implements ContentCardService {
+
+    private static final Logger log = LoggerFactory.getLogger(ContentCardServiceImpl.class);
+
+    /**
+     * 卡片失效消息频道，消息体为 "节点ID|内容类型|内容ID"
+     */
+    private static final String INVALIDATION_CHANNEL = "content_card:invalidate";
+
+    @Resource
+    private ArticleMapper articleMapper;
+
+    @Resource
+    private ImageMapper imageMapper;
+
+    @Resource
+    private VideoMapper videoMapper;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    @Resource(name = "mysqlBulkhead")
+    private Bulkhead mysqlBulkhead;
+
+    @Resource
+    private DegradationController degradationController;
+
+    @Resource
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Resource
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+
+    @Value("${recommend.content-card.maximum-size:100000}")
+    private long maximumSize;
+
+    @Value("${recommend.content-card.expire-after-write-seconds:600}")
+    private long expireAfterWriteSeconds;
+
+    @Value("${recommend.content-card.load-size:1000}")
+    private int loadSize;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * 本节点ID，忽略自己发出的失效消息
+     */
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final Map<ContentType, Cache<Long, RecommendItem>> caches = new EnumMap<>(ContentType.class);
+
+    @PostConstruct
+    public void init() {
+        for (ContentType type : ContentType.ALL.expand()) {
+            Cache<Long, RecommendItem> cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(expireAfterWriteSeconds))
+                .recordStats()
+                .build();
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, "content_card", "contentType", type.getCode());
+            caches.put(type, cache);
+        }
+        redisMessageListenerContainer.addMessageListener((message, pattern) ->
+            onInvalidation(new String(message.getBody(), StandardCharsets.UTF_8)), new ChannelTopic(INVALIDATION_CHANNEL));
+        log.info("内容卡片缓存初始化: nodeId={}, 每类型最大条目={}, 写入后过期={}s",
+            nodeId, maximumSize, expireAfterWriteSeconds);
+    }
+
+    @Override
+    public Map<Long, RecommendItem> getCards(ContentType contentType, Collection<Long> contentIds) {
+        Cache<Long, RecommendItem> cache = caches.get(contentType);
+        if (cache == null || contentIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<Long, RecommendItem> cards = new HashMap<>(cache.getAllPresent(contentIds));
+        if (cards.size() == contentIds.size()) {
+            return cards;
+        }
+
+        List<Long> missing = new ArrayList<>(contentIds.size() - cards.size());
+        for (Long id : contentIds) {
+            if (!cards.containsKey(id)) {
+                missing.add(id);
+            }
+        }
+        for (int from = 0; from < missing.size(); from += loadSize) {
+            List<Long> slice = missing.subList(from, Math.min(from + loadSize, missing.size()));
+            Map<Long, RecommendItem> loaded = dbCall(() -> load(contentType, slice));
+            cache.putAll(loaded);
+            cards.putAll(loaded);
+        }
+        log.debug("加载内容卡片: contentType={}, 请求={}, 未命中={}", contentType.getCode(), contentIds.size(), missing.size());
+        return cards;
+    }
+
+    @Override
+    public void invalidate(ContentType contentType, Long contentId) {
+        invalidateLocal(contentType, contentId);
+        publishInvalidation(contentType, contentId);
+    }
+
+    /**
+     * 内容更新、删除后使卡片失效（事务提交后执行，避免提交前重新加载到旧数据）
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onContentChanged(ContentChangedEvent event) {
+        invalidate(event.contentType(), event.contentId());
+        log.debug("内容卡片失效: contentType={}, contentId={}, action={}",
+            event.contentType().getCode(), event.contentId(), event.action());
+    }
+
+    /**
+     * 在MySQL舱壁内执行卡片查询，并记录耗时（含舱壁等待）
+     *
+     * @throws Bulkhead.BulkheadFullException MySQL舱壁已满
+     */
+    private <T> T dbCall(Callable<T> call) {
+        long start = System.nanoTime();
+        try {
+            return mysqlBulkhead.call(call);
+        } finally {
+            degradationController.recordDbLatency(System.nanoTime() - start);
+        }
+    }
+
+    private void invalidateLocal(ContentType contentType, Long contentId) {
+        Cache<Long, RecommendItem> cache = caches.get(contentType);
+        if (cache != null) {
+            cache.invalidate(contentId);
+        }
+    }
+
+    private void publishInvalidation(ContentType contentType, Long contentId) {
+        try {
+            byte[] channel = INVALIDATION_CHANNEL.getBytes(StandardCharsets.UTF_8);
+            byte[] message = (nodeId + "|" + contentType.getCode() + "|" + contentId).getBytes(StandardCharsets.UTF_8);
+            redisTemplate.execute((RedisCallback<Long>) connection -> connection.publish(channel, message));
+        } catch (Exception e) {
+            log.warn("广播内容卡片失效消息失败: contentType={}, contentId={}", contentType.getCode(), contentId, e);
+        }
+    }
+
+    /**
+     * 处理其他节点的卡片失效消息
+     */
+    private void onInvalidation(String message) {
+        String[] parts = message.split("\\|");
+        if (parts.length != 3 || parts[0].equals(nodeId)) {
+            return;
+        }
+        try {
+            invalidateLocal(ContentType.fromCode(parts[1]), Long.valueOf(parts[2]));
+            log.debug("收到内容卡片失效消息: contentType={}, contentId={}", parts[1], parts[2]);
+        } catch (IllegalArgumentException e) {
+            log.warn("忽略无效的内容卡片失效消息: {}", message);
+        }
+    }
+
+    /**
+     * 批量查询卡片字段并转换为推荐项
+     */
+    private Map<Long, RecommendItem> load(ContentType contentType, List<Long> ids) {
+        Map<Long, RecommendItem> cards = new HashMap<>(ids.size());
+        switch (contentType) {
+            case ARTICLE -> {
+                for (Article article : articleMapper.selectCardsByIds(ids)) {
+                    cards.put(article.getId(), RecommendItem.builder()
+                        .contentId(article.getId())
+                        .contentType("article")
+                        .title(article.getTitle())
+                        .coverImage(article.getCoverImage())
+                        .publishTime(parsePublishTime(article.getPublishTime()))
+                        .viewCount(article.getViewCount())
+                        .likeCount(toLong(article.getLikeCount()))
+                        .qualityScore(article.getQualityScore())
+                        .category(toCategory(article.getCategoryId()))
+                        .tags(parseTags(article.getTags()))
+                        .authorId(article.getAuthorId())
+                        .build());
+                }
+            }
+            case IMAGE -> {
+                for (Image image : imageMapper.selectCardsByIds(ids)) {
+                    cards.put(image.getId(), RecommendItem.builder()
+                        .contentId(image.getId())
+                        .contentType("image")
+                        .title(image.getTitle())
+                        .coverImage(image.getUrl())
+                        .publishTime(parsePublishTime(image.getPublishTime()))
+                        .viewCount(image.getViewCount())
+                        .likeCount(toLong(image.getLikeCount()))
+                        .qualityScore(image.getQualityScore())
+                        .category(toCategory(image.getCategoryId()))
+                        .tags(parseTags(image.getTags()))
+                        .authorId(image.getUploaderId())
+                        .build());
+                }
+            }
+            case VIDEO -> {
+                for (Video video : videoMapper.selectCardsByIds(ids)) {
+                    cards.put(video.getId(), RecommendItem.builder()
+                        .contentId(video.getId())
+                        .contentType("video")
+                        .title(video.getTitle())
+                        .coverImage(video.getCoverUrl())
+                        .publishTime(parsePublishTime(video.getPublishTime()))
+                        .viewCount(video.getViewCount())
+                        .likeCount(toLong(video.getLikeCount()))
+                        .qualityScore(video.getQualityScore())
+                        .category(toCategory(video.getCategoryId()))
+                        .tags(parseTags(video.getTags()))
+                        .authorId(video.getUploaderId())
+                        .duration(video.getDuration())
+                        .build());
+                }
+            }
+            default -> {
+            }
+        }
+        return cards;
+    }
+
+    /**
+     * 解析发布时间，兼容 "yyyy-MM-dd HH:mm:ss" 与 ISO 格式
+     */
+    private LocalDateTime parsePublishTime(String publishTime) {
+        if (publishTime == null || publishTime.isBlank()) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(publishTime.trim().replace(' ', 'T'));
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * 解析标签JSON数组，卡片被多个响应共享，返回不可变列表
+     */
+    private List<String> parseTags(String tagsJson) {
+        if (tagsJson == null || tagsJson.isBlank()) {
+            return Collections.emptyList();
+        }
+        try {
+            return Collections.unmodifiableList(
+                objectMapper.readValue(tagsJson, new TypeReference<List<String>>() {}));
+        } catch (Exception e) {
+            return Collections.emptyList();
+        }
+    }
+
+    private Long toLong(Integer value) {
+        return value != null ? value.longValue() : null;
+    }
+
+    private String toCategory(Long categoryId) {
+        return categoryId != null ? String.valueOf(categoryId) : null;
+    }
+}
@@ -3,18 +3,25 @@ package com.qoobot.openrecommend.service.impl;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.qoobot.openrecommend.algorithm.VisualFeatureExtractor;
+import com.qoobot.openrecommend.common.enums.ContentType;
 import com.qoobot.openrecommend.entity.Image;
+import com.qoobot.openrecommend.event.ContentChangedEvent;
 import com.qoobot.openrecommend.mapper.ImageMapper;
 import com.qoobot.openrecommend.service.ImageService;
 import jakarta.annotation.Resource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
 
 /**
  * 图片服务实现
@@ -30,6 +37,15 @@ public class ImageServiceImpl implements ImageService {
     @Resource
     private ImageMapper imageMapper;
 
+    @Resource
+    private ApplicationEventPublisher eventPublisher;
+
+    @Resource
+    private VisualFeatureExtractor visualFeatureExtractor;
+
+    @Value("${recommend.visual.index-page-size:5000}")
+    private int pageSize;
+
     @Override
     @Transactional(rollbackFor = Exception.class)
     public Long upload(Image image) {
@@ -60,6 +76,10 @@ public class ImageServiceImpl implements ImageService {
         log.info("更新图片: id={}", image.getId());
 
         int result = imageMapper.updateById(image);
+        if (result > 0) {
+            eventPublisher.publishEvent(new ContentChangedEvent(
+                ContentType.IMAGE, image.getId(), ContentChangedEvent.Action.UPDATED));
+        }
         return result > 0;
     }
 
@@ -76,6 +96,10 @@ public class ImageServiceImpl implements ImageService {
 
         image.setIsDeleted(1);
         int result = imageMapper.updateById(image);
+        if (result > 0) {
+            eventPublisher.publishEvent(new ContentChangedEvent(
+                ContentType.IMAGE, imageId, ContentChangedEvent.Action.DELETED));
+        }
 
         return result > 0;
     }
@@ -165,6 +189,61 @@ public class ImageServiceImpl implements ImageService {
         return imageMapper.selectBatchIds(imageIds);
     }
 
+    @Override
+    public boolean updateColorHistogram(Long imageId, byte[] content) {
+        Map<String, int[]> histogram = visualFeatureExtractor.extractColorHistogram(content, 256);
+        if (histogram.isEmpty()) {
+            log.warn("图片无法解码，未更新颜色直方图: id={}", imageId);
+            return false;
+        }
+
+        int result = imageMapper.updateColorHistogram(imageId, visualFeatureExtractor.toHistogramJson(histogram));
+        if (result > 0) {
+            eventPublisher.publishEvent(new ContentChangedEvent(
+                ContentType.IMAGE, imageId, ContentChangedEvent.Action.UPDATED));
+        }
+        return result > 0;
+    }
+
+    @Override
+    public int backfillColorHistograms() {
+        long start = System.currentTimeMillis();
+        int updated = 0;
+        int failed = 0;
+        int skipped = 0;
+        long lastId = 0L;
+
+        while (true) {
+            List<Image> page = imageMapper.selectPageWithoutHistogram(lastId, pageSize);
+            if (page == null || page.isEmpty()) {
+                break;
+            }
+            for (Image image : page) {
+                // 地址不在允许范围内的图片不读取也不标记，允许列表调整后仍可回填
+                if (!visualFeatureExtractor.isFetchAllowed(image.getUrl())) {
+                    skipped++;
+                    continue;
+                }
+                Map<String, int[]> histogram = visualFeatureExtractor.readColorHistogram(image.getUrl(), 256);
+                // 读取失败的图片写入空直方图，不参与索引，也不再被重复回填
+                imageMapper.updateColorHistogram(image.getId(), visualFeatureExtractor.toHistogramJson(histogram));
+                if (histogram.isEmpty()) {
+                    failed++;
+                } else {
+                    updated++;
+                }
+            }
+            lastId = page.get(page.size() - 1).getId();
+            if (page.size() < pageSize) {
+                break;
+            }
+        }
+
+        log.info("颜色直方图回填完成: updated={}, failed={}, skipped={}, cost={}ms",
+            updated, failed, skipped, System.currentTimeMillis() - start);
+        return updated;
+    }
+
     // ========== 私有方法 ==========
 
     /**
@@ -0,0 +1,263 @@
+package com.qoobot.openrecommend.service.impl;
+
+import com.qoobot.openrecommend.algorithm.ImpressionBloomFilter;
+import com.qoobot.openrecommend.api.dto.RecommendItem;
+import com.qoobot.openrecommend.common.enums.ContentType;
+import com.qoobot.openrecommend.entity.UserImpression;
+import com.qoobot.openrecommend.mapper.UserImpressionMapper;
+import com.qoobot.openrecommend.service.ImpressionService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 曝光服务实现
+ * 每个用户每个周期（rotate-hours）一个Redis位图，Key为 impression:{userId}:{周期序号}；
+ * 写入当前周期，读取最近 generations 个周期，过期时间覆盖全部保留周期，旧周期自然过期即完成轮换。
+ * <p>
+ * 曝光日志经无锁有界队列（ConcurrentLinkedQueue + 原子计数）交给单个后台线程，
+ * 攒满 batch-size 条或距上次写入超过 flush-interval-ms 时多行插入一次；队列已满时丢弃并计数。
+ * 
+ * @author OpenRecommend
+ * @since 1.0.0
+ */
+@Service
+public class ImpressionServiceImpl implements ImpressionService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImpressionServiceImpl.class);
+
+    private static final String IMPRESSION_PREFIX = "impression:";
+
+    @Resource
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Resource
+    private ImpressionBloomFilter impressionBloomFilter;
+
+    @Value("${recommend.impression.rotate-hours:24}")
+    private long rotateHours;
+
+    @Value("${recommend.impression.generations:3}")
+    private int generations;
+
+    @Resource
+    private UserImpressionMapper userImpressionMapper;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    @Value("${recommend.impression.log.enabled:true}")
+    private boolean logEnabled;
+
+    @Value("${recommend.impression.log.queue-capacity:100000}")
+    private int queueCapacity;
+
+    @Value("${recommend.impression.log.batch-size:500}")
+    private int batchSize;
+
+    @Value("${recommend.impression.log.flush-interval-ms:1000}")
+    private long flushIntervalMs;
+
+    private final ConcurrentLinkedQueue<UserImpression> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private volatile boolean running;
+    private Thread writer;
+    private Counter droppedQueueFull;
+    private Counter droppedWriteError;
+    private Counter written;
+    private Timer flushTimer;
+
+    @PostConstruct
+    public void startWriter() {
+        Gauge.builder("recommend.impression.queue.depth", queueDepth, AtomicInteger::get)
+            .description("待写入的曝光日志数")
+            .register(meterRegistry);
+        droppedQueueFull = Counter.builder("recommend.impression.dropped")
+            .tag("reason", "queue_full").register(meterRegistry);
+        droppedWriteError = Counter.builder("recommend.impression.dropped")
+            .tag("reason", "write_error").register(meterRegistry);
+        written = Counter.builder("recommend.impression.written").register(meterRegistry);
+        flushTimer = Timer.builder("recommend.impression.flush").register(meterRegistry);
+
+        if (!logEnabled) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::drainLoop, "impression-writer");
+        writer.setDaemon(true);
+        writer.start();
+        log.info("曝光日志写入器已启动: queueCapacity={}, batchSize={}, flushIntervalMs={}",
+                queueCapacity, batchSize, flushIntervalMs);
+    }
+
+    @PreDestroy
+    public void stopWriter() {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.info("曝光日志写入器已停止，剩余未写入: {}", queueDepth.get());
+    }
+
+    @Override
+    public boolean logImpressions(Long userId, String recommendType, String device, List<RecommendItem> items) {
+        if (!logEnabled || userId == null || items == null || items.isEmpty()) {
+            return true;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        boolean accepted = true;
+        for (int i = 0; i < items.size(); i++) {
+            if (queueDepth.incrementAndGet() > queueCapacity) {
+                queueDepth.decrementAndGet();
+                droppedQueueFull.increment(items.size() - i);
+                accepted = false;
+                break;
+            }
+            RecommendItem item = items.get(i);
+            UserImpression impression = new UserImpression();
+            impression.setUserId(userId);
+            impression.setContentType(item.getContentType());
+            impression.setContentId(item.getContentId());
+            impression.setPosition(i);
+            impression.setScore(item.getScore());
+            impression.setRecommendType(recommendType);
+            impression.setDevice(device);
+            impression.setCreateTime(now);
+            queue.offer(impression);
+        }
+        if (queueDepth.get() >= batchSize) {
+            LockSupport.unpark(writer);
+        }
+        return accepted;
+    }
+
+    /**
+     * 后台写入循环：攒批或到达刷新间隔时写入，停止时写完队列中剩余的记录
+     */
+    private void drainLoop() {
+        List<UserImpression> batch = new ArrayList<>(batchSize);
+        long lastFlush = System.nanoTime();
+        long intervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        while (running || !queue.isEmpty()) {
+            UserImpression impression;
+            while (batch.size() < batchSize && (impression = queue.poll()) != null) {
+                queueDepth.decrementAndGet();
+                batch.add(impression);
+            }
+            long now = System.nanoTime();
+            if (batch.size() >= batchSize || (!batch.isEmpty() && (now - lastFlush >= intervalNanos || !running))) {
+                flush(batch);
+                batch.clear();
+                lastFlush = System.nanoTime();
+                continue;
+            }
+            if (running) {
+                // 队列为空时等待一个完整间隔（或被唤醒），避免距上次写入已超过间隔后以1ns空转；
+                // 醒来时距上次写入已超过间隔，期间到达的曝光随即写入
+                LockSupport.parkNanos(this, batch.isEmpty()
+                    ? intervalNanos : Math.max(1, intervalNanos - (now - lastFlush)));
+            }
+        }
+        if (!batch.isEmpty()) {
+            flush(batch);
+        }
+    }
+
+    private void flush(List<UserImpression> batch) {
+        try {
+            flushTimer.record(() -> userImpressionMapper.insertBatch(batch));
+            written.increment(batch.size());
+        } catch (Exception e) {
+            droppedWriteError.increment(batch.size());
+            log.error("写入曝光日志失败: size={}", batch.size(), e);
+        }
+    }
+
+    @Override
+    public void recordImpressions(Long userId, List<RecommendItem> items) {
+        if (userId == null || items == null || items.isEmpty()) {
+            return;
+        }
+        byte[] key = rawKey(userId, currentPeriod());
+        List<long[]> offsets = new ArrayList<>(items.size());
+        for (RecommendItem item : items) {
+            try {
+                offsets.add(impressionBloomFilter.offsets(
+                    ContentType.fromString(item.getContentType()), item.getContentId()));
+            } catch (IllegalArgumentException e) {
+                log.debug("忽略未知内容类型的曝光: {}", item.getContentType());
+            }
+        }
+        long ttlSeconds = rotateHours * 3600 * generations;
+
+        try {
+            // 位图是原始字节，绕过值序列化器以管道批量 SETBIT
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (long[] itemOffsets : offsets) {
+                    for (long offset : itemOffsets) {
+                        connection.stringCommands().setBit(key, offset, true);
+                    }
+                }
+                connection.keyCommands().expire(key, ttlSeconds);
+                return null;
+            });
+            log.debug("记录曝光: userId={}, count={}", userId, offsets.size());
+        } catch (Exception e) {
+            log.error("记录曝光失败: userId={}", userId, e);
+        }
+    }
+
+    @Override
+    public ImpressionBloomFilter.Snapshot loadSeenFilter(Long userId) {
+        long period = currentPeriod();
+        byte[][] keys = new byte[generations][];
+        for (int i = 0; i < generations; i++) {
+            keys[i] = rawKey(userId, period - i);
+        }
+        try {
+            List<byte[]> bitmaps = redisTemplate.execute((RedisCallback<List<byte[]>>) connection ->
+                connection.stringCommands().mGet(keys));
+            return impressionBloomFilter.snapshot(bitmaps != null ? bitmaps : Collections.emptyList());
+        } catch (Exception e) {
+            log.error("加载曝光过滤器失败: userId={}", userId, e);
+            return impressionBloomFilter.snapshot(Collections.emptyList());
+        }
+    }
+
+    /**
+     * 当前周期序号
+     */
+    private long currentPeriod() {
+        return System.currentTimeMillis() / (rotateHours * 3600_000L);
+    }
+
+    private byte[] rawKey(Long userId, long period) {
+        return (IMPRESSION_PREFIX + userId + ":" + period).getBytes(StandardCharsets.UTF_8);
+    }
+}
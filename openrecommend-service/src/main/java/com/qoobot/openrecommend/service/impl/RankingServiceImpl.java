@@ -1,11 +1,17 @@
 package com.qoobot.openrecommend.service.impl;
 
-import com.qoobot.openrecommend.dto.RecommendItem;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.qoobot.openrecommend.algorithm.MmrDiversifier;
+import com.qoobot.openrecommend.algorithm.RankerHolder;
+import com.qoobot.openrecommend.algorithm.RankingFeatures;
+import com.qoobot.openrecommend.api.dto.RecommendItem;
 import com.qoobot.openrecommend.entity.UserProfile;
 import com.qoobot.openrecommend.service.CacheService;
 import com.qoobot.openrecommend.service.RankingService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -23,11 +29,17 @@ import java.util.stream.Collectors;
 public class RankingServiceImpl implements RankingService {
 
     private final CacheService cacheService;
+    private final RankerHolder rankerHolder;
+    private final MmrDiversifier mmrDiversifier;
+
+    @Value("${recommend.ranking.result-size:20}")
+    private int resultSize;
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
 
     private static final double DEFAULT_ALPHA = 0.7;
     private static final double DEFAULT_BETA = 0.3;
     private static final int DEFAULT_DIVERSITY_LEVEL = 5;
-    private static final long DEFAULT_DECAY_TIME = 24; // 24小时
     private static final long DEFAULT_TIME_WINDOW = 72; // 72小时
 
     @Override
@@ -38,22 +50,40 @@ public class RankingServiceImpl implements RankingService {
 
         log.debug("开始对{}个推荐项进行排序，用户ID: {}", items.size(), userId);
 
-        UserProfile userProfile = cacheService.getUserProfile(userId);
+        int[] order = rankBatch(items, userId, items.size());
 
-        for (RecommendItem item : items) {
-            double score = calculateScore(item, userProfile);
-            item.setScore(score);
+        // 按下标重排列表
+        List<RecommendItem> snapshot = new ArrayList<>(items);
+        for (int i = 0; i < order.length; i++) {
+            items.set(i, snapshot.get(order[i]));
         }
 
-        // 按分数降序排序
-        items.sort((a, b) -> Double.compare(b.getScore(), a.getScore()));
-
         log.debug("排序完成，最高分: {}, 最低分: {}",
                 items.get(0).getScore(), items.get(items.size() - 1).getScore());
 
         return items;
     }
 
+    @Override
+    public int[] rankBatch(List<RecommendItem> items, Long userId, int topN) {
+        if (items == null || items.isEmpty() || topN <= 0) {
+            return new int[0];
+        }
+
+        UserProfile userProfile = cacheService.getUserProfile(userId);
+        RankingFeatures features = RankingFeatures.extract(
+                items, parseInterestTags(userProfile), LocalDateTime.now());
+
+        double[] scores = new double[features.size()];
+        scoreBatch(features, scores);
+
+        int[] order = RankingFeatures.topN(scores, topN);
+        for (int index : order) {
+            items.get(index).setScore(scores[index]);
+        }
+        return order;
+    }
+
     @Override
     public List<RecommendItem> rerank(List<RecommendItem> items, Long userId, RankingContext context) {
         if (items == null || items.isEmpty()) {
@@ -65,10 +95,15 @@ public class RankingServiceImpl implements RankingService {
                 context != null ? context.getTimeOfDay() : "unknown");
 
         UserProfile userProfile = cacheService.getUserProfile(userId);
-
-        for (RecommendItem item : items) {
-            double score = calculateRerankScore(item, userProfile, context);
-            item.setScore(score);
+        RankingFeatures features = RankingFeatures.extract(
+                items, parseInterestTags(userProfile), LocalDateTime.now());
+        double[] scores = new double[features.size()];
+        scoreBatch(features, scores);
+
+        boolean activeHour = isActiveHour(userProfile, context);
+        for (int i = 0; i < scores.length; i++) {
+            RecommendItem item = items.get(i);
+            item.setScore(adjustByContext(item, scores[i], activeHour, context));
         }
 
         items.sort((a, b) -> Double.compare(b.getScore(), a.getScore()));
@@ -78,42 +113,39 @@ public class RankingServiceImpl implements RankingService {
 
     @Override
     public List<RecommendItem> diversify(List<RecommendItem> items, int diversityLevel) {
+        return diversify(items, diversityLevel, resultSize);
+    }
+
+    @Override
+    public List<RecommendItem> diversify(List<RecommendItem> items, int diversityLevel, int size) {
         if (items == null || items.isEmpty()) {
             return items;
         }
 
-        log.debug("开始多样性处理，级别: {}, 推荐项数量: {}", diversityLevel, items.size());
+        log.debug("开始多样性处理，级别: {}, 推荐项数量: {}, 多样化数量: {}", diversityLevel, items.size(), size);
 
-        List<RecommendItem> result = new ArrayList<>();
-        Map<String, Integer> categoryCount = new HashMap<>();
+        // 多样性级别映射为MMR相关性权重：级别1 -> 0.93，级别10 -> 0.3
+        int level = Math.max(1, Math.min(10, diversityLevel));
+        double lambda = 1.0 - level * 0.07;
 
-        // 按分数排序
-        List<RecommendItem> sorted = new ArrayList<>(items);
-        sorted.sort((a, b) -> Double.compare(b.getScore(), a.getScore()));
-
-        // 基于多样性级别调整每个类别的最大数量
-        int maxPerCategory = Math.max(1, (int) Math.ceil(items.size() / (double) (diversityLevel + 1)));
-
-        for (RecommendItem item : sorted) {
-            String category = item.getCategory() != null ? item.getCategory() : "default";
-            int count = categoryCount.getOrDefault(category, 0);
-
-            if (count < maxPerCategory) {
-                result.add(item);
-                categoryCount.put(category, count + 1);
-            }
+        int[] order = mmrDiversifier.select(items, size, lambda);
+        boolean[] selected = new boolean[items.size()];
+        List<RecommendItem> result = new ArrayList<>(items.size());
+        for (int index : order) {
+            selected[index] = true;
+            result.add(items.get(index));
         }
 
-        // 如果还有剩余位置，按分数顺序填充
-        if (result.size() < items.size()) {
-            for (RecommendItem item : sorted) {
-                if (!result.contains(item)) {
-                    result.add(item);
-                }
+        // 剩余推荐项按分数顺序填充
+        List<RecommendItem> remaining = new ArrayList<>(items.size() - order.length);
+        for (int i = 0; i < items.size(); i++) {
+            if (!selected[i]) {
+                remaining.add(items.get(i));
             }
         }
-
-        log.debug("多样性处理完成，类别分布: {}", categoryCount);
+        remaining.sort((a, b) -> Double.compare(
+                b.getScore() != null ? b.getScore() : 0.0, a.getScore() != null ? a.getScore() : 0.0));
+        result.addAll(remaining);
 
         return result;
     }
@@ -128,8 +160,12 @@ public class RankingServiceImpl implements RankingService {
 
         // 首先计算相关性分数
         UserProfile userProfile = cacheService.getUserProfile(userId);
-        for (RecommendItem item : items) {
-            item.setScore(calculateScore(item, userProfile));
+        RankingFeatures features = RankingFeatures.extract(
+                items, parseInterestTags(userProfile), LocalDateTime.now());
+        double[] scores = new double[features.size()];
+        scoreBatch(features, scores);
+        for (int i = 0; i < scores.length; i++) {
+            items.get(i).setScore(scores[i]);
         }
 
         // 计算多样性分数
@@ -223,8 +259,8 @@ public class RankingServiceImpl implements RankingService {
             return items;
         }
 
-        Map<String, Double> interestTags = userProfile.getInterestTags();
-        Map<String, Integer> contentPreference = userProfile.getContentPreference();
+        Map<String, Double> interestTags = parseInterestTags(userProfile);
+        Map<String, Double> contentPreference = parseContentPreference(userProfile);
 
         for (RecommendItem item : items) {
             double score = calculatePersonalizedScore(item, interestTags, contentPreference);
@@ -237,36 +273,83 @@ public class RankingServiceImpl implements RankingService {
     }
 
     /**
-     * 计算推荐项的综合分数
+     * 列式批量打分，使用当前生效的打分器（线性或树模型）
      */
-    private double calculateScore(RecommendItem item, UserProfile userProfile) {
-        double score = 0.0;
-
-        // 相关性分数 (40%)
-        double relevanceScore = calculateRelevanceScore(item, userProfile);
-        score += relevanceScore * 0.4;
-
-        // 质量分数 (30%)
-        double qualityScore = item.getQualityScore() != null ? item.getQualityScore() : 0;
-        score += qualityScore * 0.3;
+    private void scoreBatch(RankingFeatures features, double[] scores) {
+        rankerHolder.current().score(features, scores);
+    }
 
-        // 热度分数 (20%)
-        double popularityScore = calculatePopularityScore(item);
-        score += popularityScore * 0.2;
+    /**
+     * 解析用户兴趣标签权重，无用户画像时返回null
+     */
+    private Map<String, Double> parseInterestTags(UserProfile userProfile) {
+        if (userProfile == null) {
+            return null;
+        }
+        if (userProfile.getInterestTags() == null || userProfile.getInterestTags().isBlank()) {
+            return Collections.emptyMap();
+        }
+        try {
+            return objectMapper.readValue(userProfile.getInterestTags(),
+                    new TypeReference<Map<String, Double>>() {});
+        } catch (Exception e) {
+            log.warn("解析用户兴趣标签失败，用户ID: {}", userProfile.getUserId());
+            return Collections.emptyMap();
+        }
+    }
 
-        // 新鲜度分数 (10%)
-        double freshnessScore = calculateFreshnessScore(item);
-        score += freshnessScore * 0.1;
+    /**
+     * 解析用户内容类型偏好（JSON：{"article":0.5,"image":0.3,"video":0.2}）
+     */
+    private Map<String, Double> parseContentPreference(UserProfile userProfile) {
+        if (userProfile.getContentPreference() == null || userProfile.getContentPreference().isBlank()) {
+            return Collections.emptyMap();
+        }
+        try {
+            return objectMapper.readValue(userProfile.getContentPreference(),
+                    new TypeReference<Map<String, Double>>() {});
+        } catch (Exception e) {
+            log.warn("解析用户内容偏好失败，用户ID: {}", userProfile.getUserId());
+            return Collections.emptyMap();
+        }
+    }
 
-        return score;
+    /**
+     * 解析用户活跃时段（JSON：[8,12,18,22]，元素为小时）
+     */
+    private Set<Integer> parseActivePeriods(UserProfile userProfile) {
+        if (userProfile.getActivePeriods() == null || userProfile.getActivePeriods().isBlank()) {
+            return Collections.emptySet();
+        }
+        try {
+            return objectMapper.readValue(userProfile.getActivePeriods(),
+                    new TypeReference<Set<Integer>>() {});
+        } catch (Exception e) {
+            log.warn("解析用户活跃时段失败，用户ID: {}", userProfile.getUserId());
+            return Collections.emptySet();
+        }
     }
 
     /**
-     * 计算重排序分数（考虑上下文）
+     * 当前时间段（小时）是否为用户活跃时段
      */
-    private double calculateRerankScore(RecommendItem item, UserProfile userProfile, RankingContext context) {
-        double baseScore = calculateScore(item, userProfile);
+    private boolean isActiveHour(UserProfile userProfile, RankingContext context) {
+        if (userProfile == null || context == null || context.getTimeOfDay() == null) {
+            return false;
+        }
+        try {
+            return parseActivePeriods(userProfile).contains(Integer.parseInt(context.getTimeOfDay()));
+        } catch (NumberFormatException e) {
+            log.debug("无法识别的时间段: {}", context.getTimeOfDay());
+            return false;
+        }
+    }
 
+    /**
+     * 按上下文调整基础分数
+     */
+    private double adjustByContext(RecommendItem item, double baseScore, boolean activeHour,
+                                   RankingContext context) {
         if (context == null) {
             return baseScore;
         }
@@ -279,18 +362,9 @@ public class RankingServiceImpl implements RankingService {
             }
         }
 
-        // 根据时间段调整分数
-        if (userProfile != null) {
-            String timeOfDay = context.getTimeOfDay();
-            Map<String, Integer> activeTimeSlots = userProfile.getActiveTimeSlots();
-
-            if (timeOfDay != null && activeTimeSlots != null) {
-                Integer activityLevel = activeTimeSlots.get(timeOfDay);
-                if (activityLevel != null && activityLevel > 0) {
-                    // 用户活跃时间段，适当提升分数
-                    baseScore *= 1.05;
-                }
-            }
+        // 用户活跃时间段，适当提升分数
+        if (activeHour) {
+            baseScore *= 1.05;
         }
 
         return baseScore;
@@ -301,7 +375,7 @@ public class RankingServiceImpl implements RankingService {
      */
     private double calculatePersonalizedScore(RecommendItem item,
                                                Map<String, Double> interestTags,
-                                               Map<String, Integer> contentPreference) {
+                                               Map<String, Double> contentPreference) {
         double score = 0.0;
 
         // 基于兴趣标签计算
@@ -316,7 +390,7 @@ public class RankingServiceImpl implements RankingService {
 
         // 基于内容类型偏好计算
         if (item.getContentType() != null && contentPreference != null) {
-            Integer preference = contentPreference.get(item.getContentType());
+            Double preference = contentPreference.get(item.getContentType());
             if (preference != null) {
                 score += preference * 0.1;
             }
@@ -327,58 +401,4 @@ public class RankingServiceImpl implements RankingService {
 
         return score;
     }
-
-    /**
-     * 计算相关性分数
-     */
-    private double calculateRelevanceScore(RecommendItem item, UserProfile userProfile) {
-        if (userProfile == null) {
-            return 0.5;
-        }
-
-        double relevanceScore = 0.0;
-
-        // 基于标签的相关性
-        if (item.getTags() != null && userProfile.getInterestTags() != null) {
-            for (String tag : item.getTags()) {
-                Double tagWeight = userProfile.getInterestTags().get(tag);
-                if (tagWeight != null) {
-                    relevanceScore += tagWeight;
-                }
-            }
-        }
-
-        // 归一化到0-1之间
-        return Math.min(relevanceScore / 10.0, 1.0);
-    }
-
-    /**
-     * 计算热度分数
-     */
-    private double calculatePopularityScore(RecommendItem item) {
-        long viewCount = item.getViewCount() != null ? item.getViewCount() : 0;
-        long likeCount = item.getLikeCount() != null ? item.getLikeCount() : 0;
-
-        // 使用对数缩放，避免热门内容占据全部推荐
-        double normalizedViews = Math.log1p(viewCount);
-        double normalizedLikes = Math.log1p(likeCount);
-
-        // 归一化到0-1之间
-        return (normalizedViews + normalizedLikes * 5.0) / 20.0;
-    }
-
-    /**
-     * 计算新鲜度分数
-     */
-    private double calculateFreshnessScore(RecommendItem item) {
-        LocalDateTime publishTime = item.getPublishTime();
-        if (publishTime == null) {
-            return 0.5;
-        }
-
-        long hoursDiff = ChronoUnit.HOURS.between(publishTime, LocalDateTime.now());
-
-        // 使用指数衰减，越新的内容分数越高
-        return Math.exp(-hoursDiff / (double) DEFAULT_DECAY_TIME);
-    }
 }
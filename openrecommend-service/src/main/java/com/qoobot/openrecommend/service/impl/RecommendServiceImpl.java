@@ -2,30 +2,55 @@ package com.qoobot.openrecommend.service.impl;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.qoobot.openrecommend.api.dto.BatchRecommendRequest;
+import com.qoobot.openrecommend.api.dto.BatchRecommendResponse;
 import com.qoobot.openrecommend.api.dto.RecommendItem;
 import com.qoobot.openrecommend.api.dto.RecommendRequest;
 import com.qoobot.openrecommend.api.dto.RecommendResponse;
+import com.qoobot.openrecommend.algorithm.ChannelFusion;
 import com.qoobot.openrecommend.algorithm.CollaborativeFiltering;
 import com.qoobot.openrecommend.algorithm.ContentBasedRecommender;
+import com.qoobot.openrecommend.algorithm.ImpressionBloomFilter;
+import com.qoobot.openrecommend.algorithm.RankedListCodec;
+import com.qoobot.openrecommend.algorithm.VisualRecallIndex;
+import com.qoobot.openrecommend.common.concurrent.Bulkhead;
+import com.qoobot.openrecommend.common.concurrent.SingleFlight;
+import com.qoobot.openrecommend.common.concurrent.TaskScope;
+import com.qoobot.openrecommend.common.constants.RecommendConstants;
 import com.qoobot.openrecommend.common.enums.ContentType;
+import com.qoobot.openrecommend.common.enums.DegradationMode;
+import com.qoobot.openrecommend.degrade.DegradationController;
 import com.qoobot.openrecommend.entity.*;
 import com.qoobot.openrecommend.mapper.ArticleMapper;
 import com.qoobot.openrecommend.mapper.ImageMapper;
 import com.qoobot.openrecommend.mapper.UserBehaviorMapper;
 import com.qoobot.openrecommend.mapper.VideoMapper;
 import com.qoobot.openrecommend.service.CacheService;
+import com.qoobot.openrecommend.service.ContentCardService;
+import com.qoobot.openrecommend.service.ImpressionService;
+import com.qoobot.openrecommend.service.RankingService;
 import com.qoobot.openrecommend.service.RecommendService;
 import com.qoobot.openrecommend.service.UserProfileService;
+import jakarta.annotation.PostConstruct;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDateTime;
+import java.time.Duration;
+import java.time.LocalTime;
 import java.util.*;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.Executor;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
@@ -51,6 +76,21 @@ public class RecommendServiceImpl implements RecommendService {
     @Resource
     private CollaborativeFiltering collaborativeFiltering;
 
+    @Resource
+    private VisualRecallIndex visualRecallIndex;
+
+    @Resource
+    private RankingService rankingService;
+
+    @Resource
+    private ImpressionService impressionService;
+
+    @Resource
+    private ContentCardService contentCardService;
+
+    @Resource
+    private DegradationController degradationController;
+
     @Resource
     private ArticleMapper articleMapper;
 
@@ -66,13 +106,185 @@ public class RecommendServiceImpl implements RecommendService {
     @Resource
     private RedisTemplate<String, Object> redisTemplate;
 
-    @Resource(name = "taskExecutor")
-    private Executor taskExecutor;
+    /**
+     * 请求内的并行子任务运行在虚拟线程上，并发度由下游依赖的舱壁限制
+     */
+    @Resource(name = "virtualThreadExecutor")
+    private ExecutorService virtualThreadExecutor;
+
+    @Resource(name = "mysqlBulkhead")
+    private Bulkhead mysqlBulkhead;
+
+    @Resource(name = "redisBulkhead")
+    private Bulkhead redisBulkhead;
 
     private final ObjectMapper objectMapper = new ObjectMapper();
 
+    @Value("${recommend.recall.content-count:200}")
+    private int contentRecallCount;
+
+    @Value("${recommend.recall.cf-count:200}")
+    private int cfRecallCount;
+
+    @Value("${recommend.recall.hot-count:100}")
+    private int hotRecallCount;
+
+    @Value("${recommend.recall.deadline-ms:300}")
+    private long recallDeadlineMs;
+
+    @Value("${recommend.recall.timeout-ms.content:200}")
+    private long contentRecallTimeoutMs;
+
+    @Value("${recommend.recall.timeout-ms.cf:250}")
+    private long cfRecallTimeoutMs;
+
+    @Value("${recommend.recall.timeout-ms.hot:100}")
+    private long hotRecallTimeoutMs;
+
+    @Value("${recommend.recall.hydrate-timeout-ms:200}")
+    private long hydrateTimeoutMs;
+
+    @Value("${recommend.single-flight.lock-ttl-ms:3000}")
+    private long lockTtlMs;
+
+    @Value("${recommend.single-flight.lock-wait-ms:300}")
+    private long lockWaitMs;
+
+    /**
+     * 同一推荐Key的并发缓存未命中合并为一次计算
+     */
+    private final SingleFlight<String, RecommendResponse> recommendFlight = new SingleFlight<>();
+
+    /**
+     * 同一内容的相关列表在线计算合并为一次
+     */
+    private final SingleFlight<String, List<Long>> relatedFlight = new SingleFlight<>();
+
+    /**
+     * 热门列表的本地缓存，HOT_ONLY 降级模式下推荐请求基本不访问数据库。
+     * 写入 refresh-seconds 后的首次读取返回旧列表并在后台重新加载（同一列表只加载一次），
+     * 超过 stale-seconds 未刷新成功才同步加载
+     */
+    private LoadingCache<HotKey, Map<Long, Double>> hotLists;
+
+    @Value("${recommend.hot.refresh-seconds:30}")
+    private long hotRefreshSeconds;
+
+    @Value("${recommend.hot.stale-seconds:300}")
+    private long hotStaleSeconds;
+
+    /**
+     * 推荐结果逻辑过期后仍保留在缓存中的宽限时间（秒），期间返回旧结果并在后台重算
+     */
+    @Value("${recommend.cache.stale-grace-seconds:300}")
+    private long staleGraceSeconds;
+
+    /**
+     * XFetch 提前刷新系数，越大越早刷新，0 表示只在逻辑过期后刷新
+     */
+    @Value("${recommend.cache.xfetch-beta:1.0}")
+    private double xfetchBeta;
+
+    /**
+     * 本节点正在后台重算的推荐缓存Key
+     */
+    private final Set<String> revalidating = ConcurrentHashMap.newKeySet();
+
+    @Value("${recommend.batch.chunk-size:500}")
+    private int batchChunkSize;
+
+    @Value("${recommend.batch.load-size:1000}")
+    private int batchLoadSize;
+
+    @Value("${recommend.batch.parallelism:8}")
+    private int batchParallelism;
+
+    @Value("${recommend.batch.db-permits:8}")
+    private int batchDbPermitCount;
+
+    /**
+     * 批量推荐共享的MySQL并发预算，单位为并发数据库调用数；进程内所有批量调用（含并发的分区）共同占用，
+     * 总量小于MySQL舱壁容量，为在线请求保留余量
+     */
+    private Semaphore batchDbPermits;
+
+    @Value("${recommend.related.top-n:50}")
+    private int relatedTopN;
+
+    @Value("${recommend.related.fallback-ttl:3600}")
+    private long relatedFallbackTtl;
+
+    @Value("${recommend.session.list-size:200}")
+    private int sessionListSize;
+
+    @Value("${recommend.session.max-size:1000}")
+    private int sessionMaxSize;
+
+    @Value("${recommend.session.refill-threshold:40}")
+    private int sessionRefillThreshold;
+
+    @Value("${recommend.session.ttl:1800}")
+    private long sessionTtl;
+
+    /**
+     * 同一会话列表的生成与补充合并为一次
+     */
+    private final SingleFlight<String, Integer> sessionFlight = new SingleFlight<>();
+
+    @Value("${recommend.mixed.min-share:0.1}")
+    private double mixedMinShare;
+
+    /**
+     * 历史行为数低于该值的用户按新用户权重融合召回通道
+     */
+    @Value("${recommend.fusion.new-user-history:10}")
+    private int newUserHistory;
+
+    @Value("${recommend.ranking.candidate-size:1000}")
+    private int candidateSize;
+
+    @Value("${recommend.ranking.result-size:20}")
+    private int resultSize;
+
+    @Value("${recommend.ranking.rerank-size:100}")
+    private int rerankSize;
+
+    @Value("${recommend.ranking.diversity-level:5}")
+    private int diversityLevel;
+
+    /**
+     * 相关图片/视频推荐中视觉相似度的融合权重
+     */
+    private static final double VISUAL_SIMILARITY_WEIGHT = 0.6;
+
+    @PostConstruct
+    public void init() {
+        batchDbPermits = new Semaphore(batchDbPermitCount, true);
+        hotLists = Caffeine.newBuilder()
+            .maximumSize(64)
+            .refreshAfterWrite(Duration.ofSeconds(hotRefreshSeconds))
+            .expireAfterWrite(Duration.ofSeconds(hotStaleSeconds))
+            .executor(virtualThreadExecutor)
+            .build(new CacheLoader<HotKey, Map<Long, Double>>() {
+                /**
+                 * 首次加载与后台刷新在MySQL舱壁内执行；舱壁已满时首次加载失败，刷新失败则保留旧列表
+                 */
+                @Override
+                public Map<Long, Double> load(HotKey key) {
+                    return dbCall(() -> loadHot(key.contentType(), key.budget()));
+                }
+
+                @Override
+                public Map<Long, Double> reload(HotKey key, Map<Long, Double> oldValue) {
+                    return dbCall(() -> loadHot(key.contentType(), key.budget()));
+                }
+            });
+    }
+
     @Override
     public RecommendResponse recommend(RecommendRequest request) {
+        // 请求截止时间自请求进入起计，缓存等待、画像与历史加载均计入
+        long startNanos = System.nanoTime();
         Long userId = request.getUserId();
         String contentTypeStr = request.getContentType();
         int limit = request.getLimit();
@@ -81,70 +293,924 @@ public class RecommendServiceImpl implements RecommendService {
         log.info("执行综合推荐，用户ID: {}, 内容类型: {}, 推荐类型: {}, 推荐数量: {}",
                 userId, contentTypeStr, recommendType, limit);
 
-        // 1. 检查缓存
-        RecommendResponse cachedResponse = cacheService.getRecommend(userId, contentTypeStr, recommendType);
-        if (cachedResponse != null) {
-            log.info("推荐结果缓存命中: userId={}", userId);
-            return cachedResponse;
+        RecommendResponse response;
+        degradationController.enter();
+        try {
+            if (request.getSessionId() != null || request.getCursor() != null) {
+                // 会话内分页（无限滚动）走会话排序列表
+                response = recommendSession(request, startNanos);
+            } else {
+                // 1. 检查缓存
+                response = getCachedRecommend(userId, contentTypeStr, recommendType);
+                if (response != null) {
+                    log.info("推荐结果缓存命中: userId={}", userId);
+                    revalidateIfNeeded(request, response);
+                } else {
+                    // 缓存未命中：进程内合并并发请求，跨节点通过分布式锁去重
+                    String key = cacheService.buildRecommendKey(userId, contentTypeStr, recommendType);
+                    response = recommendFlight.execute(key, () -> recommendWithLock(key, request, startNanos));
+                }
+            }
+        } finally {
+            degradationController.exit();
         }
 
-        // 2. 获取用户画像
-        UserProfile userProfile = userProfileService.getByUserId(userId);
-        Map<String, Double> interestTags = extractInterestTags(userProfile);
+        recordImpressionsAsync(request, response.getItems());
+        return response;
+    }
 
-        // 3. 获取用户历史内容ID
-        List<Long> historyContentIds = userBehaviorMapper.selectHistoryContentIds(
-            userId, contentTypeStr, 100);
+    @Override
+    public boolean prewarmRecommend(Long userId, String contentType) {
+        RecommendResponse cached = getCachedRecommend(userId, contentType, null);
+        if (cached != null && (cached.getExpireAt() == null || cached.getExpireAt() > System.currentTimeMillis())) {
+            return false;
+        }
+        RecommendRequest request = new RecommendRequest();
+        request.setUserId(userId);
+        request.setContentType(contentType);
+        request.setLimit(resultSize);
+        String key = cacheService.buildRecommendKey(userId, contentType, null);
+        long startNanos = System.nanoTime();
+        recommendFlight.execute(key, () -> recommendWithLock(key, request, startNanos));
+        return true;
+    }
 
-        // 4. 并行执行多种推荐策略
-        ContentType contentType = ContentType.fromString(contentTypeStr);
+    /**
+     * 缓存结果已逻辑过期（处于宽限期内）或按 XFetch 概率提前刷新时，在后台重算，本次请求仍返回缓存结果。
+     * XFetch：now − computeCost × β × ln(rand) ≥ expireAt 时刷新，计算越慢、越接近过期越可能提前刷新，
+     * 热门Key的刷新时间点被随机分散，过期时不会出现集中重算。同一Key在本节点只重算一次，跨节点通过分布式锁去重。
+     */
+    private void revalidateIfNeeded(RecommendRequest request, RecommendResponse cached) {
+        if (cached.getExpireAt() == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        boolean stale = now >= cached.getExpireAt();
+        if (!stale) {
+            long cost = cached.getComputeCost() != null ? cached.getComputeCost() : 0L;
+            double early = -cost * xfetchBeta * Math.log(ThreadLocalRandom.current().nextDouble());
+            if (now + early < cached.getExpireAt()) {
+                return;
+            }
+        }
+        String key = cacheService.buildRecommendKey(request.getUserId(), request.getContentType(),
+            request.getRecommendType());
+        if (!revalidating.add(key)) {
+            return;
+        }
+        log.debug("后台刷新推荐缓存: key={}, stale={}", key, stale);
+        virtualThreadExecutor.execute(() -> {
+            String lockKey = key + ":refresh";
+            String token = cacheService.tryLock(lockKey, lockTtlMs);
+            try {
+                if (token != null) {
+                    recommendFlight.execute(key, () -> computeRecommend(request, System.nanoTime()));
+                }
+            } catch (Exception e) {
+                log.warn("后台刷新推荐缓存失败: key={}", key, e);
+            } finally {
+                if (token != null) {
+                    cacheService.unlock(lockKey, token);
+                }
+                revalidating.remove(key);
+            }
+        });
+    }
 
-        List<CompletableFuture<List<RecommendItem>>> futures = new ArrayList<>();
+    /**
+     * 写入推荐缓存：记录计算时间与耗时，逻辑过期时间为 ttl，Redis 中额外保留 stale-grace-seconds 的宽限期
+     *
+     * @param computeCost 计算耗时（毫秒）
+     * @param ttlMinutes 逻辑过期时间（分钟）
+     */
+    private void cacheRecommend(RecommendRequest request, RecommendResponse response, long computeCost,
+                                long ttlMinutes) {
+        long now = System.currentTimeMillis();
+        response.setComputedAt(now);
+        response.setComputeCost(computeCost);
+        response.setExpireAt(now + TimeUnit.MINUTES.toMillis(ttlMinutes));
+        try {
+            redisBulkhead.run(() -> cacheService.setRecommend(request.getUserId(), request.getContentType(),
+                request.getRecommendType(), response, TimeUnit.MINUTES.toSeconds(ttlMinutes) + staleGraceSeconds,
+                TimeUnit.SECONDS));
+        } catch (Bulkhead.BulkheadFullException e) {
+            log.warn("Redis舱壁已满，跳过写入推荐缓存: userId={}", request.getUserId());
+        }
+    }
 
-        // 基于内容推荐
-        if (recommendType == null || "personal".equals(recommendType)) {
-            futures.add(CompletableFuture.supplyAsync(() -> 
-                recommendByContentInternal(userId, contentType, interestTags, historyContentIds, limit), 
-                taskExecutor));
+    /**
+     * 记录曝光，不阻塞响应：曝光日志入队由后台批量写入，布隆过滤器在虚拟线程上更新
+     */
+    private void recordImpressionsAsync(RecommendRequest request, List<RecommendItem> items) {
+        if (items == null || items.isEmpty()) {
+            return;
         }
+        Long userId = request.getUserId();
+        List<RecommendItem> shown = List.copyOf(items);
+        impressionService.logImpressions(userId, request.getRecommendType(), request.getDevice(), shown);
+        virtualThreadExecutor.execute(() -> {
+            try {
+                redisBulkhead.run(() -> impressionService.recordImpressions(userId, shown));
+            } catch (Bulkhead.BulkheadFullException e) {
+                log.warn("Redis舱壁已满，丢弃曝光记录: userId={}, count={}", userId, shown.size());
+            }
+        });
+    }
 
-        // 协同过滤推荐
-        if (recommendType == null || "personal".equals(recommendType)) {
-            futures.add(CompletableFuture.supplyAsync(() -> 
-                recommendByCollaborativeFilteringInternal(userId, contentTypeStr, limit), 
-                taskExecutor));
+    /**
+     * 持有分布式锁计算推荐结果
+     * 未获得锁时等待持锁节点写入缓存，超过等待时间仍未写入则本地计算，避免无限等待
+     */
+    private RecommendResponse recommendWithLock(String key, RecommendRequest request, long startNanos) {
+        Long userId = request.getUserId();
+        String contentTypeStr = request.getContentType();
+        String recommendType = request.getRecommendType();
+
+        String token = cacheService.tryLock(key, lockTtlMs);
+        if (token == null) {
+            RecommendResponse shared = waitForRecommend(userId, contentTypeStr, recommendType);
+            if (shared != null) {
+                log.info("推荐结果由其他节点计算: key={}", key);
+                return shared;
+            }
+            log.warn("等待其他节点计算推荐结果超时，本地计算: key={}", key);
+            return computeRecommend(request, startNanos);
         }
 
-        // 热门推荐
-        if (recommendType == null || "popular".equals(recommendType)) {
-            futures.add(CompletableFuture.supplyAsync(() -> 
-                recommendHotInternal(contentTypeStr, limit), 
-                taskExecutor));
+        try {
+            // 获得锁后再次检查，其他节点可能刚刚写入
+            RecommendResponse cached = getCachedRecommend(userId, contentTypeStr, recommendType);
+            return cached != null ? cached : computeRecommend(request, startNanos);
+        } finally {
+            cacheService.unlock(key, token);
         }
+    }
 
-        // 等待所有任务完成
-        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+    /**
+     * 轮询等待推荐结果缓存
+     */
+    private RecommendResponse waitForRecommend(Long userId, String contentType, String recommendType) {
+        long deadline = System.currentTimeMillis() + lockWaitMs;
+        while (System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(25);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+            RecommendResponse cached = getCachedRecommend(userId, contentType, recommendType);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        return null;
+    }
 
-        // 5. 合并结果
-        List<RecommendItem> allItems = futures.stream()
-            .flatMap(future -> future.join().stream())
-            .collect(Collectors.toList());
+    /**
+     * 执行推荐流水线并写入缓存
+     * 画像与历史未能在请求截止时间前加载完成，或MySQL舱壁已满无法加载时，改为返回热门推荐（负载削减）
+     *
+     * @param startNanos 请求开始时间（{@link System#nanoTime()} 基准），召回截止时间由此起计
+     */
+    private RecommendResponse computeRecommend(RecommendRequest request, long startNanos) {
+        List<ContentType> types = ContentType.fromString(request.getContentType()).expand();
+        if (degradationController.currentMode() == DegradationMode.HOT_ONLY) {
+            return recommendHotOnly(request, types);
+        }
+        RecallResult recall;
+        try {
+            recall = recallCandidates(request, types, Collections.emptyMap(), Collections.emptyMap(), startNanos);
+        } catch (DeadlineExceededException | Bulkhead.BulkheadFullException e) {
+            log.warn("{}，降级为热门推荐: userId={}", e.getMessage(), request.getUserId());
+            return recommendHotOnly(request, types);
+        }
+        List<RecommendItem> candidates = hydrate(recall.candidateIds());
+        return rankAndCache(request, recall, candidates);
+    }
 
-        // 6. 去重并排序
-        List<RecommendItem> resultItems = deduplicateAndRank(allItems, limit);
+    /**
+     * HOT_ONLY 降级：不加载画像与历史、不排序，直接返回缓存的热门内容（混合推荐时各类型均分交错），短期缓存
+     */
+    private RecommendResponse recommendHotOnly(RecommendRequest request, List<ContentType> types) {
+        long start = System.currentTimeMillis();
+        int limit = request.getLimit();
+        List<RecommendItem> items = new ArrayList<>();
+        Map<ContentType, Double> quotas = new EnumMap<>(ContentType.class);
+        for (ContentType type : types) {
+            try {
+                items.addAll(convertToRecommendItems(recallHot(type, hotRecallCount), type, limit));
+            } catch (Bulkhead.BulkheadFullException e) {
+                // 热门列表或卡片需要加载而MySQL舱壁已满时跳过该类型
+                log.warn("热门推荐加载失败，已跳过: contentType={}, error={}", type.getCode(), e.getMessage());
+            }
+            quotas.put(type, 1.0 / types.size());
+        }
+        List<RecommendItem> resultItems = types.size() > 1
+            ? interleave(items, quotas, limit)
+            : new ArrayList<>(items.subList(0, Math.min(limit, items.size())));
 
-        // 7. 构建响应
         RecommendResponse response = RecommendResponse.builder()
                 .items(resultItems)
+                .channels(List.of("hot"))
+                .partial(true)
+                .degradeMode(DegradationMode.HOT_ONLY.getCode())
+                .timestamp(System.currentTimeMillis())
+                .build();
+        log.info("降级为热门推荐: userId={}, 返回={}", request.getUserId(), resultItems.size());
+        cacheRecommend(request, response, System.currentTimeMillis() - start, 1);
+        return response;
+    }
+
+    /**
+     * 会话内分页推荐
+     * 会话首页运行一次完整流水线，生成 sessionListSize 条排序列表打包存入Redis；
+     * 之后每页只需一次 GETRANGE 读取本页及其后 sessionRefillThreshold 条，
+     * 读到的条目不足说明游标接近列表末尾，此时在后台排除已生成内容补充列表。
+     */
+    private RecommendResponse recommendSession(RecommendRequest request, long startNanos) {
+        Long userId = request.getUserId();
+        int limit = request.getLimit();
+        String sessionId;
+        int offset;
+        if (request.getCursor() != null) {
+            RankedListCodec.Cursor cursor = RankedListCodec.decodeCursor(request.getCursor());
+            sessionId = cursor.sessionId();
+            offset = cursor.offset();
+        } else {
+            sessionId = request.getSessionId();
+            offset = 0;
+        }
+        String key = cacheService.buildSessionListKey(userId, request.getContentType(), sessionId);
+
+        int window = limit + sessionRefillThreshold;
+        List<RankedListCodec.Entry> entries;
+        try {
+            if (request.getCursor() == null) {
+                // 新会话或下拉刷新：重新生成列表
+                cacheService.deleteSessionList(key);
+                sessionFlight.execute(key, () -> fillSessionList(key, request, startNanos));
+            }
+
+            entries = readSessionList(key, offset, window);
+            if (entries.isEmpty() && request.getCursor() != null) {
+                // 列表已读完：同步补充后在原偏移处重读。
+                // 列表已过期：重新生成的列表从0开始，改为从头读取，游标随之重置；
+                // 已展示过的内容由曝光过滤器在召回时排除
+                boolean expired = redisBulkhead.call(() -> cacheService.getSessionListLength(key)) == 0;
+                sessionFlight.execute(key, () -> fillSessionList(key, request, startNanos));
+                if (expired) {
+                    log.info("会话排序列表已过期，重新生成并从头读取: key={}, offset={}", key, offset);
+                    offset = 0;
+                }
+                entries = readSessionList(key, offset, window);
+            } else if (entries.size() < window) {
+                refillSessionListAsync(key, request);
+            }
+        } catch (DeadlineExceededException | Bulkhead.BulkheadFullException e) {
+            log.warn("{}，会话分页降级为热门推荐: userId={}", e.getMessage(), userId);
+            return recommendHotOnly(request, ContentType.fromString(request.getContentType()).expand());
+        }
+
+        List<RankedListCodec.Entry> page = entries.subList(0, Math.min(limit, entries.size()));
+        List<RecommendItem> items = loadSessionPage(page);
+        log.info("会话分页推荐: userId={}, sessionId={}, offset={}, 返回={}", userId, sessionId, offset, items.size());
+
+        return RecommendResponse.builder()
+                .items(items)
+                .nextCursor(page.isEmpty() ? null : RankedListCodec.encodeCursor(sessionId, offset + page.size()))
                 .timestamp(System.currentTimeMillis())
                 .build();
+    }
+
+    /**
+     * 从偏移处读取至多 count 条会话列表条目
+     */
+    private List<RankedListCodec.Entry> readSessionList(String key, int offset, int count) {
+        long start = (long) offset * RankedListCodec.ENTRY_BYTES;
+        long end = start + (long) count * RankedListCodec.ENTRY_BYTES - 1;
+        return RankedListCodec.decode(redisBulkhead.call(() -> cacheService.getSessionListRange(key, start, end)));
+    }
+
+    /**
+     * 后台补充会话列表，跨节点通过分布式锁避免重复追加
+     */
+    private void refillSessionListAsync(String key, RecommendRequest request) {
+        virtualThreadExecutor.execute(() -> {
+            String lockKey = key + ":refill";
+            String token = cacheService.tryLock(lockKey, lockTtlMs);
+            if (token == null) {
+                return;
+            }
+            try {
+                sessionFlight.execute(key, () -> fillSessionList(key, request, System.nanoTime()));
+            } catch (Exception e) {
+                log.warn("补充会话排序列表失败: key={}", key, e);
+            } finally {
+                cacheService.unlock(lockKey, token);
+            }
+        });
+    }
+
+    /**
+     * 运行推荐流水线生成 sessionListSize 条排序结果追加到会话列表，排除列表中已有的内容
+     *
+     * @param startNanos 请求开始时间，召回截止时间由此起计
+     * @return 追加的条目数，列表已达 sessionMaxSize 时为0
+     */
+    private Integer fillSessionList(String key, RecommendRequest request, long startNanos) {
+        List<RankedListCodec.Entry> existing = RankedListCodec.decode(cacheService.getSessionList(key));
+        int size = Math.min(sessionListSize, sessionMaxSize - existing.size());
+        if (size <= 0) {
+            return 0;
+        }
+        Map<ContentType, Set<Long>> exclude = new EnumMap<>(ContentType.class);
+        for (RankedListCodec.Entry entry : existing) {
+            exclude.computeIfAbsent(entry.contentType(), type -> new HashSet<>()).add(entry.contentId());
+        }
+
+        RecommendRequest listRequest = new RecommendRequest();
+        listRequest.setUserId(request.getUserId());
+        listRequest.setContentType(request.getContentType());
+        listRequest.setLimit(size);
+        listRequest.setDevice(request.getDevice());
+        listRequest.setRecommendType(request.getRecommendType());
+
+        List<ContentType> types = ContentType.fromString(request.getContentType()).expand();
+        RecallResult recall = recallCandidates(listRequest, types, Collections.emptyMap(), exclude, startNanos);
+        List<RecommendItem> ranked = rank(listRequest, recall, hydrate(recall.candidateIds()));
+
+        List<RankedListCodec.Entry> entries = new ArrayList<>(ranked.size());
+        for (RecommendItem item : ranked) {
+            float score = item.getScore() != null ? item.getScore().floatValue() : 0f;
+            entries.add(new RankedListCodec.Entry(
+                ContentType.fromString(item.getContentType()), item.getContentId(), score));
+        }
+        if (!entries.isEmpty()) {
+            cacheService.appendSessionList(key, RankedListCodec.encode(entries), sessionTtl);
+        }
+        log.info("生成会话排序列表: key={}, 已有={}, 追加={}", key, existing.size(), entries.size());
+        return entries.size();
+    }
+
+    /**
+     * 加载一页会话列表条目的内容卡片，保持列表顺序与存储的得分
+     */
+    private List<RecommendItem> loadSessionPage(List<RankedListCodec.Entry> page) {
+        Map<ContentType, List<Long>> ids = new EnumMap<>(ContentType.class);
+        for (RankedListCodec.Entry entry : page) {
+            ids.computeIfAbsent(entry.contentType(), type -> new ArrayList<>()).add(entry.contentId());
+        }
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<String, RecommendItem> loaded = new HashMap<>();
+        for (RecommendItem item : hydrate(ids)) {
+            loaded.put(item.getContentType() + ":" + item.getContentId(), item);
+        }
+        List<RecommendItem> items = new ArrayList<>(page.size());
+        for (RankedListCodec.Entry entry : page) {
+            RecommendItem item = loaded.get(entry.contentType().getCode() + ":" + entry.contentId());
+            if (item != null) {
+                item.setScore((double) entry.score());
+                items.add(item);
+            }
+        }
+        return items;
+    }
+
+    /**
+     * 召回与粗排
+     * 混合推荐（all）时用户画像与历史只加载一次，各内容类型的召回通道在同一作用域内并行，
+     * 粗排按类型配额分配候选集规模。
+     *
+     * @param types 召回的内容类型
+     * @param sharedHot 批量推荐时各用户共享的热门召回结果，缺失的类型在召回作用域内单独加载
+     * @param exclude 除历史内容外需要排除的内容（如会话列表中已生成的内容）
+     * @param startNanos 请求开始时间（{@link System#nanoTime()} 基准），召回截止时间由此起计
+     * @throws DeadlineExceededException 画像或历史未能在截止时间前加载完成
+     * @throws Bulkhead.BulkheadFullException 画像或历史加载时MySQL舱壁已满
+     */
+    private RecallResult recallCandidates(RecommendRequest request, List<ContentType> types,
+                                          Map<ContentType, Map<Long, Double>> sharedHot,
+                                          Map<ContentType, Set<Long>> exclude, long startNanos) {
+        Long userId = request.getUserId();
+        String recommendType = request.getRecommendType();
+        boolean mixed = types.size() > 1;
+        DegradationMode mode = degradationController.currentMode();
+        long startedAt = System.currentTimeMillis();
+        long requestDeadline = startNanos + TimeUnit.MILLISECONDS.toNanos(recallDeadlineMs);
+
+        // 2-3. 并行获取用户画像、历史内容与曝光过滤器，画像或历史失败立即取消其余任务；
+        // 曝光过滤器为可选任务，加载失败或超过截止时间时不做曝光过滤
+        UserProfile userProfile;
+        Map<ContentType, Set<Long>> history;
+        ImpressionBloomFilter.Snapshot seen;
+        try (TaskScope<Object> scope = new TaskScope<>(virtualThreadExecutor)) {
+            TaskScope.Subtask<Object> profileTask = scope.forkRequired("profile", () ->
+                dbCall(() -> userProfileService.getByUserId(userId)));
+            TaskScope.Subtask<Object> historyTask = scope.forkRequired("history", () ->
+                dbCall(() -> loadHistory(userId, types)));
+            TaskScope.Subtask<Object> seenTask = scope.fork("seen", () ->
+                redisBulkhead.call(() -> impressionService.loadSeenFilter(userId)));
+            scope.joinUntil(requestDeadline);
+            scope.throwIfFailed();
+            if (profileTask.state() != TaskScope.Subtask.State.SUCCESS
+                || historyTask.state() != TaskScope.Subtask.State.SUCCESS) {
+                throw new DeadlineExceededException("用户画像与历史加载超过截止时间");
+            }
+            userProfile = (UserProfile) profileTask.get();
+            @SuppressWarnings("unchecked")
+            Map<ContentType, Set<Long>> loaded = (Map<ContentType, Set<Long>>) historyTask.get();
+            history = loaded;
+            seen = seenTask.state() == TaskScope.Subtask.State.SUCCESS
+                ? (ImpressionBloomFilter.Snapshot) seenTask.get() : null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        }
+        // 历史行为不足的用户按新用户权重融合召回通道（偏重基于内容的召回）
+        boolean newUser = history.values().stream().mapToInt(Set::size).sum() < newUserHistory;
+        for (Map.Entry<ContentType, Set<Long>> entry : exclude.entrySet()) {
+            history.computeIfAbsent(entry.getKey(), key -> new HashSet<>()).addAll(entry.getValue());
+        }
+        Map<String, Double> interestTags = extractInterestTags(userProfile);
+        Map<ContentType, Double> quotas = mixed ? contentQuotas(userProfile, types) : null;
+
+        // 4. 召回：各类型、各通道在作用域内并行，按各自预算截断；超出通道时限或请求截止时间的通道被取消并忽略。
+        // 降级时依次跳过协同过滤、基于内容的相似度召回
+        long stageStart = System.currentTimeMillis();
+        boolean similarity = mode.ordinal() < DegradationMode.NO_SIMILARITY.ordinal();
+        boolean userCf = mode == DegradationMode.FULL;
+        boolean personal = recommendType == null || "personal".equals(recommendType);
+        boolean popular = recommendType == null || "popular".equals(recommendType);
+        Map<ContentType, Map<String, Map<Long, Double>>> channels = new EnumMap<>(ContentType.class);
+        List<String> contributed = new ArrayList<>();
+        boolean partial;
+
+        try (TaskScope<Map<Long, Double>> scope = new TaskScope<>(virtualThreadExecutor)) {
+            List<TaskScope.Subtask<Map<Long, Double>>> subtasks = new ArrayList<>();
+            Map<String, Long> timeouts = new HashMap<>();
+
+            for (ContentType type : types) {
+                String prefix = mixed ? type.getCode() + ":" : "";
+                List<Long> typeHistory = new ArrayList<>(history.getOrDefault(type, Collections.emptySet()));
+                if (personal && similarity) {
+                    subtasks.add(scope.fork(prefix + "content", () -> dbCall(() ->
+                        recallByContent(type, interestTags, typeHistory, contentRecallCount))));
+                    timeouts.put(prefix + "content", contentRecallTimeoutMs);
+                }
+                if (personal && userCf) {
+                    subtasks.add(scope.fork(prefix + "cf", () -> dbCall(() ->
+                        recallByCollaborativeFiltering(userId, type.getCode(), cfRecallCount))));
+                    timeouts.put(prefix + "cf", cfRecallTimeoutMs);
+                }
+                // 相似度召回被降级跳过时，即使只请求个性化推荐也保留热门召回兜底
+                if ((popular || !similarity) && !sharedHot.containsKey(type)) {
+                    // 热门列表通常命中本地缓存，只有加载时才占用MySQL舱壁
+                    subtasks.add(scope.fork(prefix + "hot", () -> recallHot(type, hotRecallCount)));
+                    timeouts.put(prefix + "hot", hotRecallTimeoutMs);
+                }
+            }
+
+            List<Map<Long, Double>> results = new ArrayList<>();
+            List<String> names = new ArrayList<>();
+            partial = awaitRecall(scope, subtasks, timeouts, System.nanoTime(), requestDeadline, results, names);
+            for (int i = 0; i < names.size(); i++) {
+                String name = names.get(i);
+                int separator = name.indexOf(':');
+                ContentType type = mixed ? ContentType.fromString(name.substring(0, separator)) : types.get(0);
+                channels.computeIfAbsent(type, key -> new LinkedHashMap<>())
+                    .put(name.substring(separator + 1), results.get(i));
+            }
+            contributed.addAll(names);
+        }
+        if (popular || !similarity) {
+            for (ContentType type : types) {
+                Map<Long, Double> hot = sharedHot.get(type);
+                if (hot != null) {
+                    channels.computeIfAbsent(type, key -> new LinkedHashMap<>()).put("hot", hot);
+                    contributed.add(mixed ? type.getCode() + ":hot" : "hot");
+                }
+            }
+        }
+        long recallCost = System.currentTimeMillis() - stageStart;
+
+        // 5. 粗排：通道分数归一化后按新/老用户权重融合，过滤历史与已曝光内容，
+        // 阈值算法选出候选集（混合推荐按配额分配），只有入选的候选进入加载与精排
+        stageStart = System.currentTimeMillis();
+        Map<ContentType, List<Long>> candidateIds = new EnumMap<>(ContentType.class);
+        int recalled = 0;
+        for (ContentType type : types) {
+            Map<String, Map<Long, Double>> typeChannels = channels.getOrDefault(type, Collections.emptyMap());
+            int size = mixed
+                ? Math.max(request.getLimit(), (int) Math.ceil(candidateSize * quotas.get(type)))
+                : candidateSize;
+            candidateIds.put(type, preRank(typeChannels, newUser, history.getOrDefault(type, Collections.emptySet()),
+                seen, type, size));
+            recalled += typeChannels.values().stream().mapToInt(Map::size).sum();
+        }
+        long preRankCost = System.currentTimeMillis() - stageStart;
+
+        return new RecallResult(candidateIds, quotas, contributed, partial, mode, recalled, recallCost, preRankCost,
+            startedAt);
+    }
+
+    /**
+     * 加载用户历史内容ID，按内容类型分组
+     * 混合推荐时一次查询所有类型的历史
+     */
+    private Map<ContentType, Set<Long>> loadHistory(Long userId, List<ContentType> types) {
+        Map<ContentType, Set<Long>> history = new EnumMap<>(ContentType.class);
+        if (types.size() == 1) {
+            history.put(types.get(0), new HashSet<>(
+                userBehaviorMapper.selectHistoryContentIds(userId, types.get(0).getCode(), 100)));
+            return history;
+        }
+        for (UserBehavior behavior : userBehaviorMapper.selectHistoryContents(userId, 100 * types.size())) {
+            try {
+                history.computeIfAbsent(ContentType.fromString(behavior.getContentType()), key -> new HashSet<>())
+                    .add(behavior.getContentId());
+            } catch (IllegalArgumentException e) {
+                log.debug("忽略未知内容类型的历史行为: {}", behavior.getContentType());
+            }
+        }
+        return history;
+    }
+
+    /**
+     * 混合推荐中各内容类型的配额
+     * 按用户画像的内容类型偏好分配，每个类型保留最低配额，无偏好时均分
+     */
+    private Map<ContentType, Double> contentQuotas(UserProfile userProfile, List<ContentType> types) {
+        Map<String, Double> preference = Collections.emptyMap();
+        try {
+            if (userProfile != null && userProfile.getContentPreference() != null
+                && !userProfile.getContentPreference().isBlank()) {
+                preference = objectMapper.readValue(userProfile.getContentPreference(),
+                    new TypeReference<Map<String, Double>>() {});
+            }
+        } catch (Exception e) {
+            log.warn("解析内容类型偏好失败: userId={}", userProfile.getUserId());
+        }
+
+        double total = 0.0;
+        for (ContentType type : types) {
+            total += Math.max(0.0, preference.getOrDefault(type.getCode(), 0.0));
+        }
+        double floor = Math.min(mixedMinShare, 1.0 / types.size());
+        double free = 1.0 - floor * types.size();
+
+        Map<ContentType, Double> quotas = new EnumMap<>(ContentType.class);
+        for (ContentType type : types) {
+            double weight = total > 0
+                ? Math.max(0.0, preference.getOrDefault(type.getCode(), 0.0)) / total
+                : 1.0 / types.size();
+            quotas.put(type, floor + free * weight);
+        }
+        return quotas;
+    }
 
-        // 8. 缓存结果
-        cacheService.setRecommend(userId, contentTypeStr, recommendType, response, 30, TimeUnit.MINUTES);
+    /**
+     * 按配额交错排列各类型推荐项
+     * 每个位置选择 配额 × 已排位置数 − 已选数量 最大的类型（平滑加权轮询），类型内保持原有顺序；
+     * 某类型候选用尽时由其他类型补足。
+     */
+    private List<RecommendItem> interleave(List<RecommendItem> items, Map<ContentType, Double> quotas, int limit) {
+        Map<ContentType, Deque<RecommendItem>> queues = new EnumMap<>(ContentType.class);
+        for (ContentType type : quotas.keySet()) {
+            queues.put(type, new ArrayDeque<>());
+        }
+        for (RecommendItem item : items) {
+            Deque<RecommendItem> queue = queues.get(ContentType.fromString(item.getContentType()));
+            if (queue != null) {
+                queue.addLast(item);
+            }
+        }
+
+        Map<ContentType, Integer> taken = new EnumMap<>(ContentType.class);
+        List<RecommendItem> result = new ArrayList<>(limit);
+        while (result.size() < limit) {
+            ContentType best = null;
+            double bestDeficit = Double.NEGATIVE_INFINITY;
+            for (Map.Entry<ContentType, Double> entry : quotas.entrySet()) {
+                ContentType type = entry.getKey();
+                if (queues.get(type).isEmpty()) {
+                    continue;
+                }
+                double deficit = entry.getValue() * (result.size() + 1) - taken.getOrDefault(type, 0);
+                if (deficit > bestDeficit || (deficit == bestDeficit && entry.getValue() > quotas.get(best))) {
+                    bestDeficit = deficit;
+                    best = type;
+                }
+            }
+            if (best == null) {
+                break;
+            }
+            result.add(queues.get(best).pollFirst());
+            taken.merge(best, 1, Integer::sum);
+        }
+        return result;
+    }
+
+    /**
+     * 精排、重排并写入缓存
+     *
+     * @param candidates 已加载的候选内容，顺序与粗排结果一致；打分会修改其得分
+     */
+    private RecommendResponse rankAndCache(RecommendRequest request, RecallResult recall,
+                                           List<RecommendItem> candidates) {
+        List<RecommendItem> resultItems = rank(request, recall, candidates);
+
+        // 8. 构建响应
+        RecommendResponse response = RecommendResponse.builder()
+                .items(resultItems)
+                .channels(recall.channels())
+                .partial(recall.partial())
+                .degradeMode(recall.mode().getCode())
+                .timestamp(System.currentTimeMillis())
+                .build();
+
+        // 9. 缓存结果：部分结果与降级结果只短暂缓存，通道恢复后尽快得到完整结果
+        boolean degraded = recall.partial() || recall.mode() != DegradationMode.FULL;
+        cacheRecommend(request, response, System.currentTimeMillis() - recall.startedAt(), degraded ? 1 : 30);
 
         return response;
     }
 
+    /**
+     * 精排与重排，截断到请求数量
+     *
+     * @param candidates 已加载的候选内容，顺序与粗排结果一致；打分会修改其得分
+     */
+    private List<RecommendItem> rank(RecommendRequest request, RecallResult recall,
+                                     List<RecommendItem> candidates) {
+        Long userId = request.getUserId();
+        int limit = request.getLimit();
+        Map<ContentType, Double> quotas = recall.quotas();
+
+        // 6. 精排：列式打分，截断到重排规模（混合推荐各类型按配额分别截断，保证交错时各类型都有候选）
+        long stageStart = System.currentTimeMillis();
+        List<RecommendItem> ranked;
+        if (quotas == null) {
+            int[] order = rankingService.rankBatch(candidates, userId, Math.max(limit, rerankSize));
+            ranked = new ArrayList<>(order.length);
+            for (int index : order) {
+                ranked.add(candidates.get(index));
+            }
+        } else {
+            int[] order = rankingService.rankBatch(candidates, userId, candidates.size());
+            Map<String, Integer> remaining = new HashMap<>();
+            quotas.forEach((type, quota) ->
+                remaining.put(type.getCode(), Math.max(limit, (int) Math.ceil(rerankSize * quota))));
+            ranked = new ArrayList<>();
+            for (int index : order) {
+                RecommendItem item = candidates.get(index);
+                if (remaining.merge(item.getContentType(), -1, Integer::sum) >= 0) {
+                    ranked.add(item);
+                }
+            }
+        }
+        long rankCost = System.currentTimeMillis() - stageStart;
+
+        // 7. 重排：上下文调整与多样性处理，截断到请求数量（混合推荐按配额交错）
+        stageStart = System.currentTimeMillis();
+        RankingService.RankingContext context = new RankingService.RankingContext(
+            request.getDevice(), String.valueOf(LocalTime.now().getHour()), null, limit);
+        List<RecommendItem> reranked = rankingService.rerank(ranked, userId, context);
+        List<RecommendItem> resultItems;
+        if (quotas == null) {
+            List<RecommendItem> diversified = rankingService.diversify(reranked, diversityLevel, limit);
+            resultItems = new ArrayList<>(diversified.subList(0, Math.min(limit, diversified.size())));
+        } else {
+            List<RecommendItem> diversified = rankingService.diversify(reranked, diversityLevel, reranked.size());
+            resultItems = interleave(diversified, quotas, limit);
+        }
+        long rerankCost = System.currentTimeMillis() - stageStart;
+
+        log.info("推荐流水线完成: userId={}, 通道={}{}, 召回={}({}ms), 粗排={}({}ms), 精排={}({}ms), 重排={}({}ms)",
+                userId, recall.channels(), recall.partial() ? "(部分)" : "",
+                recall.recalled(), recall.recallCost(),
+                candidates.size(), recall.preRankCost(), ranked.size(), rankCost,
+                resultItems.size(), rerankCost);
+        return resultItems;
+    }
+
+    /**
+     * 召回与粗排结果
+     *
+     * @param candidateIds 各内容类型的粗排候选ID
+     * @param quotas 混合推荐中各类型的配额，单一类型时为null
+     * @param mode 召回时的降级模式
+     * @param startedAt 开始计算的时间，用于记录推荐结果的计算耗时
+     */
+    private record RecallResult(Map<ContentType, List<Long>> candidateIds, Map<ContentType, Double> quotas,
+                                List<String> channels, boolean partial, DegradationMode mode,
+                                int recalled, long recallCost, long preRankCost, long startedAt) {
+    }
+
+    @Override
+    public BatchRecommendResponse recommendBatch(BatchRecommendRequest request) {
+        List<Long> userIds = new ArrayList<>(new LinkedHashSet<>(request.getUserIds()));
+        String contentTypeStr = request.getContentType();
+        String recommendType = request.getRecommendType();
+        List<ContentType> types = ContentType.fromString(contentTypeStr).expand();
+        long start = System.currentTimeMillis();
+
+        log.info("执行批量推荐，用户数: {}, 内容类型: {}, 推荐类型: {}", userIds.size(), contentTypeStr, recommendType);
+
+        // 所有用户共享的输入只加载一次：热门列表、候选内容卡片
+        Map<ContentType, Map<Long, Double>> sharedHot = new EnumMap<>(ContentType.class);
+        if (recommendType == null || "popular".equals(recommendType)) {
+            for (ContentType type : types) {
+                sharedHot.put(type, recallHot(type, hotRecallCount));
+            }
+        }
+        Map<ContentType, Map<Long, RecommendItem>> cards = new EnumMap<>(ContentType.class);
+        for (ContentType type : types) {
+            cards.put(type, new HashMap<>());
+        }
+        // 单个用户召回同时占用的数据库调用数：画像与历史并行（2个），之后每个类型的内容、协同过滤通道并行
+        // （热门为共享结果或仅在降级时单独召回），两个阶段先后执行，按较大者占用批量预算
+        int recallPermits = Math.min(batchDbPermitCount, Math.max(2, 2 * types.size()));
+        // 同时精排的用户数；精排只使用已加载的卡片与缓存中的画像，不访问数据库
+        Semaphore rankGate = new Semaphore(batchParallelism);
+
+        Map<Long, RecommendResponse> results = new LinkedHashMap<>();
+        List<Long> failedUserIds = new ArrayList<>();
+        int computed = 0;
+        int cacheHits = 0;
+
+        for (int from = 0; from < userIds.size(); from += batchChunkSize) {
+            List<Long> chunk = userIds.subList(from, Math.min(from + batchChunkSize, userIds.size()));
+            Map<Long, RecommendRequest> requests = new LinkedHashMap<>();
+            for (Long userId : chunk) {
+                requests.put(userId, toUserRequest(request, userId));
+            }
+
+            // 1. 整批一次读取推荐缓存（MGET），未命中的用户并行召回与粗排
+            Map<Long, RecommendResponse> cachedChunk = getCachedRecommends(chunk, contentTypeStr, recommendType);
+            results.putAll(cachedChunk);
+            cacheHits += cachedChunk.size();
+            Map<Long, RecallResult> recalls = new LinkedHashMap<>();
+            try (TaskScope<RecallResult> scope = new TaskScope<>(virtualThreadExecutor)) {
+                Map<Long, TaskScope.Subtask<RecallResult>> subtasks = new LinkedHashMap<>();
+                for (RecommendRequest userRequest : requests.values()) {
+                    if (cachedChunk.containsKey(userRequest.getUserId())) {
+                        continue;
+                    }
+                    batchDbPermits.acquire(recallPermits);
+                    subtasks.put(userRequest.getUserId(), scope.fork("recall-" + userRequest.getUserId(), () -> {
+                        try {
+                            return recallCandidates(userRequest, types, sharedHot, Collections.emptyMap(),
+                                System.nanoTime());
+                        } finally {
+                            batchDbPermits.release(recallPermits);
+                        }
+                    }));
+                }
+                scope.join();
+                subtasks.forEach((userId, subtask) -> {
+                    if (subtask.state() == TaskScope.Subtask.State.SUCCESS) {
+                        recalls.put(userId, subtask.get());
+                    } else {
+                        log.error("批量推荐召回失败: userId={}", userId, subtask.exception());
+                        failedUserIds.add(userId);
+                    }
+                });
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CompletionException(e);
+            }
+
+            // 2. 合并本批次所有用户的候选，只加载尚未加载过的内容卡片；
+            // 舱壁已满时本批次已召回的用户标记为失败，继续处理下一批
+            try {
+                loadChunkCards(recalls.values(), types, cards);
+            } catch (Bulkhead.BulkheadFullException e) {
+                log.warn("批量推荐加载内容卡片失败，本批次用户标记为失败: users={}, error={}",
+                    recalls.size(), e.getMessage());
+                failedUserIds.addAll(recalls.keySet());
+                continue;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CompletionException(e);
+            }
+
+            // 3. 各用户并行精排、重排；候选为共享卡片的副本，打分互不影响
+            try (TaskScope<RecommendResponse> scope = new TaskScope<>(virtualThreadExecutor)) {
+                Map<Long, TaskScope.Subtask<RecommendResponse>> subtasks = new LinkedHashMap<>();
+                for (Map.Entry<Long, RecallResult> entry : recalls.entrySet()) {
+                    Long userId = entry.getKey();
+                    RecallResult recall = entry.getValue();
+                    rankGate.acquire();
+                    subtasks.put(userId, scope.fork("rank-" + userId, () -> {
+                        try {
+                            List<RecommendItem> candidates = new ArrayList<>();
+                            recall.candidateIds().forEach((type, ids) -> {
+                                Map<Long, RecommendItem> typeCards = cards.get(type);
+                                for (Long id : ids) {
+                                    RecommendItem card = typeCards.get(id);
+                                    if (card != null) {
+                                        candidates.add(card.toBuilder().build());
+                                    }
+                                }
+                            });
+                            return rankAndCache(requests.get(userId), recall, candidates);
+                        } finally {
+                            rankGate.release();
+                        }
+                    }));
+                }
+                scope.join();
+                for (Map.Entry<Long, TaskScope.Subtask<RecommendResponse>> entry : subtasks.entrySet()) {
+                    TaskScope.Subtask<RecommendResponse> subtask = entry.getValue();
+                    if (subtask.state() == TaskScope.Subtask.State.SUCCESS) {
+                        results.put(entry.getKey(), subtask.get());
+                        computed++;
+                    } else {
+                        log.error("批量推荐排序失败: userId={}", entry.getKey(), subtask.exception());
+                        failedUserIds.add(entry.getKey());
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CompletionException(e);
+            }
+        }
+
+        long cost = Math.max(1L, System.currentTimeMillis() - start);
+        log.info("批量推荐完成: 用户数={}, 计算={}, 缓存命中={}, 失败={}, 内容卡片={}, 耗时={}ms, 吞吐={}用户/秒",
+                userIds.size(), computed, cacheHits, failedUserIds.size(),
+                cards.values().stream().mapToInt(Map::size).sum(), cost, userIds.size() * 1000L / cost);
+
+        return BatchRecommendResponse.builder()
+                .results(results)
+                .failedUserIds(failedUserIds)
+                .timestamp(System.currentTimeMillis())
+                .build();
+    }
+
+    /**
+     * 由批量请求构造单用户请求
+     */
+    private RecommendRequest toUserRequest(BatchRecommendRequest request, Long userId) {
+        RecommendRequest userRequest = new RecommendRequest();
+        userRequest.setUserId(userId);
+        userRequest.setContentType(request.getContentType());
+        userRequest.setLimit(request.getLimit());
+        userRequest.setDevice(request.getDevice());
+        userRequest.setRecommendType(request.getRecommendType());
+        return userRequest;
+    }
+
+    /**
+     * 合并一批用户的候选，加载尚未加载过的内容卡片
+     * 每次加载占用一个批量预算许可（等待可用），并经过MySQL舱壁
+     *
+     * @throws Bulkhead.BulkheadFullException MySQL舱壁已满
+     */
+    private void loadChunkCards(Collection<RecallResult> recalls, List<ContentType> types,
+                                Map<ContentType, Map<Long, RecommendItem>> cards) throws InterruptedException {
+        for (ContentType type : types) {
+            Map<Long, RecommendItem> typeCards = cards.get(type);
+            Set<Long> missing = new LinkedHashSet<>();
+            for (RecallResult recall : recalls) {
+                for (Long id : recall.candidateIds().getOrDefault(type, Collections.emptyList())) {
+                    if (!typeCards.containsKey(id)) {
+                        missing.add(id);
+                    }
+                }
+            }
+            if (missing.isEmpty()) {
+                continue;
+            }
+            batchDbPermits.acquire();
+            try {
+                // 未命中卡片缓存的ID由内容卡片服务在MySQL舱壁内加载
+                loadCards(missing, type, typeCards);
+            } finally {
+                batchDbPermits.release();
+            }
+        }
+    }
+
+    /**
+     * 批量加载内容卡片，每次最多 batchLoadSize 个ID
+     */
+    private void loadCards(Collection<Long> ids, ContentType contentType, Map<Long, RecommendItem> cards) {
+        List<Long> pending = new ArrayList<>(ids);
+        for (int from = 0; from < pending.size(); from += batchLoadSize) {
+            List<Long> slice = pending.subList(from, Math.min(from + batchLoadSize, pending.size()));
+            Map<Long, Double> ordered = new LinkedHashMap<>();
+            for (Long id : slice) {
+                ordered.put(id, 0.0);
+            }
+            for (RecommendItem item : convertToRecommendItems(ordered, contentType, slice.size())) {
+                cards.put(item.getContentId(), item);
+            }
+        }
+    }
+
     @Override
     public RecommendResponse recommendByContent(Long userId, String contentType, int limit) {
         log.info("执行基于内容的推荐，用户ID: {}, 内容类型: {}, 推荐数量: {}",
@@ -217,6 +1283,112 @@ public class RecommendServiceImpl implements RecommendService {
                 .build();
     }
 
+    @Override
+    public RecommendResponse recommendRelated(String contentType, Long contentId, int limit) {
+        ContentType type = ContentType.fromString(contentType);
+        if (type == ContentType.ALL) {
+            throw new IllegalArgumentException("相关推荐需要指定具体内容类型: " + contentType);
+        }
+
+        List<Long> relatedIds = getRelatedIds(type, contentId);
+        Map<Long, Double> ordered = new LinkedHashMap<>();
+        for (int rank = 0; rank < relatedIds.size() && ordered.size() < limit; rank++) {
+            ordered.put(relatedIds.get(rank), 1.0 - (double) rank / relatedIds.size());
+        }
+
+        return RecommendResponse.builder()
+                .items(convertToRecommendItems(ordered, type, limit))
+                .timestamp(System.currentTimeMillis())
+                .build();
+    }
+
+    /**
+     * 获取相关内容ID列表
+     * 离线任务未覆盖的内容（如新发布内容）在线计算一次并短期缓存，并发请求合并为一次计算
+     */
+    private List<Long> getRelatedIds(ContentType type, Long contentId) {
+        String cached;
+        try {
+            cached = redisBulkhead.call(() -> cacheService.getRelated(type.getCode(), contentId));
+        } catch (Bulkhead.BulkheadFullException e) {
+            cached = null;
+        }
+        if (cached != null) {
+            return parseIds(cached);
+        }
+
+        // 离线结果缺失时在线计算，经MySQL舱壁；舱壁已满时返回空列表且不缓存
+        return relatedFlight.execute(type.getCode() + ":" + contentId, () -> {
+            List<Long> ids;
+            try {
+                ids = dbCall(() -> computeRelatedIds(type, contentId));
+            } catch (Bulkhead.BulkheadFullException e) {
+                log.warn("在线计算相关内容被舱壁拒绝: contentType={}, contentId={}", type.getCode(), contentId);
+                return Collections.emptyList();
+            }
+            cacheService.setRelated(type.getCode(), contentId,
+                ids.stream().map(String::valueOf).collect(Collectors.joining(",")), relatedFallbackTtl);
+            return ids;
+        });
+    }
+
+    /**
+     * 在线计算相关内容
+     */
+    private List<Long> computeRelatedIds(ContentType type, Long contentId) {
+        List<RecommendItem> items = switch (type) {
+            case ARTICLE -> {
+                Article article = articleMapper.selectById(contentId);
+                yield article != null ? recommendRelatedArticle(article, relatedTopN) : Collections.emptyList();
+            }
+            case IMAGE -> {
+                Image image = imageMapper.selectById(contentId);
+                yield image != null ? recommendRelatedImage(image, relatedTopN) : Collections.emptyList();
+            }
+            case VIDEO -> {
+                Video video = videoMapper.selectById(contentId);
+                yield video != null ? recommendRelatedVideo(video, relatedTopN) : Collections.emptyList();
+            }
+            default -> Collections.emptyList();
+        };
+        return items.stream().map(RecommendItem::getContentId).collect(Collectors.toList());
+    }
+
+    /**
+     * 解析逗号分隔的ID列表
+     */
+    private List<Long> parseIds(String ids) {
+        if (ids.isBlank()) {
+            return Collections.emptyList();
+        }
+        List<Long> result = new ArrayList<>();
+        for (String id : ids.split(",")) {
+            try {
+                result.add(Long.parseLong(id.trim()));
+            } catch (NumberFormatException e) {
+                log.debug("忽略无效的内容ID: {}", id);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public RecommendResponse recommendVisuallySimilar(Long imageId, int limit) {
+        log.info("执行视觉相似图片推荐，图片ID: {}, 推荐数量: {}", imageId, limit);
+
+        List<RecommendItem> items = new ArrayList<>();
+        Image image = imageMapper.selectById(imageId);
+        if (image != null) {
+            Map<Long, Double> recommendations = visualRecallIndex.recommendSimilarImages(image, limit);
+            items = convertToRecommendItems(recommendations, ContentType.IMAGE, limit);
+        }
+
+        return RecommendResponse.builder()
+                .items(items)
+                .timestamp(System.currentTimeMillis())
+                .build();
+    }
+
     // ========== 私有方法 ==========
 
     /**
@@ -227,20 +1399,8 @@ public class RecommendServiceImpl implements RecommendService {
                                                             List<Long> historyContentIds,
                                                             int limit) {
         try {
-            // 基于标签推荐
-            Map<Long, Double> tagRecommendations = contentBasedRecommender.recommendByTags(
-                contentType, interestTags, limit);
-
-            // 基于相似内容推荐
-            Map<Long, Double> similarityRecommendations = contentBasedRecommender.recommendBySimilarity(
-                contentType, historyContentIds, historyContentIds, limit);
-
-            // 合并结果
-            Map<Long, Double> merged = new LinkedHashMap<>(tagRecommendations);
-            similarityRecommendations.forEach((id, score) -> 
-                merged.merge(id, score * 0.8, Double::sum));
-
-            return convertToRecommendItems(merged, contentType, limit);
+            Map<Long, Double> recommendations = recallByContent(contentType, interestTags, historyContentIds, limit);
+            return convertToRecommendItems(recommendations, contentType, limit);
         } catch (Exception e) {
             log.error("基于内容推荐失败: userId={}, contentType={}", userId, contentType, e);
             return Collections.emptyList();
@@ -253,7 +1413,7 @@ public class RecommendServiceImpl implements RecommendService {
     private List<RecommendItem> recommendByCollaborativeFilteringInternal(Long userId, String contentType, 
                                                                               int limit) {
         try {
-            Map<Long, Double> recommendations = collaborativeFiltering.hybridCF(userId, contentType, limit);
+            Map<Long, Double> recommendations = recallByCollaborativeFiltering(userId, contentType, limit);
             return convertToRecommendItems(recommendations, ContentType.fromString(contentType), limit);
         } catch (Exception e) {
             log.error("协同过滤推荐失败: userId={}, contentType={}", userId, contentType, e);
@@ -267,19 +1427,251 @@ public class RecommendServiceImpl implements RecommendService {
     private List<RecommendItem> recommendHotInternal(String contentType, int limit) {
         try {
             ContentType ct = ContentType.fromString(contentType);
-            Map<Long, Double> hotContentIds = switch (ct) {
-                case ARTICLE -> getHotArticleIds(limit);
-                case IMAGE -> getHotImageIds(limit);
-                case VIDEO -> getHotVideoIds(limit);
-            };
-
-            return convertToRecommendItems(hotContentIds, ct, limit);
+            return convertToRecommendItems(recallHot(ct, limit), ct, limit);
         } catch (Exception e) {
             log.error("热门推荐失败: contentType={}", contentType, e);
             return Collections.emptyList();
         }
     }
 
+    /**
+     * 在MySQL舱壁内执行数据库调用，并记录耗时（含舱壁等待）供降级控制器评估负载
+     */
+    private <T> T dbCall(Callable<T> call) {
+        long start = System.nanoTime();
+        try {
+            return mysqlBulkhead.call(call);
+        } finally {
+            degradationController.recordDbLatency(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * 读取推荐缓存，Redis舱壁已满时按未命中处理
+     */
+    private RecommendResponse getCachedRecommend(Long userId, String contentType, String recommendType) {
+        try {
+            return redisBulkhead.call(() -> cacheService.getRecommend(userId, contentType, recommendType));
+        } catch (Bulkhead.BulkheadFullException e) {
+            log.warn("Redis舱壁已满，跳过读取推荐缓存: userId={}", userId);
+            return null;
+        }
+    }
+
+    /**
+     * 批量读取推荐缓存，Redis舱壁已满时按全部未命中处理
+     */
+    private Map<Long, RecommendResponse> getCachedRecommends(List<Long> userIds, String contentType,
+                                                             String recommendType) {
+        try {
+            return redisBulkhead.call(() -> cacheService.getRecommends(userIds, contentType, recommendType));
+        } catch (Bulkhead.BulkheadFullException e) {
+            log.warn("Redis舱壁已满，跳过批量读取推荐缓存: size={}", userIds.size());
+            return Collections.emptyMap();
+        }
+    }
+
+    /**
+     * 等待召回子任务
+     * 每个通道的截止时间为 min(召回开始时间 + 通道时限, 请求截止时间)，按截止时间先后依次等待，
+     * 到期仍未完成的通道被取消（中断其虚拟线程，阻塞中的查询随之释放）并忽略。
+     *
+     * @param startNanos 召回开始时间
+     * @param requestDeadline 请求截止时间（自请求进入起计）
+     * @return 是否存在未贡献结果的通道（超时或失败）
+     */
+    private boolean awaitRecall(TaskScope<Map<Long, Double>> scope,
+                                List<TaskScope.Subtask<Map<Long, Double>>> subtasks,
+                                Map<String, Long> timeouts, long startNanos, long requestDeadline,
+                                List<Map<Long, Double>> channels, List<String> contributed) {
+        List<TaskScope.Subtask<Map<Long, Double>>> byDeadline = new ArrayList<>(subtasks);
+        byDeadline.sort(Comparator.comparingLong(subtask -> timeouts.getOrDefault(subtask.name(), recallDeadlineMs)));
+
+        for (TaskScope.Subtask<Map<Long, Double>> subtask : byDeadline) {
+            long timeoutMs = timeouts.getOrDefault(subtask.name(), recallDeadlineMs);
+            long deadline = Math.min(requestDeadline, startNanos + TimeUnit.MILLISECONDS.toNanos(timeoutMs));
+            try {
+                if (subtask.state() == TaskScope.Subtask.State.RUNNING) {
+                    scope.joinUntil(deadline);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return true;
+            }
+            if (subtask.state() == TaskScope.Subtask.State.RUNNING) {
+                subtask.cancel();
+                log.warn("召回通道超时，已取消: channel={}, budget={}ms", subtask.name(),
+                    TimeUnit.NANOSECONDS.toMillis(deadline - startNanos));
+            }
+        }
+
+        boolean partial = false;
+        for (TaskScope.Subtask<Map<Long, Double>> subtask : subtasks) {
+            switch (subtask.state()) {
+                case SUCCESS -> {
+                    Map<Long, Double> result = subtask.get();
+                    if (result != null) {
+                        channels.add(result);
+                        contributed.add(subtask.name());
+                    } else {
+                        partial = true;
+                    }
+                }
+                case FAILED -> {
+                    partial = true;
+                    log.error("召回通道执行失败: channel={}", subtask.name(), subtask.exception());
+                }
+                default -> partial = true;
+            }
+        }
+        return partial;
+    }
+
+    /**
+     * 内容召回：兴趣标签 + 历史相似内容
+     */
+    private Map<Long, Double> recallByContent(ContentType contentType, Map<String, Double> interestTags,
+                                              List<Long> historyContentIds, int budget) {
+        Map<Long, Double> tagRecommendations = contentBasedRecommender.recommendByTags(
+            contentType, interestTags, budget);
+
+        Map<Long, Double> similarityRecommendations = contentBasedRecommender.recommendBySimilarity(
+            contentType, historyContentIds, historyContentIds, budget);
+
+        Map<Long, Double> merged = new LinkedHashMap<>(tagRecommendations);
+        similarityRecommendations.forEach((id, score) ->
+            merged.merge(id, score * 0.8, Double::sum));
+
+        return topByScore(merged, budget);
+    }
+
+    /**
+     * 协同过滤召回
+     */
+    private Map<Long, Double> recallByCollaborativeFiltering(Long userId, String contentType, int budget) {
+        return topByScore(collaborativeFiltering.hybridCF(userId, contentType, budget), budget);
+    }
+
+    /**
+     * 热门召回，同一列表的并发加载合并为一次查询
+     */
+    private Map<Long, Double> recallHot(ContentType contentType, int budget) {
+        return hotLists.get(new HotKey(contentType, budget));
+    }
+
+    private Map<Long, Double> loadHot(ContentType contentType, int budget) {
+        return switch (contentType) {
+            case ARTICLE -> getHotArticleIds(budget);
+            case IMAGE -> getHotImageIds(budget);
+            case VIDEO -> getHotVideoIds(budget);
+            default -> new LinkedHashMap<>();
+        };
+    }
+
+    /**
+     * 热门列表缓存Key
+     */
+    private record HotKey(ContentType contentType, int budget) {
+    }
+
+    /**
+     * 粗排：各通道分数按通道最大值归一化，按新/老用户权重加权求和，过滤排除项与已曝光内容，
+     * 以阈值算法选出前 size 个，前 size 名确定后不再访问更深的召回结果
+     *
+     * @param channels 通道名称（content/cf/hot）到召回分数
+     * @param seen 曝光过滤器快照，为null时不做曝光过滤
+     */
+    private List<Long> preRank(Map<String, Map<Long, Double>> channels, boolean newUser, Set<Long> excludeIds,
+                               ImpressionBloomFilter.Snapshot seen, ContentType contentType, int size) {
+        List<ChannelFusion.Channel> fused = new ArrayList<>(channels.size());
+        channels.forEach((name, scores) -> fused.add(ChannelFusion.channel(name, channelWeight(name, newUser), scores)));
+
+        ChannelFusion.Result result = ChannelFusion.fuse(fused,
+            id -> !excludeIds.contains(id) && (seen == null || !seen.mightContain(contentType, id)), size);
+        log.debug("召回融合: contentType={}, 通道={}, 访问深度={}, 访问内容数={}, 入选={}",
+            contentType.getCode(), channels.keySet(), result.depth(), result.scanned(), result.ids().size());
+        return result.ids();
+    }
+
+    /**
+     * 召回通道的融合权重
+     */
+    private double channelWeight(String channel, boolean newUser) {
+        return switch (channel) {
+            case "content" -> newUser ? RecommendConstants.WEIGHT_CONTENT_NEW_USER
+                : RecommendConstants.WEIGHT_CONTENT_OLD_USER;
+            case "cf" -> newUser ? RecommendConstants.WEIGHT_CF_NEW_USER : RecommendConstants.WEIGHT_CF_OLD_USER;
+            default -> newUser ? RecommendConstants.WEIGHT_POPULARITY : RecommendConstants.WEIGHT_HOT;
+        };
+    }
+
+    /**
+     * 加载各类型候选内容，多个类型时并行加载
+     * 加载时间超过 hydrateTimeoutMs 时取消未完成的类型，只使用已加载的候选；加载失败的类型同样被跳过
+     */
+    private List<RecommendItem> hydrate(Map<ContentType, List<Long>> candidateIds) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(hydrateTimeoutMs);
+        List<RecommendItem> items = new ArrayList<>();
+        try (TaskScope<List<RecommendItem>> scope = new TaskScope<>(virtualThreadExecutor)) {
+            List<TaskScope.Subtask<List<RecommendItem>>> subtasks = new ArrayList<>();
+            // 卡片通常命中本地缓存，未命中时由内容卡片服务在MySQL舱壁内加载
+            candidateIds.forEach((type, ids) -> subtasks.add(scope.fork("hydrate-" + type.getCode(), () ->
+                hydrate(ids, type))));
+            scope.joinUntil(deadline);
+            for (TaskScope.Subtask<List<RecommendItem>> subtask : subtasks) {
+                switch (subtask.state()) {
+                    case SUCCESS -> items.addAll(subtask.get());
+                    case FAILED -> log.error("候选内容加载失败: {}", subtask.name(), subtask.exception());
+                    default -> log.warn("候选内容加载超时，已跳过: {}, budget={}ms", subtask.name(), hydrateTimeoutMs);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        }
+        return items;
+    }
+
+    /**
+     * 加载候选内容并保持候选顺序
+     */
+    private List<RecommendItem> hydrate(List<Long> candidateIds, ContentType contentType) {
+        if (candidateIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, Double> ordered = new LinkedHashMap<>();
+        for (Long id : candidateIds) {
+            ordered.put(id, 0.0);
+        }
+        Map<Long, RecommendItem> loaded = convertToRecommendItems(ordered, contentType, candidateIds.size())
+            .stream()
+            .collect(Collectors.toMap(RecommendItem::getContentId, item -> item, (a, b) -> a));
+
+        List<RecommendItem> items = new ArrayList<>(loaded.size());
+        for (Long id : candidateIds) {
+            RecommendItem item = loaded.get(id);
+            if (item != null) {
+                items.add(item);
+            }
+        }
+        return items;
+    }
+
+    /**
+     * 按分数取前N个
+     */
+    private Map<Long, Double> topByScore(Map<Long, Double> scores, int limit) {
+        return scores.entrySet().stream()
+            .sorted(Map.Entry.<Long, Double>comparingByValue().reversed())
+            .limit(limit)
+            .collect(Collectors.toMap(
+                Map.Entry::getKey,
+                Map.Entry::getValue,
+                (e1, e2) -> e1,
+                LinkedHashMap::new
+            ));
+    }
+
     /**
      * 相关文章推荐
      */
@@ -311,10 +1703,12 @@ public class RecommendServiceImpl implements RecommendService {
             Map<String, Double> tagWeights = tags.stream()
                 .collect(Collectors.toMap(tag -> tag, tag -> 1.0));
 
-            Map<Long, Double> recommendations = contentBasedRecommender.recommendByTags(
+            Map<Long, Double> tagRecommendations = contentBasedRecommender.recommendByTags(
                 ContentType.IMAGE, tagWeights, limit + 1);
 
-            recommendations.remove(image.getId());
+            // 融合视觉相似召回
+            Map<Long, Double> recommendations = mergeVisualRecall(tagRecommendations,
+                visualRecallIndex.recommendSimilarImages(image, limit), image.getId());
 
             return convertToRecommendItems(recommendations, ContentType.IMAGE, limit);
         } catch (Exception e) {
@@ -332,10 +1726,12 @@ public class RecommendServiceImpl implements RecommendService {
             Map<String, Double> tagWeights = tags.stream()
                 .collect(Collectors.toMap(tag -> tag, tag -> 1.0));
 
-            Map<Long, Double> recommendations = contentBasedRecommender.recommendByTags(
+            Map<Long, Double> tagRecommendations = contentBasedRecommender.recommendByTags(
                 ContentType.VIDEO, tagWeights, limit + 1);
 
-            recommendations.remove(video.getId());
+            // 融合关键帧聚合向量的视觉相似召回
+            Map<Long, Double> recommendations = mergeVisualRecall(tagRecommendations,
+                visualRecallIndex.recommendSimilarVideos(video, limit), video.getId());
 
             return convertToRecommendItems(recommendations, ContentType.VIDEO, limit);
         } catch (Exception e) {
@@ -344,93 +1740,48 @@ public class RecommendServiceImpl implements RecommendService {
         }
     }
 
+    /**
+     * 融合标签召回与视觉相似召回，排除源内容后按得分降序
+     */
+    private Map<Long, Double> mergeVisualRecall(Map<Long, Double> tagRecommendations,
+                                                 Map<Long, Double> visualRecommendations,
+                                                 Long sourceId) {
+        Map<Long, Double> merged = new LinkedHashMap<>(tagRecommendations);
+        visualRecommendations.forEach((id, score) ->
+            merged.merge(id, score * VISUAL_SIMILARITY_WEIGHT, Double::sum));
+
+        merged.remove(sourceId);
+
+        return merged.entrySet().stream()
+            .sorted(Map.Entry.<Long, Double>comparingByValue().reversed())
+            .collect(Collectors.toMap(
+                Map.Entry::getKey,
+                Map.Entry::getValue,
+                (e1, e2) -> e1,
+                LinkedHashMap::new
+            ));
+    }
+
     /**
      * 转换为推荐项
+     * 卡片字段来自内容卡片缓存，复制后填入得分
      */
     private List<RecommendItem> convertToRecommendItems(Map<Long, Double> contentIds, 
                                                           ContentType contentType, int limit) {
-        List<RecommendItem> items = new ArrayList<>();
-
         if (contentIds.isEmpty()) {
-            return items;
+            return new ArrayList<>();
         }
 
         List<Long> ids = contentIds.keySet().stream()
             .limit(limit)
             .collect(Collectors.toList());
 
-        switch (contentType) {
-            case ARTICLE -> {
-                List<Article> articles = articleMapper.selectBatchIds(ids);
-                items = articles.stream()
-                    .map(article -> RecommendItem.builder()
-                        .contentId(article.getId())
-                        .contentType("article")
-                        .title(article.getTitle())
-                        .coverImage(article.getCoverImage())
-                        .score(contentIds.getOrDefault(article.getId(), 0.0))
-                        .publishTime(article.getPublishTime())
-                        .viewCount(article.getViewCount())
-                        .build())
-                    .sorted(Comparator.comparing(RecommendItem::getScore).reversed())
-                    .collect(Collectors.toList());
-            }
-            case IMAGE -> {
-                List<Image> images = imageMapper.selectBatchIds(ids);
-                items = images.stream()
-                    .map(image -> RecommendItem.builder()
-                        .contentId(image.getId())
-                        .contentType("image")
-                        .title(image.getTitle())
-                        .coverImage(image.getUrl())
-                        .score(contentIds.getOrDefault(image.getId(), 0.0))
-                        .publishTime(image.getPublishTime())
-                        .viewCount(image.getViewCount())
-                        .build())
-                    .sorted(Comparator.comparing(RecommendItem::getScore).reversed())
-                    .collect(Collectors.toList());
-            }
-            case VIDEO -> {
-                List<Video> videos = videoMapper.selectBatchIds(ids);
-                items = videos.stream()
-                    .map(video -> RecommendItem.builder()
-                        .contentId(video.getId())
-                        .contentType("video")
-                        .title(video.getTitle())
-                        .coverImage(video.getCoverUrl())
-                        .score(contentIds.getOrDefault(video.getId(), 0.0))
-                        .publishTime(video.getPublishTime())
-                        .viewCount(video.getViewCount())
-                        .duration(video.getDuration())
-                        .build())
-                    .sorted(Comparator.comparing(RecommendItem::getScore).reversed())
-                    .collect(Collectors.toList());
-            }
-        }
-
-        return items;
-    }
-
-    /**
-     * 去重并排序
-     */
-    private List<RecommendItem> deduplicateAndRank(List<RecommendItem> items, int limit) {
-        Map<Long, RecommendItem> uniqueItems = new LinkedHashMap<>();
-
-        for (RecommendItem item : items) {
-            Long key = item.getContentId();
-            if (uniqueItems.containsKey(key)) {
-                // 合并得分
-                RecommendItem existing = uniqueItems.get(key);
-                existing.setScore(Math.max(existing.getScore(), item.getScore()));
-            } else {
-                uniqueItems.put(key, item);
-            }
-        }
-
-        return uniqueItems.values().stream()
+        Map<Long, RecommendItem> cards = contentCardService.getCards(contentType, ids);
+        return ids.stream()
+            .map(cards::get)
+            .filter(Objects::nonNull)
+            .map(card -> card.toBuilder().score(contentIds.getOrDefault(card.getContentId(), 0.0)).build())
             .sorted(Comparator.comparing(RecommendItem::getScore).reversed())
-            .limit(limit)
             .collect(Collectors.toList());
     }
 
@@ -439,10 +1790,11 @@ public class RecommendServiceImpl implements RecommendService {
      */
     private Map<String, Double> extractInterestTags(UserProfile userProfile) {
         try {
-            if (userProfile == null || userProfile.getInterestTags() == null) {
+            if (userProfile == null || userProfile.getInterestTags() == null
+                || userProfile.getInterestTags().isBlank()) {
                 return new HashMap<>();
             }
-            return objectMapper.convertValue(userProfile.getInterestTags(), 
+            return objectMapper.readValue(userProfile.getInterestTags(),
                 new TypeReference<Map<String, Double>>() {});
         } catch (Exception e) {
             log.error("提取用户兴趣标签失败", e);
@@ -458,7 +1810,7 @@ public class RecommendServiceImpl implements RecommendService {
             if (tagsJson == null) {
                 return new HashSet<>();
             }
-            String jsonStr = objectMapper.writeValueAsString(tagsJson);
+            String jsonStr = tagsJson instanceof String str ? str : objectMapper.writeValueAsString(tagsJson);
             return objectMapper.readValue(jsonStr, new TypeReference<List<String>>() {})
                 .stream()
                 .collect(Collectors.toSet());
@@ -509,4 +1861,16 @@ public class RecommendServiceImpl implements RecommendService {
                 LinkedHashMap::new
             ));
     }
+
+    /**
+     * 请求截止时间已到，调用方应改走降级路径
+     */
+    private static final class DeadlineExceededException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        private DeadlineExceededException(String message) {
+            super(message, null, false, false);
+        }
+    }
 }
@@ -3,12 +3,16 @@ package com.qoobot.openrecommend.service.impl;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.qoobot.openrecommend.common.enums.ContentType;
 import com.qoobot.openrecommend.entity.Video;
+import com.qoobot.openrecommend.event.ContentChangedEvent;
+import com.qoobot.openrecommend.event.KeyframesChangedEvent;
 import com.qoobot.openrecommend.mapper.VideoMapper;
 import com.qoobot.openrecommend.service.VideoService;
 import jakarta.annotation.Resource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -30,6 +34,9 @@ public class VideoServiceImpl implements VideoService {
     @Resource
     private VideoMapper videoMapper;
 
+    @Resource
+    private ApplicationEventPublisher eventPublisher;
+
     @Override
     @Transactional(rollbackFor = Exception.class)
     public Long upload(Video video) {
@@ -51,6 +58,9 @@ public class VideoServiceImpl implements VideoService {
         // 保存视频
         videoMapper.insert(video);
 
+        // 事务提交后异步聚合关键帧特征为视频向量
+        publishKeyframesChanged(video);
+
         log.info("视频上传成功: id={}, qualityScore={}", video.getId(), qualityScore);
 
         return video.getId();
@@ -62,6 +72,12 @@ public class VideoServiceImpl implements VideoService {
         log.info("更新视频: id={}", video.getId());
 
         int result = videoMapper.updateById(video);
+        if (result > 0) {
+            eventPublisher.publishEvent(new ContentChangedEvent(
+                ContentType.VIDEO, video.getId(), ContentChangedEvent.Action.UPDATED));
+            // 关键帧变化时，事务提交后异步重新聚合视频向量
+            publishKeyframesChanged(video);
+        }
         return result > 0;
     }
 
@@ -78,6 +94,10 @@ public class VideoServiceImpl implements VideoService {
 
         video.setIsDeleted(1);
         int result = videoMapper.updateById(video);
+        if (result > 0) {
+            eventPublisher.publishEvent(new ContentChangedEvent(
+                ContentType.VIDEO, videoId, ContentChangedEvent.Action.DELETED));
+        }
 
         return result > 0;
     }
@@ -234,4 +254,13 @@ public class VideoServiceImpl implements VideoService {
             log.error("增加播放量失败: videoId={}", videoId, e);
         }
     }
+
+    /**
+     * 携带关键帧特征时发布关键帧变更事件
+     */
+    private void publishKeyframesChanged(Video video) {
+        if (StringUtils.hasText(video.getKeyframeFeatures())) {
+            eventPublisher.publishEvent(new KeyframesChangedEvent(video.getId()));
+        }
+    }
 }
@@ -0,0 +1,89 @@
+package com.qoobot.openrecommend.algorithm;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 向量索引基准测试：100万个48维（16箱 × 3通道）颜色向量上的精确Top 20查询
+ * 运行约需200MB堆内存，默认跳过，使用 -Dbenchmark=true 运行
+ *
+ * @author OpenRecommend
+ * @since 1.0.0
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class VectorIndexBenchmarkTest {
+
+    private static final int SIZE = 1_000_000;
+    private static final int DIMENSION = 48;
+    private static final int TOP_K = 20;
+    private static final int WARMUP_QUERIES = 20;
+    private static final int QUERIES = 200;
+
+    @Test
+    void exactTopKOverOneMillionVectors() {
+        Random random = new Random(42);
+        VectorIndex.Builder builder = VectorIndex.builder(DIMENSION, SIZE);
+        for (int i = 1; i <= SIZE; i++) {
+            builder.add(i, randomVector(random));
+        }
+        VectorIndex index = builder.build();
+        assertEquals(SIZE, index.size());
+
+        float[][] queries = new float[WARMUP_QUERIES + QUERIES][];
+        for (int i = 0; i < queries.length; i++) {
+            queries[i] = randomVector(random);
+        }
+        for (int i = 0; i < WARMUP_QUERIES; i++) {
+            index.search(queries[i], TOP_K, null);
+        }
+
+        long start = System.nanoTime();
+        for (int i = WARMUP_QUERIES; i < queries.length; i++) {
+            assertEquals(TOP_K, index.search(queries[i], TOP_K, null).size());
+        }
+        double avgMs = (System.nanoTime() - start) / 1e6 / QUERIES;
+        System.out.printf("VectorIndex: size=%d, dimension=%d, topK=%d, queries=%d, avg=%.2fms/query%n",
+            SIZE, DIMENSION, TOP_K, QUERIES, avgMs);
+
+        // 结果与逐个计算内积的暴力扫描一致
+        float[] query = queries[WARMUP_QUERIES];
+        Map<Long, Double> result = index.search(query, TOP_K, null);
+        assertEquals(bruteForceTopK(index, query), result.keySet());
+    }
+
+    private static Set<Long> bruteForceTopK(VectorIndex index, float[] query) {
+        PriorityQueue<Map.Entry<Long, Float>> heap = new PriorityQueue<>(Map.Entry.comparingByValue());
+        for (long id = 1; id <= SIZE; id++) {
+            float[] vector = index.vector(id);
+            // 与索引相同的float累加顺序，保证分数逐位一致
+            float score = 0f;
+            for (int d = 0; d < DIMENSION; d++) {
+                score += query[d] * vector[d];
+            }
+            heap.offer(Map.entry(id, score));
+            if (heap.size() > TOP_K) {
+                heap.poll();
+            }
+        }
+        return heap.stream().map(Map.Entry::getKey).collect(Collectors.toSet());
+    }
+
+    /**
+     * 随机生成非负的归一化向量，与颜色直方图映射得到的向量分布一致
+     */
+    private static float[] randomVector(Random random) {
+        float[] vector = new float[DIMENSION];
+        for (int d = 0; d < DIMENSION; d++) {
+            vector[d] = random.nextFloat();
+        }
+        return VectorIndex.normalize(vector);
+    }
+}
@@ -0,0 +1,606 @@
+package com.qoobot.openrecommend.config;
+
+import com.qoobot.openrecommend.api.dto.RecommendItem;
+import com.qoobot.openrecommend.api.dto.RecommendResponse;
+import com.qoobot.openrecommend.entity.UserProfile;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 紧凑二进制 Redis 值序列化器
+ * 推荐结果、推荐项列表与用户画像按固定 schema 编码：首字节魔数、schema 版本与类型标记，
+ * 之后每个对象以 varint 位掩码标记非空字段，整数为 zigzag varint，得分为 float，
+ * 内容类型按固定字典编码，推荐理由、分类、标签等重复字符串在同一个值内只写一次（后续写引用）。
+ * 其他类型及旧的 JSON 值交给回退序列化器；JSON 不会以魔数字节开头，新旧格式可共存。
+ *
+ * @author Qoobot Team
+ * @since 1.0.0
+ */
+public class CompactRedisSerializer implements RedisSerializer<Object> {
+
+    private static final byte MAGIC = (byte) 0xC5;
+
+    /**
+     * schema 版本，字段顺序或字典变化时递增；无法识别的版本按缓存未命中处理
+     */
+    private static final byte SCHEMA_VERSION = 1;
+
+    private static final byte TYPE_RECOMMEND_RESPONSE = 1;
+    private static final byte TYPE_RECOMMEND_ITEMS = 2;
+    private static final byte TYPE_USER_PROFILE = 3;
+
+    /**
+     * 内容类型字典（schema 版本 1），只能追加
+     */
+    private static final List<String> CONTENT_TYPES = List.of("article", "image", "video", "all");
+
+    private final RedisSerializer<Object> fallback;
+
+    public CompactRedisSerializer(RedisSerializer<Object> fallback) {
+        this.fallback = fallback;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value instanceof RecommendResponse response) {
+            Writer out = header(TYPE_RECOMMEND_RESPONSE);
+            writeResponse(out, response);
+            return out.toByteArray();
+        }
+        if (value instanceof UserProfile profile) {
+            Writer out = header(TYPE_USER_PROFILE);
+            writeProfile(out, profile);
+            return out.toByteArray();
+        }
+        if (value instanceof List<?> list && !list.isEmpty()
+            && list.stream().allMatch(element -> element instanceof RecommendItem)) {
+            Writer out = header(TYPE_RECOMMEND_ITEMS);
+            out.varint(list.size());
+            for (Object element : list) {
+                writeItem(out, (RecommendItem) element);
+            }
+            return out.toByteArray();
+        }
+        return fallback.serialize(value);
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length < 3 || bytes[0] != MAGIC) {
+            return fallback.deserialize(bytes);
+        }
+        if (bytes[1] != SCHEMA_VERSION) {
+            return null;
+        }
+        try {
+            Reader in = new Reader(bytes, 3);
+            return switch (bytes[2]) {
+                case TYPE_RECOMMEND_RESPONSE -> readResponse(in);
+                case TYPE_RECOMMEND_ITEMS -> readItems(in);
+                case TYPE_USER_PROFILE -> readProfile(in);
+                default -> throw new SerializationException("未知的值类型标记: " + bytes[2]);
+            };
+        } catch (RuntimeException e) {
+            throw new SerializationException("二进制缓存值解码失败", e);
+        }
+    }
+
+    private static Writer header(byte type) {
+        Writer out = new Writer();
+        out.raw(MAGIC);
+        out.raw(SCHEMA_VERSION);
+        out.raw(type);
+        return out;
+    }
+
+    // ========== RecommendResponse ==========
+
+    private static void writeResponse(Writer out, RecommendResponse response) {
+        out.mask(response.getItems(), response.getChannels(), response.getPartial(), response.getDegradeMode(),
+            response.getNextCursor(), response.getTimestamp(), response.getComputedAt(), response.getComputeCost(),
+            response.getExpireAt());
+        if (response.getItems() != null) {
+            out.varint(response.getItems().size());
+            for (RecommendItem item : response.getItems()) {
+                writeItem(out, item);
+            }
+        }
+        if (response.getChannels() != null) {
+            out.strings(response.getChannels());
+        }
+        if (response.getPartial() != null) {
+            out.raw((byte) (response.getPartial() ? 1 : 0));
+        }
+        if (response.getDegradeMode() != null) {
+            out.interned(response.getDegradeMode());
+        }
+        if (response.getNextCursor() != null) {
+            out.string(response.getNextCursor());
+        }
+        if (response.getTimestamp() != null) {
+            out.varlong(response.getTimestamp());
+        }
+        if (response.getComputedAt() != null) {
+            out.varlong(response.getComputedAt());
+        }
+        if (response.getComputeCost() != null) {
+            out.varlong(response.getComputeCost());
+        }
+        if (response.getExpireAt() != null) {
+            out.varlong(response.getExpireAt());
+        }
+    }
+
+    private static RecommendResponse readResponse(Reader in) {
+        RecommendResponse response = new RecommendResponse();
+        long mask = in.varint();
+        if (has(mask, 0)) {
+            response.setItems(readItems(in));
+        }
+        if (has(mask, 1)) {
+            response.setChannels(in.strings());
+        }
+        if (has(mask, 2)) {
+            response.setPartial(in.raw() != 0);
+        }
+        if (has(mask, 3)) {
+            response.setDegradeMode(in.interned());
+        }
+        if (has(mask, 4)) {
+            response.setNextCursor(in.string());
+        }
+        if (has(mask, 5)) {
+            response.setTimestamp(in.varlong());
+        }
+        if (has(mask, 6)) {
+            response.setComputedAt(in.varlong());
+        }
+        if (has(mask, 7)) {
+            response.setComputeCost(in.varlong());
+        }
+        if (has(mask, 8)) {
+            response.setExpireAt(in.varlong());
+        }
+        return response;
+    }
+
+    // ========== RecommendItem ==========
+
+    private static void writeItem(Writer out, RecommendItem item) {
+        out.mask(item.getContentId(), item.getContentType(), item.getScore(), item.getReason(), item.getTitle(),
+            item.getCoverImage(), item.getAuthorId(), item.getCategory(), item.getTags(), item.getQualityScore(),
+            item.getViewCount(), item.getLikeCount(), item.getDuration(), item.getPublishTime());
+        if (item.getContentId() != null) {
+            out.varlong(item.getContentId());
+        }
+        if (item.getContentType() != null) {
+            out.contentType(item.getContentType());
+        }
+        if (item.getScore() != null) {
+            out.floatValue(item.getScore());
+        }
+        if (item.getReason() != null) {
+            out.interned(item.getReason());
+        }
+        if (item.getTitle() != null) {
+            out.string(item.getTitle());
+        }
+        if (item.getCoverImage() != null) {
+            out.string(item.getCoverImage());
+        }
+        if (item.getAuthorId() != null) {
+            out.varlong(item.getAuthorId());
+        }
+        if (item.getCategory() != null) {
+            out.interned(item.getCategory());
+        }
+        if (item.getTags() != null) {
+            out.varint(item.getTags().size());
+            for (String tag : item.getTags()) {
+                out.interned(tag);
+            }
+        }
+        if (item.getQualityScore() != null) {
+            out.floatValue(item.getQualityScore());
+        }
+        if (item.getViewCount() != null) {
+            out.varlong(item.getViewCount());
+        }
+        if (item.getLikeCount() != null) {
+            out.varlong(item.getLikeCount());
+        }
+        if (item.getDuration() != null) {
+            out.varlong(item.getDuration());
+        }
+        if (item.getPublishTime() != null) {
+            out.dateTime(item.getPublishTime());
+        }
+    }
+
+    private static List<RecommendItem> readItems(Reader in) {
+        int size = (int) in.varint();
+        List<RecommendItem> items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            items.add(readItem(in));
+        }
+        return items;
+    }
+
+    private static RecommendItem readItem(Reader in) {
+        RecommendItem item = new RecommendItem();
+        long mask = in.varint();
+        if (has(mask, 0)) {
+            item.setContentId(in.varlong());
+        }
+        if (has(mask, 1)) {
+            item.setContentType(in.contentType());
+        }
+        if (has(mask, 2)) {
+            item.setScore(in.floatValue());
+        }
+        if (has(mask, 3)) {
+            item.setReason(in.interned());
+        }
+        if (has(mask, 4)) {
+            item.setTitle(in.string());
+        }
+        if (has(mask, 5)) {
+            item.setCoverImage(in.string());
+        }
+        if (has(mask, 6)) {
+            item.setAuthorId(in.varlong());
+        }
+        if (has(mask, 7)) {
+            item.setCategory(in.interned());
+        }
+        if (has(mask, 8)) {
+            int size = (int) in.varint();
+            List<String> tags = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                tags.add(in.interned());
+            }
+            item.setTags(tags);
+        }
+        if (has(mask, 9)) {
+            item.setQualityScore(in.floatValue());
+        }
+        if (has(mask, 10)) {
+            item.setViewCount(in.varlong());
+        }
+        if (has(mask, 11)) {
+            item.setLikeCount(in.varlong());
+        }
+        if (has(mask, 12)) {
+            item.setDuration((int) in.varlong());
+        }
+        if (has(mask, 13)) {
+            item.setPublishTime(in.dateTime());
+        }
+        return item;
+    }
+
+    // ========== UserProfile ==========
+
+    private static void writeProfile(Writer out, UserProfile profile) {
+        out.mask(profile.getId(), profile.getUserId(), profile.getAgeRange(), profile.getGender(),
+            profile.getInterestTags(), profile.getContentPreference(), profile.getCategoryPreference(),
+            profile.getActivePeriods(), profile.getDevicePreference(), profile.getReadPreference(),
+            profile.getTotalReadTime(), profile.getTotalViewCount(), profile.getTotalLikeCount(),
+            profile.getTotalCollectCount(), profile.getLastUpdateTime(), profile.getCreateTime(),
+            profile.getUpdateTime(), profile.getIsDeleted());
+        if (profile.getId() != null) {
+            out.varlong(profile.getId());
+        }
+        if (profile.getUserId() != null) {
+            out.varlong(profile.getUserId());
+        }
+        if (profile.getAgeRange() != null) {
+            out.string(profile.getAgeRange());
+        }
+        if (profile.getGender() != null) {
+            out.varlong(profile.getGender());
+        }
+        if (profile.getInterestTags() != null) {
+            out.string(profile.getInterestTags());
+        }
+        if (profile.getContentPreference() != null) {
+            out.string(profile.getContentPreference());
+        }
+        if (profile.getCategoryPreference() != null) {
+            out.string(profile.getCategoryPreference());
+        }
+        if (profile.getActivePeriods() != null) {
+            out.string(profile.getActivePeriods());
+        }
+        if (profile.getDevicePreference() != null) {
+            out.string(profile.getDevicePreference());
+        }
+        if (profile.getReadPreference() != null) {
+            out.string(profile.getReadPreference());
+        }
+        if (profile.getTotalReadTime() != null) {
+            out.varlong(profile.getTotalReadTime());
+        }
+        if (profile.getTotalViewCount() != null) {
+            out.varlong(profile.getTotalViewCount());
+        }
+        if (profile.getTotalLikeCount() != null) {
+            out.varlong(profile.getTotalLikeCount());
+        }
+        if (profile.getTotalCollectCount() != null) {
+            out.varlong(profile.getTotalCollectCount());
+        }
+        if (profile.getLastUpdateTime() != null) {
+            out.dateTime(profile.getLastUpdateTime());
+        }
+        if (profile.getCreateTime() != null) {
+            out.dateTime(profile.getCreateTime());
+        }
+        if (profile.getUpdateTime() != null) {
+            out.dateTime(profile.getUpdateTime());
+        }
+        if (profile.getIsDeleted() != null) {
+            out.varlong(profile.getIsDeleted());
+        }
+    }
+
+    private static UserProfile readProfile(Reader in) {
+        UserProfile profile = new UserProfile();
+        long mask = in.varint();
+        if (has(mask, 0)) {
+            profile.setId(in.varlong());
+        }
+        if (has(mask, 1)) {
+            profile.setUserId(in.varlong());
+        }
+        if (has(mask, 2)) {
+            profile.setAgeRange(in.string());
+        }
+        if (has(mask, 3)) {
+            profile.setGender((int) in.varlong());
+        }
+        if (has(mask, 4)) {
+            profile.setInterestTags(in.string());
+        }
+        if (has(mask, 5)) {
+            profile.setContentPreference(in.string());
+        }
+        if (has(mask, 6)) {
+            profile.setCategoryPreference(in.string());
+        }
+        if (has(mask, 7)) {
+            profile.setActivePeriods(in.string());
+        }
+        if (has(mask, 8)) {
+            profile.setDevicePreference(in.string());
+        }
+        if (has(mask, 9)) {
+            profile.setReadPreference(in.string());
+        }
+        if (has(mask, 10)) {
+            profile.setTotalReadTime((int) in.varlong());
+        }
+        if (has(mask, 11)) {
+            profile.setTotalViewCount((int) in.varlong());
+        }
+        if (has(mask, 12)) {
+            profile.setTotalLikeCount((int) in.varlong());
+        }
+        if (has(mask, 13)) {
+            profile.setTotalCollectCount((int) in.varlong());
+        }
+        if (has(mask, 14)) {
+            profile.setLastUpdateTime(in.dateTime());
+        }
+        if (has(mask, 15)) {
+            profile.setCreateTime(in.dateTime());
+        }
+        if (has(mask, 16)) {
+            profile.setUpdateTime(in.dateTime());
+        }
+        if (has(mask, 17)) {
+            profile.setIsDeleted((int) in.varlong());
+        }
+        return profile;
+    }
+
+    private static boolean has(long mask, int field) {
+        return (mask & (1L << field)) != 0;
+    }
+
+    /**
+     * 编码缓冲区
+     */
+    private static final class Writer {
+
+        private byte[] buffer = new byte[256];
+        private int position;
+        private final Map<String, Integer> strings = new HashMap<>();
+
+        void raw(byte value) {
+            ensure(1);
+            buffer[position++] = value;
+        }
+
+        /**
+         * 非空字段位掩码
+         */
+        void mask(Object... fields) {
+            long mask = 0;
+            for (int i = 0; i < fields.length; i++) {
+                if (fields[i] != null) {
+                    mask |= 1L << i;
+                }
+            }
+            varint(mask);
+        }
+
+        void varint(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        /**
+         * zigzag 编码的有符号整数
+         */
+        void varlong(long value) {
+            varint((value << 1) ^ (value >> 63));
+        }
+
+        void floatValue(double value) {
+            int bits = Float.floatToIntBits((float) value);
+            ensure(4);
+            buffer[position++] = (byte) (bits >>> 24);
+            buffer[position++] = (byte) (bits >>> 16);
+            buffer[position++] = (byte) (bits >>> 8);
+            buffer[position++] = (byte) bits;
+        }
+
+        void string(String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            varint(bytes.length);
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+
+        void strings(List<String> values) {
+            varint(values.size());
+            for (String value : values) {
+                interned(value);
+            }
+        }
+
+        /**
+         * 首次出现写 0 + 字符串并登记序号，再次出现只写 序号+1
+         */
+        void interned(String value) {
+            Integer index = strings.get(value);
+            if (index != null) {
+                varint(index + 1);
+                return;
+            }
+            varint(0);
+            string(value);
+            strings.put(value, strings.size());
+        }
+
+        /**
+         * 字典内的内容类型写 序号+1，字典外的写 0 + 字符串
+         */
+        void contentType(String value) {
+            int index = CONTENT_TYPES.indexOf(value);
+            varint(index + 1);
+            if (index < 0) {
+                interned(value);
+            }
+        }
+
+        void dateTime(LocalDateTime value) {
+            varlong(value.toEpochSecond(ZoneOffset.UTC));
+            varint(value.getNano());
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, position);
+        }
+
+        private void ensure(int length) {
+            if (position + length > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + length));
+            }
+        }
+    }
+
+    /**
+     * 解码游标
+     */
+    private static final class Reader {
+
+        private final byte[] buffer;
+        private int position;
+        private final List<String> strings = new ArrayList<>();
+
+        Reader(byte[] buffer, int position) {
+            this.buffer = buffer;
+            this.position = position;
+        }
+
+        byte raw() {
+            return buffer[position++];
+        }
+
+        long varint() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = buffer[position++];
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalStateException("varint 过长");
+        }
+
+        long varlong() {
+            long value = varint();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        double floatValue() {
+            int bits = (buffer[position] & 0xFF) << 24 | (buffer[position + 1] & 0xFF) << 16
+                | (buffer[position + 2] & 0xFF) << 8 | (buffer[position + 3] & 0xFF);
+            position += 4;
+            return Float.intBitsToFloat(bits);
+        }
+
+        String string() {
+            int length = (int) varint();
+            String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        List<String> strings() {
+            int size = (int) varint();
+            List<String> values = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                values.add(interned());
+            }
+            return values;
+        }
+
+        String interned() {
+            int index = (int) varint();
+            if (index > 0) {
+                return strings.get(index - 1);
+            }
+            String value = string();
+            strings.add(value);
+            return value;
+        }
+
+        String contentType() {
+            int index = (int) varint();
+            return index > 0 ? CONTENT_TYPES.get(index - 1) : interned();
+        }
+
+        LocalDateTime dateTime() {
+            long seconds = varlong();
+            return LocalDateTime.ofEpochSecond(seconds, (int) varint(), ZoneOffset.UTC);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.qoobot.openrecommend.config;
 
+import com.qoobot.openrecommend.common.concurrent.Bulkhead;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -35,6 +36,24 @@ public class ThreadPoolConfig {
     @Value("${thread-pool.thread-name-prefix:async-task-}")
     private String threadNamePrefix;
 
+    @Value("${recommend.bulkhead.mysql.max-concurrent:16}")
+    private int mysqlMaxConcurrent;
+
+    @Value("${recommend.bulkhead.mysql.max-wait-ms:50}")
+    private long mysqlMaxWaitMs;
+
+    @Value("${recommend.bulkhead.redis.max-concurrent:20}")
+    private int redisMaxConcurrent;
+
+    @Value("${recommend.bulkhead.redis.max-wait-ms:20}")
+    private long redisMaxWaitMs;
+
+    @Value("${recommend.prewarm.parallelism:4}")
+    private int prewarmParallelism;
+
+    @Value("${recommend.related.parallelism:4}")
+    private int relatedParallelism;
+
     /**
      * 虚拟线程执行器（JDK 21+）
      */
@@ -64,4 +83,81 @@ public class ThreadPoolConfig {
 
         return executor;
     }
+
+    /**
+     * 推荐预热线程池
+     * 最低线程优先级；提交方按并发数限制在途任务，队列不会写满，写满时拒绝而不在提交线程上执行
+     */
+    @Bean("prewarmExecutor")
+    public Executor prewarmExecutor() {
+        log.info("初始化推荐预热线程池，并发数: {}", prewarmParallelism);
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(prewarmParallelism);
+        executor.setMaxPoolSize(prewarmParallelism);
+        executor.setQueueCapacity(prewarmParallelism * 4);
+        executor.setThreadNamePrefix("prewarm-");
+        executor.setThreadPriority(Thread.MIN_PRIORITY);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+
+        return executor;
+    }
+
+    /**
+     * 相关内容离线计算线程池
+     * 计算任务写出每块结果时阻塞在Redis流水线上，使用独立线程池而非公共ForkJoin池
+     */
+    @Bean("relatedBuildExecutor")
+    public Executor relatedBuildExecutor() {
+        log.info("初始化相关内容计算线程池，并发数: {}", relatedParallelism);
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(relatedParallelism);
+        executor.setMaxPoolSize(relatedParallelism);
+        executor.setThreadNamePrefix("related-build-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+
+        return executor;
+    }
+
+    /**
+     * 颜色直方图回填线程池
+     * 单线程且不排队，上一次回填尚未结束时拒绝新的提交
+     */
+    @Bean("visualBackfillExecutor")
+    public Executor visualBackfillExecutor() {
+        log.info("初始化颜色直方图回填线程池");
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("visual-backfill-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+
+        return executor;
+    }
+
+    /**
+     * MySQL舱壁，并发数不应超过数据库连接池大小
+     */
+    @Bean("mysqlBulkhead")
+    public Bulkhead mysqlBulkhead() {
+        log.info("初始化MySQL舱壁，最大并发: {}, 最长等待: {}ms", mysqlMaxConcurrent, mysqlMaxWaitMs);
+        return new Bulkhead("mysql", mysqlMaxConcurrent, mysqlMaxWaitMs);
+    }
+
+    /**
+     * Redis舱壁
+     */
+    @Bean("redisBulkhead")
+    public Bulkhead redisBulkhead() {
+        log.info("初始化Redis舱壁，最大并发: {}, 最长等待: {}ms", redisMaxConcurrent, redisMaxWaitMs);
+        return new Bulkhead("redis", redisMaxConcurrent, redisMaxWaitMs);
+    }
 }
@@ -0,0 +1,302 @@
+package com.qoobot.openrecommend.task;
+
+import com.qoobot.openrecommend.api.dto.BatchRecommendRequest;
+import com.qoobot.openrecommend.api.dto.BatchRecommendResponse;
+import com.qoobot.openrecommend.api.dto.RecommendResponse;
+import com.qoobot.openrecommend.common.constants.RecommendConstants;
+import com.qoobot.openrecommend.mapper.UserProfileMapper;
+import com.qoobot.openrecommend.service.CacheService;
+import com.qoobot.openrecommend.service.RecommendService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * 每日推荐批量生成任务
+ * 为所有有画像的用户生成推荐，供每日推送使用。用户ID按固定宽度划分为区间分区，
+ * 多个分区并行处理；分区内按页调用批量推荐（同一页用户共享热门列表与内容卡片），
+ * 结果以管道写入Redis。每页完成后在Redis Hash中记录分区检查点与待重试的失败用户，
+ * 当天的续跑任务周期性检查进度，跳过已完成分区、从检查点继续未完成分区并重试失败用户，直到全部完成。
+ * 多节点部署时通过分布式锁保证同一时间只有一个节点执行。生成在虚拟线程上异步进行，调度线程获取锁后立即返回；
+ * 运行期间每隔锁过期时间的1/3续期一次，续期失败说明锁已丢失，工作者在当前页完成后停止，剩余部分由持锁节点续跑。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BatchFeedGenerationTask {
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.BASIC_ISO_DATE;
+    private static final String DONE = "done";
+    private static final String FAILED_SUFFIX = ":failed";
+    private static final String LOCK_KEY = "task:lock:digest";
+
+    private final UserProfileMapper userProfileMapper;
+    private final RecommendService recommendService;
+    private final CacheService cacheService;
+    private final ExecutorService virtualThreadExecutor;
+
+    @Value("${recommend.digest.content-type:all}")
+    private String contentType;
+
+    @Value("${recommend.digest.limit:20}")
+    private int limit;
+
+    @Value("${recommend.digest.partition-size:100000}")
+    private long partitionSize;
+
+    @Value("${recommend.digest.page-size:500}")
+    private int pageSize;
+
+    @Value("${recommend.digest.parallelism:2}")
+    private int parallelism;
+
+    @Value("${recommend.digest.lock-ttl-ms:600000}")
+    private long lockTtlMs;
+
+    /**
+     * 生成当日推荐
+     * 每天凌晨4点30分执行（在相关内容预计算之后）
+     */
+    @Scheduled(cron = "0 30 4 * * ?")
+    public void generateDailyFeeds() {
+        run(false);
+    }
+
+    /**
+     * 续跑当日推荐
+     * 5点至23点每30分钟执行，节点中断或有失败用户时从检查点继续，全部分区完成后不再处理
+     */
+    @Scheduled(cron = "0 0/30 5-23 * * ?")
+    public void resumeDailyFeeds() {
+        run(true);
+    }
+
+    private void run(boolean resume) {
+        String date = LocalDate.now().format(DATE_FORMAT);
+        String job = RecommendConstants.REDIS_KEY_DIGEST_FEED + date;
+        Long maxUserId = userProfileMapper.selectMaxUserId();
+        if (maxUserId == null) {
+            log.info("没有用户画像，跳过每日推荐生成");
+            return;
+        }
+
+        int partitions = (int) (maxUserId / partitionSize) + 1;
+        Map<String, String> progress = cacheService.getJobProgress(job);
+        int done = 0;
+        for (int partition = 0; partition < partitions; partition++) {
+            if (DONE.equals(progress.get(String.valueOf(partition)))) {
+                done++;
+            }
+        }
+        if (done == partitions) {
+            if (!resume) {
+                log.info("每日推荐已全部完成，跳过: date={}", date);
+            }
+            return;
+        }
+
+        String token = cacheService.tryLock(LOCK_KEY, lockTtlMs);
+        if (token == null) {
+            log.info("其他节点正在生成每日推荐，跳过: date={}", date);
+            return;
+        }
+        log.info("{}每日推荐: date={}, 分区数={}, 已完成分区={}", resume ? "续跑" : "开始生成",
+            date, partitions, done);
+        Lease lease = new Lease(token);
+        try {
+            CompletableFuture<Void> generation = generate(job, date, partitions, progress, lease);
+            virtualThreadExecutor.execute(() -> lease.renewUntil(generation));
+            generation.whenComplete((ignored, e) -> cacheService.unlock(LOCK_KEY, token));
+        } catch (RejectedExecutionException e) {
+            // 执行器已关闭（应用停止中），已提交的工作者在当前页完成后停止
+            log.warn("每日推荐生成提交失败，续跑时从检查点继续: date={}", date, e);
+            lease.lost = true;
+            cacheService.unlock(LOCK_KEY, token);
+        }
+    }
+
+    private CompletableFuture<Void> generate(String job, String date, int partitions, Map<String, String> progress,
+                                             Lease lease) {
+        long start = System.currentTimeMillis();
+        AtomicInteger nextPartition = new AtomicInteger();
+        AtomicLong users = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+
+        // parallelism 个工作者依次领取分区
+        List<CompletableFuture<Void>> workers = new ArrayList<>(parallelism);
+        for (int i = 0; i < parallelism; i++) {
+            workers.add(CompletableFuture.runAsync(() -> {
+                int partition;
+                while (!lease.lost && (partition = nextPartition.getAndIncrement()) < partitions) {
+                    String key = String.valueOf(partition);
+                    try {
+                        processPartition(job, date, partition, progress.get(key),
+                            progress.get(key + FAILED_SUFFIX), lease, users, failed);
+                    } catch (Exception e) {
+                        log.error("每日推荐分区处理失败，续跑时从检查点继续: partition={}", partition, e);
+                    }
+                }
+            }, virtualThreadExecutor));
+        }
+        return CompletableFuture.allOf(workers.toArray(new CompletableFuture[0])).thenRun(() -> {
+            long cost = Math.max(1, System.currentTimeMillis() - start);
+            log.info("每日推荐生成{}: date={}, 用户数={}, 失败={}, 耗时={}ms, 吞吐={} 用户/秒",
+                lease.lost ? "中止" : "完成", date, users.get(), failed.get(), cost,
+                String.format("%.1f", users.get() * 1000.0 / cost));
+        });
+    }
+
+    /**
+     * 处理一个用户ID分区：[partition × partitionSize, (partition + 1) × partitionSize)
+     * 区间扫描完成后重试本次及之前运行中失败的用户，仍失败的用户留待续跑，分区不标记完成
+     *
+     * @param checkpoint 分区进度：null 表示未开始，"done" 表示已完成，否则为已处理的最后一个用户ID
+     * @param failedIds 待重试的失败用户ID（逗号分隔），可为 null
+     */
+    private void processPartition(String job, String date, int partition, String checkpoint, String failedIds,
+                                  Lease lease, AtomicLong users, AtomicLong failed) {
+        if (DONE.equals(checkpoint)) {
+            return;
+        }
+        String field = String.valueOf(partition);
+        long from = partition * partitionSize;
+        long to = from + partitionSize;
+        long lastUserId = checkpoint != null ? Long.parseLong(checkpoint) : from - 1;
+        long start = System.currentTimeMillis();
+        int processed = 0;
+
+        Set<Long> pending = new LinkedHashSet<>();
+        if (failedIds != null && !failedIds.isEmpty()) {
+            Arrays.stream(failedIds.split(",")).map(Long::valueOf).forEach(pending::add);
+        }
+
+        while (!lease.lost) {
+            List<Long> userIds = userProfileMapper.selectUserIdsInRange(lastUserId, to, pageSize);
+            if (userIds == null || userIds.isEmpty()) {
+                break;
+            }
+
+            List<Long> pageFailed = generatePage(date, userIds);
+            lastUserId = userIds.get(userIds.size() - 1);
+            // 失败用户先于检查点保存，中断后续跑不会漏掉检查点之前的失败用户
+            if (pending.addAll(pageFailed)) {
+                saveFailed(job, field, pending);
+            }
+            cacheService.saveJobProgress(job, field, String.valueOf(lastUserId),
+                RecommendConstants.CACHE_TTL_DIGEST_FEED);
+            processed += userIds.size();
+            users.addAndGet(userIds.size());
+        }
+
+        // 锁已丢失时不再重试和标记完成，检查点之后的部分由持锁节点续跑
+        if (lease.lost) {
+            return;
+        }
+
+        // 重试失败用户一次，仍失败的留待下次续跑
+        if (!pending.isEmpty()) {
+            List<Long> retry = new ArrayList<>(pending);
+            pending.clear();
+            for (int i = 0; i < retry.size(); i += pageSize) {
+                pending.addAll(generatePage(date, retry.subList(i, Math.min(i + pageSize, retry.size()))));
+            }
+            log.info("每日推荐分区重试失败用户: partition={}, 重试={}, 仍失败={}", partition, retry.size(), pending.size());
+            saveFailed(job, field, pending);
+        }
+        failed.addAndGet(pending.size());
+        if (pending.isEmpty()) {
+            cacheService.saveJobProgress(job, field, DONE, RecommendConstants.CACHE_TTL_DIGEST_FEED);
+        }
+
+        if (processed > 0) {
+            long cost = Math.max(1, System.currentTimeMillis() - start);
+            log.info("每日推荐分区完成: partition={}, 用户ID区间=[{}, {}), 用户数={}, 耗时={}ms, 吞吐={} 用户/秒",
+                partition, from, to, processed, cost, String.format("%.1f", processed * 1000.0 / cost));
+        }
+    }
+
+    /**
+     * 为一页用户生成推荐并写入Redis
+     *
+     * @return 失败的用户ID
+     */
+    private List<Long> generatePage(String date, List<Long> userIds) {
+        BatchRecommendRequest request = new BatchRecommendRequest();
+        request.setUserIds(userIds);
+        request.setContentType(contentType);
+        request.setLimit(limit);
+        BatchRecommendResponse response = recommendService.recommendBatch(request);
+
+        Map<Long, String> feeds = new LinkedHashMap<>(response.getResults().size());
+        for (Map.Entry<Long, RecommendResponse> entry : response.getResults().entrySet()) {
+            feeds.put(entry.getKey(), entry.getValue().getItems().stream()
+                .map(item -> item.getContentType() + ":" + item.getContentId())
+                .collect(Collectors.joining(",")));
+        }
+        cacheService.setDigestFeedBatch(date, feeds, RecommendConstants.CACHE_TTL_DIGEST_FEED);
+        return response.getFailedUserIds() != null ? response.getFailedUserIds() : List.of();
+    }
+
+    private void saveFailed(String job, String field, Set<Long> pending) {
+        cacheService.saveJobProgress(job, field + FAILED_SUFFIX,
+            pending.stream().map(String::valueOf).collect(Collectors.joining(",")),
+            RecommendConstants.CACHE_TTL_DIGEST_FEED);
+    }
+
+    /**
+     * 本次运行持有的分布式锁
+     */
+    private final class Lease {
+
+        private final String token;
+        private volatile boolean lost;
+
+        private Lease(String token) {
+            this.token = token;
+        }
+
+        /**
+         * 每隔锁过期时间的1/3续期一次，直到生成结束；续期失败时标记锁已丢失
+         */
+        private void renewUntil(CompletableFuture<Void> generation) {
+            long interval = Math.max(1, lockTtlMs / 3);
+            while (!lost) {
+                try {
+                    generation.get(interval, TimeUnit.MILLISECONDS);
+                    return;
+                } catch (TimeoutException e) {
+                    if (!cacheService.renewLock(LOCK_KEY, token, lockTtlMs)) {
+                        log.warn("每日推荐分布式锁续期失败，当前页完成后停止生成");
+                        lost = true;
+                    }
+                } catch (ExecutionException e) {
+                    return;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.qoobot.openrecommend.task;
+
+import com.qoobot.openrecommend.common.concurrent.Bulkhead;
+import com.qoobot.openrecommend.entity.UserProfile;
+import com.qoobot.openrecommend.mapper.UserProfileMapper;
+import com.qoobot.openrecommend.service.CacheService;
+import com.qoobot.openrecommend.service.RecommendService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 推荐预热任务
+ * 在用户画像中预测的活跃小时开始前，后台计算其默认推荐并写入推荐缓存，
+ * 使活跃用户首次打开时命中缓存，重算负载分散到各个小时而非集中在高峰。
+ * 预热让位于在线流量：MySQL舱壁可用许可低于保留值时暂停提交，活跃小时开始后未处理完的用户跳过。
+ * 多节点部署时通过分布式锁保证每个小时只有一个节点执行预热。
+ * 分页与提交在虚拟线程上进行，不占用调度线程；同时执行的预热数不超过线程池并发数，提交线程等待空位。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FeedPrewarmTask {
+
+    private static final String LOCK_KEY = "task:lock:prewarm";
+
+    private final UserProfileMapper userProfileMapper;
+    private final RecommendService recommendService;
+    private final CacheService cacheService;
+    private final Executor prewarmExecutor;
+    private final ExecutorService virtualThreadExecutor;
+    private final Bulkhead mysqlBulkhead;
+
+    @Value("${recommend.prewarm.enabled:true}")
+    private boolean enabled;
+
+    @Value("${recommend.prewarm.content-type:all}")
+    private String contentType;
+
+    @Value("${recommend.prewarm.page-size:500}")
+    private int pageSize;
+
+    @Value("${recommend.prewarm.parallelism:4}")
+    private int parallelism;
+
+    @Value("${recommend.prewarm.reserved-permits:8}")
+    private int reservedPermits;
+
+    /**
+     * 预热下一个小时活跃的用户
+     * 每小时第45分钟执行，提前15分钟
+     */
+    @Scheduled(cron = "0 45 * * * ?")
+    public void prewarmNextHour() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime activeStart = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS).plusHours(1);
+        int hour = activeStart.getHour();
+        log.info("开始预热推荐缓存: 活跃小时={}", hour);
+
+        // 锁持有到活跃小时开始，其他节点本轮不再预热；活跃小时开始后提交即停止，锁过期不影响下一轮
+        long lockTtlMs = Math.max(60_000L, Duration.between(LocalDateTime.now(), activeStart).toMillis());
+        String token = cacheService.tryLock(LOCK_KEY, lockTtlMs);
+        if (token == null) {
+            log.info("其他节点正在预热推荐缓存，跳过: 活跃小时={}", hour);
+            return;
+        }
+
+        try {
+            virtualThreadExecutor.execute(() -> prewarm(activeStart, token));
+        } catch (RejectedExecutionException e) {
+            cacheService.unlock(LOCK_KEY, token);
+            log.error("提交推荐缓存预热失败: 活跃小时={}", hour, e);
+        }
+    }
+
+    /**
+     * 分页读取活跃用户并提交预热，已提交的预热全部结束后释放锁
+     */
+    private void prewarm(LocalDateTime activeStart, String token) {
+        int hour = activeStart.getHour();
+        long start = System.currentTimeMillis();
+        // 每个执行中或排队中的预热占用一个空位，线程池队列不会写满，提交不会退化为在提交线程上执行
+        Semaphore slots = new Semaphore(Math.max(1, parallelism));
+        AtomicInteger computed = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        List<CompletableFuture<Void>> tasks = new ArrayList<>();
+        int cached = 0;
+        long lastId = 0;
+        try {
+            while (true) {
+                List<UserProfile> page = userProfileMapper.selectActiveUserPage(hour, lastId, pageSize);
+                if (page == null || page.isEmpty()) {
+                    break;
+                }
+                // 整页一次读取推荐缓存（MGET），已有缓存的用户不再提交
+                Set<Long> warm = cacheService.getRecommends(
+                    page.stream().map(UserProfile::getUserId).toList(), contentType, null).keySet();
+                cached += warm.size();
+                for (UserProfile profile : page) {
+                    Long userId = profile.getUserId();
+                    if (warm.contains(userId)) {
+                        continue;
+                    }
+                    if (!acquireSlot(slots, activeStart)) {
+                        log.warn("活跃小时已开始，停止预热: 已提交={}", tasks.size());
+                        return;
+                    }
+                    if (!awaitCapacity(activeStart)) {
+                        slots.release();
+                        log.warn("活跃小时已开始，停止预热: 已提交={}", tasks.size());
+                        return;
+                    }
+                    try {
+                        tasks.add(CompletableFuture.runAsync(() -> {
+                            try {
+                                if (recommendService.prewarmRecommend(userId, contentType)) {
+                                    computed.incrementAndGet();
+                                }
+                            } catch (Exception e) {
+                                failed.incrementAndGet();
+                                log.debug("预热推荐失败: userId={}", userId, e);
+                            } finally {
+                                slots.release();
+                            }
+                        }, prewarmExecutor));
+                    } catch (RejectedExecutionException e) {
+                        slots.release();
+                        failed.incrementAndGet();
+                        log.warn("预热线程池拒绝提交: userId={}", userId);
+                    }
+                }
+                lastId = page.get(page.size() - 1).getId();
+            }
+        } catch (Exception e) {
+            log.error("预热推荐缓存失败: 活跃小时={}", hour, e);
+        } finally {
+            // 已提交的任务全部结束后再汇总并释放锁
+            int submitted = tasks.size();
+            int cachedCount = cached;
+            CompletableFuture.allOf(tasks.toArray(new CompletableFuture[0])).whenComplete((v, e) -> {
+                cacheService.unlock(LOCK_KEY, token);
+                log.info("推荐缓存预热完成: 活跃小时={}, 用户数={}, 已有缓存={}, 已计算={}, 失败={}, 耗时={}ms",
+                    hour, submitted, cachedCount, computed.get(), failed.get(), System.currentTimeMillis() - start);
+            });
+        }
+    }
+
+    /**
+     * 等待预热空位
+     *
+     * @return 活跃小时开始前是否获得空位
+     */
+    private boolean acquireSlot(Semaphore slots, LocalDateTime deadline) {
+        long remainingMs = Duration.between(LocalDateTime.now(), deadline).toMillis();
+        if (remainingMs <= 0) {
+            return false;
+        }
+        try {
+            return slots.tryAcquire(remainingMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * 等待MySQL舱壁保留足够许可给在线请求
+     *
+     * @return 活跃小时开始前是否获得容量
+     */
+    private boolean awaitCapacity(LocalDateTime deadline) {
+        while (mysqlBulkhead.getAvailablePermits() < reservedPermits) {
+            if (!LocalDateTime.now().isBefore(deadline)) {
+                return false;
+            }
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return LocalDateTime.now().isBefore(deadline);
+    }
+}
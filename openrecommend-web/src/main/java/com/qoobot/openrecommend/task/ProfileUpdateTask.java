@@ -11,6 +11,7 @@ import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 
@@ -238,7 +239,7 @@ public class ProfileUpdateTask {
     public void clearAllProfileCache() {
         log.info("开始清理所有画像缓存...");
         try {
-            cacheService.clearAllCache();
+            cacheService.clearAll();
             log.info("所有画像缓存清理完成");
         } catch (Exception e) {
             log.error("清理所有画像缓存失败", e);
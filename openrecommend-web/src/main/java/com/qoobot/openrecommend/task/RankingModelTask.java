@@ -0,0 +1,41 @@
+package com.qoobot.openrecommend.task;
+
+import com.qoobot.openrecommend.algorithm.RankerHolder;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 排序模型热加载任务
+ * 启动时加载一次，之后定期检查模型文件是否更新
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RankingModelTask {
+
+    private final RankerHolder rankerHolder;
+
+    /**
+     * 应用启动后加载模型
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        rankerHolder.reloadIfChanged();
+        log.info("当前排序打分器: {}", rankerHolder.current().name());
+    }
+
+    /**
+     * 检查模型文件更新
+     * 每分钟执行一次
+     */
+    @Scheduled(cron = "0 * * * * ?")
+    public void reloadModel() {
+        if (rankerHolder.reloadIfChanged()) {
+            log.info("排序模型已更新: {}", rankerHolder.current().name());
+        }
+    }
+}
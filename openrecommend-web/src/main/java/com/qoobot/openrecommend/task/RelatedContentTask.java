@@ -0,0 +1,64 @@
+package com.qoobot.openrecommend.task;
+
+import com.qoobot.openrecommend.algorithm.RelatedContentBuilder;
+import com.qoobot.openrecommend.common.enums.ContentType;
+import com.qoobot.openrecommend.service.CacheService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * 相关内容预计算任务
+ * 为每个内容计算相关列表并写入Redis，详情页相关推荐只需一次Key查询
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RelatedContentTask {
+
+    private final RelatedContentBuilder relatedContentBuilder;
+    private final CacheService cacheService;
+
+    @Value("${recommend.related.top-n:50}")
+    private int topN;
+
+    @Value("${recommend.related.ttl:172800}")
+    private long ttl;
+
+    /**
+     * 全量重算相关内容列表
+     * 每天凌晨3点执行
+     */
+    @Scheduled(cron = "0 0 3 * * ?")
+    public void rebuildRelatedContent() {
+        log.info("开始预计算相关内容...");
+
+        for (ContentType contentType : ContentType.ALL.expand()) {
+            try {
+                AtomicInteger written = new AtomicInteger();
+                int count = relatedContentBuilder.build(contentType, topN, chunk -> {
+                    Map<Long, String> related = new LinkedHashMap<>(chunk.size());
+                    chunk.forEach((contentId, ids) -> related.put(contentId, join(ids)));
+                    cacheService.setRelatedBatch(contentType.getCode(), related, ttl);
+                    written.addAndGet(related.size());
+                });
+                log.info("相关内容预计算完成: contentType={}, 内容数={}, 写入={}",
+                    contentType.getCode(), count, written.get());
+            } catch (Exception e) {
+                log.error("相关内容预计算失败: contentType={}", contentType.getCode(), e);
+            }
+        }
+    }
+
+    private static String join(List<Long> ids) {
+        return ids.stream().map(String::valueOf).collect(Collectors.joining(","));
+    }
+}
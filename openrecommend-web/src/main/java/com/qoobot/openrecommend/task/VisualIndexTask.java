@@ -0,0 +1,88 @@
+package com.qoobot.openrecommend.task;
+
+import com.qoobot.openrecommend.algorithm.VideoFeatureAggregator;
+import com.qoobot.openrecommend.algorithm.VisualRecallIndex;
+import com.qoobot.openrecommend.service.ImageService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 视觉索引构建定时任务
+ * 定期回填新图片的颜色直方图、聚合新视频的关键帧特征，并全量重建视觉相似召回使用的向量索引。
+ * 回填需逐张下载原图，在独立的回填线程池中执行，不占用调度线程
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class VisualIndexTask {
+
+    private final VisualRecallIndex visualRecallIndex;
+    private final VideoFeatureAggregator videoFeatureAggregator;
+    private final ImageService imageService;
+    private final ExecutorService virtualThreadExecutor;
+    private final Executor visualBackfillExecutor;
+
+    /**
+     * 应用启动后异步构建一次索引
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        virtualThreadExecutor.execute(this::rebuildVisualIndex);
+    }
+
+    /**
+     * 重建视觉索引
+     * 每小时执行一次
+     */
+    @Scheduled(cron = "0 30 * * * ?")
+    public void rebuildVisualIndex() {
+        log.info("开始重建视觉索引...");
+
+        backfillColorHistogramsAsync();
+
+        try {
+            // 索引只收录已存储真实直方图的图片
+            int imageCount = visualRecallIndex.rebuildImageIndex();
+            log.info("图片视觉索引重建完成，图片数量: {}", imageCount);
+        } catch (Exception e) {
+            log.error("重建图片视觉索引失败", e);
+        }
+
+        try {
+            // 先为新视频聚合关键帧特征，再基于持久化向量重建索引
+            int aggregated = videoFeatureAggregator.refreshMissingVectors();
+            int videoCount = visualRecallIndex.rebuildVideoIndex();
+            log.info("视频视觉索引重建完成，新聚合: {}, 视频数量: {}", aggregated, videoCount);
+        } catch (Exception e) {
+            log.error("重建视频视觉索引失败", e);
+        }
+    }
+
+    /**
+     * 在回填线程池中从原图回填颜色直方图，有新回填时重建图片索引；上一次回填尚未结束时本轮跳过
+     */
+    private void backfillColorHistogramsAsync() {
+        try {
+            CompletableFuture.supplyAsync(imageService::backfillColorHistograms, visualBackfillExecutor)
+                .whenComplete((backfilled, e) -> {
+                    if (e != null) {
+                        log.error("回填颜色直方图失败", e);
+                    } else if (backfilled > 0) {
+                        int imageCount = visualRecallIndex.rebuildImageIndex();
+                        log.info("图片视觉索引重建完成，新回填: {}, 图片数量: {}", backfilled, imageCount);
+                    }
+                });
+        } catch (RejectedExecutionException e) {
+            log.info("上一次颜色直方图回填尚未完成，本轮跳过");
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.qoobot.openrecommend.config;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.jsontype.impl.LaissezFaireSubTypeValidator;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.qoobot.openrecommend.api.dto.RecommendItem;
+import com.qoobot.openrecommend.api.dto.RecommendResponse;
+import com.qoobot.openrecommend.entity.UserProfile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 紧凑二进制序列化器与JSON序列化器的体积、吞吐对比
+ * JSON序列化器与 RedisConfig 中的配置一致；默认跳过，使用 -Dbenchmark=true 运行
+ *
+ * @author Qoobot Team
+ * @since 1.0.0
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class CompactRedisSerializerBenchmarkTest {
+
+    private static final int ITEMS = 20;
+    private static final int WARMUP = 20_000;
+    private static final int ITERATIONS = 100_000;
+
+    private final GenericJackson2JsonRedisSerializer json = productionJson();
+    private final CompactRedisSerializer compact = new CompactRedisSerializer(json);
+
+    @Test
+    void recommendResponse() {
+        compare("RecommendResponse", response());
+    }
+
+    @Test
+    void userProfile() {
+        compare("UserProfile", profile());
+    }
+
+    private void compare(String name, Object value) {
+        byte[] jsonBytes = json.serialize(value);
+        byte[] compactBytes = compact.serialize(value);
+        // JSON不保存 @JsonIgnore 字段，只校验类型；紧凑编码完整往返
+        assertInstanceOf(value.getClass(), json.deserialize(jsonBytes));
+        assertEquals(value, compact.deserialize(compactBytes));
+
+        double jsonOps = throughput(json, value);
+        double compactOps = throughput(compact, value);
+        System.out.printf("%s: json=%dB, compact=%dB (%.1f%%), json=%.0f ops/s, compact=%.0f ops/s (%.2fx)%n",
+            name, jsonBytes.length, compactBytes.length, compactBytes.length * 100.0 / jsonBytes.length,
+            jsonOps, compactOps, compactOps / jsonOps);
+
+        assertTrue(compactBytes.length < jsonBytes.length);
+    }
+
+    /**
+     * 一次序列化加一次反序列化为一个操作
+     */
+    private static double throughput(RedisSerializer<Object> serializer, Object value) {
+        long sink = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            sink += serializer.deserialize(serializer.serialize(value)).hashCode();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += serializer.deserialize(serializer.serialize(value)).hashCode();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        // 使用结果，防止循环被优化掉
+        assertTrue(sink != 1);
+        return ITERATIONS / seconds;
+    }
+
+    private static GenericJackson2JsonRedisSerializer productionJson() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.ANY);
+        objectMapper.activateDefaultTyping(LaissezFaireSubTypeValidator.instance, ObjectMapper.DefaultTyping.NON_FINAL);
+        objectMapper.registerModule(new JavaTimeModule());
+        return new GenericJackson2JsonRedisSerializer(objectMapper);
+    }
+
+    /**
+     * 一页推荐结果：20条混合类型内容，分类与标签在条目间重复
+     * 分数取float可精确表示的值，紧凑编码往返后仍相等
+     */
+    private static RecommendResponse response() {
+        String[] types = {"article", "video", "image"};
+        String[] categories = {"tech", "life", "sports", "finance"};
+        List<RecommendItem> items = new ArrayList<>(ITEMS);
+        for (int i = 0; i < ITEMS; i++) {
+            long id = 100_000L + i * 37;
+            items.add(RecommendItem.builder()
+                .contentId(id)
+                .contentType(types[i % types.length])
+                .score(1.0 - i / 64.0)
+                .reason(i % 2 == 0 ? "基于您的兴趣标签推荐" : "热门推荐")
+                .title("推荐内容标题 " + id)
+                .coverImage("https://cdn.example.com/cover/" + id + ".jpg")
+                .authorId(2_000L + i % 5)
+                .category(categories[i % categories.length])
+                .tags(new ArrayList<>(List.of("ai", "热门", categories[(i + 1) % categories.length])))
+                .qualityScore(0.5 + i % 4 * 0.125)
+                .viewCount(12_345L * (i + 1))
+                .likeCount(678L * (i + 1))
+                .duration(i % 3 == 1 ? 95 + i : null)
+                .publishTime(LocalDateTime.of(2024, 5, 20, 13, 14).minusHours(i))
+                .build());
+        }
+        return RecommendResponse.builder()
+            .items(items)
+            .channels(new ArrayList<>(List.of("content", "cf", "hot")))
+            .partial(false)
+            .degradeMode("full")
+            .nextCursor("s1:20")
+            .timestamp(1_700_000_000_123L)
+            .computedAt(1_700_000_000_000L)
+            .computeCost(37L)
+            .expireAt(1_700_001_800_000L)
+            .build();
+    }
+
+    private static UserProfile profile() {
+        UserProfile profile = new UserProfile();
+        profile.setId(11L);
+        profile.setUserId(10001L);
+        profile.setAgeRange("25-34");
+        profile.setGender(1);
+        profile.setInterestTags("{\"ai\":0.8,\"ml\":0.5,\"体育\":0.3}");
+        profile.setContentPreference("{\"article\":0.6,\"video\":0.4}");
+        profile.setCategoryPreference("{\"1\":0.7,\"3\":0.2}");
+        profile.setActivePeriods("[8,12,21]");
+        profile.setDevicePreference("{\"mobile\":0.9}");
+        profile.setReadPreference("{\"length\":\"long\"}");
+        profile.setTotalReadTime(36_000);
+        profile.setTotalViewCount(420);
+        profile.setTotalLikeCount(37);
+        profile.setTotalCollectCount(5);
+        profile.setLastUpdateTime(LocalDateTime.of(2024, 3, 1, 8, 30, 15));
+        profile.setCreateTime(LocalDateTime.of(2023, 1, 1, 0, 0));
+        profile.setUpdateTime(LocalDateTime.of(2024, 3, 1, 8, 30, 15));
+        profile.setIsDeleted(0);
+        return profile;
+    }
+}
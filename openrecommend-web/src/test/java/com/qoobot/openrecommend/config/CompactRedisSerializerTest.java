@@ -0,0 +1,240 @@
+package com.qoobot.openrecommend.config;
+
+import com.qoobot.openrecommend.api.dto.RecommendItem;
+import com.qoobot.openrecommend.api.dto.RecommendResponse;
+import com.qoobot.openrecommend.entity.UserProfile;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 紧凑二进制序列化器往返测试
+ *
+ * @author Qoobot Team
+ * @since 1.0.0
+ */
+class CompactRedisSerializerTest {
+
+    private final CompactRedisSerializer serializer =
+        new CompactRedisSerializer(new GenericJackson2JsonRedisSerializer());
+
+    @Test
+    void responseWithAllFieldsRoundTrips() {
+        RecommendResponse response = RecommendResponse.builder()
+            .items(List.of(fullItem(1L, "article"), fullItem(2L, "video")))
+            .channels(List.of("content", "cf", "hot"))
+            .partial(true)
+            .degradeMode("no_user_cf")
+            .nextCursor("s1:20")
+            .timestamp(1_700_000_000_123L)
+            .computedAt(1_700_000_000_000L)
+            .computeCost(37L)
+            .expireAt(1_700_001_800_000L)
+            .build();
+
+        assertEquals(response, roundTrip(response));
+    }
+
+    @Test
+    void nullFieldsStayNull() {
+        RecommendResponse empty = new RecommendResponse();
+        assertEquals(empty, roundTrip(empty));
+
+        RecommendItem sparse = RecommendItem.builder().contentId(9L).build();
+        RecommendResponse response = RecommendResponse.builder()
+            .items(List.of(sparse))
+            .partial(false)
+            .build();
+        RecommendResponse decoded = (RecommendResponse) roundTrip(response);
+        assertEquals(response, decoded);
+        assertNull(decoded.getChannels());
+        assertNull(decoded.getItems().get(0).getContentType());
+        assertNull(decoded.getItems().get(0).getTags());
+        assertNull(decoded.getItems().get(0).getPublishTime());
+    }
+
+    @Test
+    void emptyCollectionsAreNotNull() {
+        RecommendItem item = RecommendItem.builder().contentId(1L).tags(new ArrayList<>()).build();
+        RecommendResponse response = RecommendResponse.builder()
+            .items(new ArrayList<>(List.of(item)))
+            .channels(new ArrayList<>())
+            .build();
+        RecommendResponse decoded = (RecommendResponse) roundTrip(response);
+        assertEquals(Collections.emptyList(), decoded.getChannels());
+        assertEquals(Collections.emptyList(), decoded.getItems().get(0).getTags());
+    }
+
+    @Test
+    void repeatedStringsAreWrittenOnce() {
+        String reason = "基于您的兴趣标签推荐：人工智能、机器学习";
+        List<RecommendItem> shared = List.of(
+            RecommendItem.builder().contentId(1L).reason(reason).category("tech").tags(List.of("ai", "ml")).build(),
+            RecommendItem.builder().contentId(2L).reason(reason).category("tech").tags(List.of("ml", "ai")).build());
+        List<RecommendItem> distinct = List.of(
+            RecommendItem.builder().contentId(1L).reason(reason).category("tech").tags(List.of("ai", "ml")).build(),
+            RecommendItem.builder().contentId(2L).reason(reason.replace('推', '选')).category("tech")
+                .tags(List.of("ml", "ai")).build());
+
+        byte[] sharedBytes = serializer.serialize(shared);
+        byte[] distinctBytes = serializer.serialize(distinct);
+        assertTrue(sharedBytes.length + reason.getBytes(StandardCharsets.UTF_8).length <= distinctBytes.length);
+        assertEquals(shared, serializer.deserialize(sharedBytes));
+        assertEquals(distinct, serializer.deserialize(distinctBytes));
+    }
+
+    @Test
+    void internedStringsAreSharedAcrossFields() {
+        // 通道名、降级模式、分类与标签共用一张字符串表
+        RecommendResponse response = RecommendResponse.builder()
+            .items(List.of(
+                RecommendItem.builder().contentId(1L).reason("hot").category("hot").tags(List.of("hot", "full"))
+                    .build(),
+                RecommendItem.builder().contentId(2L).reason("full").tags(List.of("content")).build()))
+            .channels(List.of("content", "hot"))
+            .degradeMode("full")
+            .build();
+
+        assertEquals(response, roundTrip(response));
+    }
+
+    @Test
+    void contentTypeOutsideDictionaryRoundTrips() {
+        List<RecommendItem> items = List.of(
+            RecommendItem.builder().contentId(1L).contentType("podcast").build(),
+            RecommendItem.builder().contentId(2L).contentType("image").build(),
+            RecommendItem.builder().contentId(3L).contentType("podcast").reason("podcast").build(),
+            RecommendItem.builder().contentId(4L).contentType("all").build());
+
+        assertEquals(items, roundTrip(items));
+    }
+
+    @Test
+    void negativeAndBoundaryNumbersRoundTrip() {
+        RecommendItem item = RecommendItem.builder()
+            .contentId(Long.MAX_VALUE)
+            .authorId(-1L)
+            .viewCount(0L)
+            .likeCount(Long.MIN_VALUE)
+            .duration(Integer.MAX_VALUE)
+            .score(-0.5)
+            .qualityScore(0.0)
+            .publishTime(LocalDateTime.of(1969, 12, 31, 23, 59, 59, 999_999_999))
+            .build();
+
+        assertEquals(List.of(item), roundTrip(List.of(item)));
+    }
+
+    @Test
+    void scoresAreStoredAsFloat() {
+        RecommendItem item = RecommendItem.builder().contentId(1L).score(0.1).qualityScore(1.0 / 3).build();
+
+        RecommendItem decoded = (RecommendItem) ((List<?>) roundTrip(List.of(item))).get(0);
+        assertEquals((double) 0.1f, decoded.getScore());
+        assertEquals((double) (float) (1.0 / 3), decoded.getQualityScore());
+    }
+
+    @Test
+    void userProfileWithAllFieldsRoundTrips() {
+        UserProfile profile = new UserProfile();
+        profile.setId(11L);
+        profile.setUserId(10001L);
+        profile.setAgeRange("25-34");
+        profile.setGender(1);
+        profile.setInterestTags("{\"ai\":0.8,\"ml\":0.5}");
+        profile.setContentPreference("{\"article\":0.6,\"video\":0.4}");
+        profile.setCategoryPreference("{\"1\":0.7}");
+        profile.setActivePeriods("[8,12,21]");
+        profile.setDevicePreference("{\"mobile\":0.9}");
+        profile.setReadPreference("{\"length\":\"long\"}");
+        profile.setTotalReadTime(36_000);
+        profile.setTotalViewCount(420);
+        profile.setTotalLikeCount(37);
+        profile.setTotalCollectCount(5);
+        profile.setLastUpdateTime(LocalDateTime.of(2024, 3, 1, 8, 30, 15, 123_000_000));
+        profile.setCreateTime(LocalDateTime.of(2023, 1, 1, 0, 0));
+        profile.setUpdateTime(LocalDateTime.of(2024, 3, 1, 8, 30, 15));
+        profile.setIsDeleted(0);
+
+        assertEquals(profile, roundTrip(profile));
+    }
+
+    @Test
+    void userProfileNullFieldsStayNull() {
+        UserProfile profile = new UserProfile();
+        profile.setUserId(10002L);
+
+        UserProfile decoded = (UserProfile) roundTrip(profile);
+        assertEquals(profile, decoded);
+        assertNull(decoded.getInterestTags());
+        assertNull(decoded.getLastUpdateTime());
+    }
+
+    @Test
+    void otherValuesUseFallback() {
+        Map<String, Object> value = new HashMap<>();
+        value.put("ids", "1,2,3");
+        byte[] bytes = serializer.serialize(value);
+
+        assertEquals(value, new GenericJackson2JsonRedisSerializer().deserialize(bytes));
+        assertEquals(value, serializer.deserialize(bytes));
+        // 空列表无法判断元素类型，同样交给回退序列化器
+        assertArrayEquals(new GenericJackson2JsonRedisSerializer().serialize(List.of()), serializer.serialize(List.of()));
+    }
+
+    @Test
+    void legacyJsonValueIsReadByFallback() {
+        GenericJackson2JsonRedisSerializer json = new GenericJackson2JsonRedisSerializer();
+        RecommendResponse response = RecommendResponse.builder()
+            .items(new ArrayList<>(List.of(RecommendItem.builder().contentId(1L).contentType("article").build())))
+            .build();
+
+        Object decoded = serializer.deserialize(json.serialize(response));
+        assertInstanceOf(RecommendResponse.class, decoded);
+        assertEquals(response.getItems(), ((RecommendResponse) decoded).getItems());
+    }
+
+    @Test
+    void unknownSchemaVersionIsTreatedAsMiss() {
+        byte[] bytes = serializer.serialize(RecommendResponse.builder().partial(true).build());
+        bytes[1]++;
+
+        assertNull(serializer.deserialize(bytes));
+    }
+
+    private Object roundTrip(Object value) {
+        return serializer.deserialize(serializer.serialize(value));
+    }
+
+    private static RecommendItem fullItem(Long id, String contentType) {
+        return RecommendItem.builder()
+            .contentId(id)
+            .contentType(contentType)
+            .score(0.875)
+            .reason("热门推荐")
+            .title("标题 " + id)
+            .coverImage("https://cdn.example.com/cover/" + id + ".jpg")
+            .authorId(100L + id)
+            .category("tech")
+            .tags(List.of("ai", "热门"))
+            .qualityScore(0.5)
+            .viewCount(12_345L)
+            .likeCount(678L)
+            .duration(95)
+            .publishTime(LocalDateTime.of(2024, 5, 20, 13, 14, 0, 500))
+            .build();
+    }
+}